@@ -0,0 +1,110 @@
+package edc.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executors for work that runs outside the request thread:
+ * - provisioningExecutor: one virtual thread per participant provisioning, at most app.provisioning.max-concurrency of them
+ *   running; the others wait for a permit on their virtual thread, the thread submitting them never waits
+ * - outboxExecutor: one virtual thread per outbox event of the batch being relayed, bounded by app.outbox.batch-size
+ * - outboxRelayExecutor: the single virtual thread that claims a batch and waits for it, off the shared scheduler thread
+ * - countRefreshExecutor: small pool recounting estimated list totals, rejects recounts when full instead of blocking requests;
+ *   its threads are virtual when spring.threads.virtual.enabled is set
+ * Request threads (Tomcat) and @Scheduled tasks follow spring.threads.virtual.enabled.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncConfig {
+
+    public static final String PROVISIONING_EXECUTOR = "provisioningExecutor";
+    public static final String OUTBOX_EXECUTOR = "outboxExecutor";
+    public static final String OUTBOX_RELAY_EXECUTOR = "outboxRelayExecutor";
+    public static final String COUNT_REFRESH_EXECUTOR = "countRefreshExecutor";
+
+    private final ProvisioningProperties provisioningProperties;
+    private final OutboxProperties outboxProperties;
+    private final PaginationProperties paginationProperties;
+    private final Environment environment;
+
+    @Bean(name = PROVISIONING_EXECUTOR)
+    public SimpleAsyncTaskExecutor provisioningExecutor() {
+        log.trace("Configuring provisioning executor with max concurrency: {}", provisioningProperties.getMaxConcurrency());
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("provisioning-");
+        executor.setVirtualThreads(true);
+        // not setConcurrencyLimit: its throttle blocks the submitting thread, here the request thread committing the
+        // participants (a batch publishes hundreds of them); the virtual thread of each task waits for a permit instead
+        executor.setTaskDecorator(permits(provisioningProperties.getMaxConcurrency()));
+        executor.setTaskTerminationTimeout(provisioningProperties.getShutdownTimeout().toMillis());
+        return executor;
+    }
+
+    /**
+     * Runs at most the given number of tasks at the same time, the others wait for a permit on their own thread.
+     */
+    private static TaskDecorator permits(int permits) {
+        Semaphore semaphore = new Semaphore(permits, true);
+        return task -> () -> {
+            try {
+                semaphore.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting to run {}, task dropped", Thread.currentThread().getName());
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                semaphore.release();
+            }
+        };
+    }
+
+    @Bean(name = OUTBOX_EXECUTOR)
+    public SimpleAsyncTaskExecutor outboxExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("outbox-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(outboxProperties.getBatchSize());
+        executor.setTaskTerminationTimeout(provisioningProperties.getShutdownTimeout().toMillis());
+        return executor;
+    }
+
+    @Bean(name = OUTBOX_RELAY_EXECUTOR)
+    public SimpleAsyncTaskExecutor outboxRelayExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("outbox-relay-");
+        executor.setVirtualThreads(true);
+        // no concurrency limit: OutboxRelay never submits a batch while one is running, and a throttle would block
+        // the scheduler thread in the instant between the end of a batch and the release of its thread
+        executor.setTaskTerminationTimeout(provisioningProperties.getShutdownTimeout().toMillis());
+        return executor;
+    }
+
+    @Bean(name = COUNT_REFRESH_EXECUTOR)
+    public ThreadPoolTaskExecutor countRefreshExecutor() {
+        PaginationProperties.Estimate estimate = paginationProperties.getEstimate();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("count-refresh-");
+        executor.setCorePoolSize(estimate.getRefreshConcurrency());
+        executor.setMaxPoolSize(estimate.getRefreshConcurrency());
+        executor.setQueueCapacity(estimate.getRefreshQueueCapacity());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // keeps the bounded queue and the rejection of extra recounts, the count queries block on JDBC
+            executor.setThreadFactory(Thread.ofVirtual().name("count-refresh-", 0).factory());
+        }
+        return executor;
+    }
+}
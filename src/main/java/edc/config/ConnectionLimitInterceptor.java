@@ -0,0 +1,126 @@
+package edc.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the requests in flight to one downstream: a request waits at most acquire-timeout for a slot
+ * and then fails with an I/O error (ResourceAccessException for RestClient callers).
+ * The slot is held until the response is closed, as the connection is.
+ * Meters, tagged client=name: http.client.connections.active / .max / .pending, http.client.connections.rejected.
+ */
+public class ConnectionLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String name;
+    private final int maxConnections;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public ConnectionLimitInterceptor(String name, int maxConnections, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConnections = maxConnections;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+
+        Gauge.builder("http.client.connections.active", permits, p -> maxConnections - p.availablePermits())
+                .description("Requests in flight")
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("http.client.connections.max", () -> maxConnections)
+                .description("Maximum requests in flight")
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("http.client.connections.pending", permits, Semaphore::getQueueLength)
+                .description("Requests waiting for a connection")
+                .tag("client", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("http.client.connections.rejected")
+                .description("Requests failed because no connection was available within the acquire timeout")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new IOException("No connection to " + name + " available within " + acquireTimeout
+                        + " (" + maxConnections + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection to " + name, e);
+        }
+
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return new PermitReleasingResponse(response, permits);
+    }
+
+    /**
+     * Response that gives its slot back when closed (once).
+     */
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitReleasingResponse(ClientHttpResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
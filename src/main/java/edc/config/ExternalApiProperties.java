@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "external.api")
@@ -21,10 +23,45 @@ public class ExternalApiProperties {
     @Data
     public static class Provisioner {
         private String endpoint;
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        // deprovisioning only, provisioning is not idempotent
+        private Retry retry = new Retry();
     }
 
     @Data
     public static class Credentials {
         private String endpoint;
+        // identityhub base URL of a participant, {participant} is the normalized participant name
+        private String serviceUrlTemplate = "http://identityhub.{participant}.svc.cluster.local:7081";
+        // one circuit breaker per participant identityhub
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    }
+
+    /**
+     * Circuit breaker of a downstream, see edc.service.resilience.CircuitBreaker.
+     */
+    @Data
+    public static class CircuitBreaker {
+        // failure percentage of the sliding window that opens the circuit
+        private double failureRateThreshold = 50;
+        // number of last calls the failure rate is computed on
+        private int slidingWindowSize = 20;
+        // calls recorded before the failure rate is evaluated
+        private int minimumCalls = 10;
+        // time calls are refused once the circuit opened
+        private Duration openDuration = Duration.ofSeconds(30);
+        // trial calls let through after open-duration
+        private int halfOpenCalls = 3;
+    }
+
+    /**
+     * Retry of idempotent calls, see edc.service.resilience.Retry.
+     */
+    @Data
+    public static class Retry {
+        // attempts including the first call
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private Duration maxBackoff = Duration.ofSeconds(5);
     }
 }
@@ -0,0 +1,81 @@
+package edc.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds one JDK HttpClient per downstream service, so that a slow service only exhausts its own resources:
+ * - own connect timeout, read timeout and HTTP version
+ * - own executor for the client's response handling (platform pool named after the client, or virtual threads when enabled)
+ * - own cap on requests in flight ({@link ConnectionLimitInterceptor})
+ * The JDK keep-alive timeout is JVM-wide, it is left to the deployment (-Djdk.httpclient.keepalive.timeout).
+ */
+@Component
+@Slf4j
+public class HttpClientFactory implements DisposableBean {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    public HttpClientFactory(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applies the HTTP client of a downstream to a RestClient builder.
+     * @param name client name, used for thread names and the client meter tag
+     * @param url base URL of the downstream, HTTP/2 is negotiated only for https (null: HTTP/1.1)
+     */
+    public RestClient.Builder configure(RestClient.Builder builder, String name, String url, HttpClientProperties.Downstream downstream) {
+        log.trace("Configuring HTTP client {} for {}: {}", name, url, downstream);
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient(name, url, downstream));
+        requestFactory.setReadTimeout(downstream.getReadTimeout());
+        return builder
+                .requestFactory(requestFactory)
+                .requestInterceptor(new ConnectionLimitInterceptor(name, downstream.getMaxConnections(),
+                        downstream.getAcquireTimeout(), meterRegistry));
+    }
+
+    private HttpClient httpClient(String name, String url, HttpClientProperties.Downstream downstream) {
+        boolean http2 = downstream.isHttp2() && url != null && url.regionMatches(true, 0, "https:", 0, 6);
+        return HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(downstream.getConnectTimeout())
+                .executor(executor(name, downstream))
+                .build();
+    }
+
+    private ExecutorService executor(String name, HttpClientProperties.Downstream downstream) {
+        ExecutorService executor;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-" + name + "-", 0).factory());
+        } else {
+            executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                    Executors.newFixedThreadPool(downstream.getExecutorThreads(),
+                            Thread.ofPlatform().name("http-" + name + "-", 0).daemon().factory()),
+                    "http.client." + name);
+        }
+        executors.add(executor);
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        executors.forEach(ExecutorService::shutdown);
+    }
+}
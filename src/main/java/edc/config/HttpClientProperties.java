@@ -0,0 +1,46 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.http-clients")
+public class HttpClientProperties {
+
+    private Downstream keycloak = new Downstream();
+    private Downstream provisioner = new Downstream();
+    private Downstream identityhub = new Downstream();
+    private IdentityHubRegistry identityhubRegistry = new IdentityHubRegistry();
+
+    /**
+     * HTTP client of one downstream service.
+     */
+    @Data
+    public static class Downstream {
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        // time to wait for the response headers and between body reads
+        private Duration readTimeout = Duration.ofSeconds(10);
+        // requests in flight at the same time, hence open connections over HTTP/1.1
+        private int maxConnections = 20;
+        // time a request waits for one of max-connections before failing
+        private Duration acquireTimeout = Duration.ofSeconds(1);
+        // negotiate HTTP/2 on https URLs (falls back to HTTP/1.1), plain http always uses HTTP/1.1
+        private boolean http2 = true;
+        // threads running the client's response handling, virtual threads are used instead when enabled
+        private int executorThreads = 4;
+    }
+
+    /**
+     * Per-participant identityhub clients.
+     */
+    @Data
+    public static class IdentityHubRegistry {
+        // participants whose client is kept, least recently used are dropped first
+        private int maximumSize = 2_000;
+        private Duration ttl = Duration.ofHours(1);
+    }
+}
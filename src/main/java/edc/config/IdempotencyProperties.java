@@ -0,0 +1,21 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    // how long the response of a keyed request is replayed to its retries
+    private Duration ttl = Duration.ofHours(24);
+    // a request still running after the lock timeout is considered dead, a retry then executes it again
+    private Duration lockTimeout = Duration.ofMinutes(5);
+    // longest Idempotency-Key header accepted
+    private int maxKeyLength = 255;
+    private Duration purgeInterval = Duration.ofMinutes(15);
+}
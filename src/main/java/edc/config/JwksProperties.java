@@ -0,0 +1,20 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.security.jwks")
+public class JwksProperties {
+
+    // background refresh of the issuer signing keys
+    private Duration refreshInterval = Duration.ofMinutes(5);
+    // minimum delay between two on-demand refreshes caused by tokens signed with an unknown kid
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(5);
+}
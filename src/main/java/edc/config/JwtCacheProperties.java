@@ -0,0 +1,16 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.security.jwt-cache")
+public class JwtCacheProperties {
+
+    // cache verified bearer tokens until their exp claim
+    private boolean enabled = true;
+    // maximum number of distinct tokens kept
+    private int maximumSize = 10_000;
+}
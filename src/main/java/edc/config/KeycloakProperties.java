@@ -4,6 +4,7 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -15,11 +16,14 @@ public class KeycloakProperties {
     private Admin admin = new Admin();
     private Map<String, String> customAttributeKeys;
     private Client client = new Client();
+    private RoleCache roleCache = new RoleCache();
 
     @Data
     public static class Admin {
         private String username;
         private String password;
+        // admin tokens are considered expired this long before Keycloak's expires_in
+        private Duration tokenRefreshSkew = Duration.ofSeconds(30);
     }
 
     @Data
@@ -30,6 +34,12 @@ public class KeycloakProperties {
         private List<String> webOrigins;
     }
 
+    @Data
+    public static class RoleCache {
+        private int maximumSize = 500;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
 
     public String getTenantKey() {
         return customAttributeKeys != null ? customAttributeKeys.get("tenant") : null;
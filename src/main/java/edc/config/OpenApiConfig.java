@@ -1,10 +1,12 @@
 package edc.config;
 
+import edc.config.security.CallerContext;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.servers.Server;
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +15,11 @@ import java.util.List;
 @Configuration
 public class OpenApiConfig {
 
+    static {
+        // resolved from the authentication, not a request parameter
+        SpringDocUtils.getConfig().addRequestWrapperToIgnore(CallerContext.class);
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
@@ -0,0 +1,25 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.operation-events")
+public class OperationEventsProperties {
+
+    // false: operations are inserted in the transaction of the state change; true: queued after commit and inserted in batches
+    private boolean writeBehind = false;
+    // write-behind queue size, callers wait up to enqueue-timeout when it is full
+    private int queueCapacity = 10_000;
+    // a batch is inserted once it has batch-size operations or its first operation waited flush-interval
+    private int batchSize = 100;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    // after this wait on a full queue the caller inserts its operations itself
+    private Duration enqueueTimeout = Duration.ofMillis(100);
+    // time given to the queued operations to be written on shutdown
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
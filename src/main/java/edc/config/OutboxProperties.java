@@ -0,0 +1,23 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    private boolean relayEnabled = true;
+    // events claimed per poll, they are executed concurrently
+    private int batchSize = 20;
+    private Duration pollInterval = Duration.ofSeconds(2);
+    // a claimed event is handed to another relay if not completed within the lease
+    private Duration lease = Duration.ofMinutes(5);
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofSeconds(10);
+    private Duration maxBackoff = Duration.ofMinutes(10);
+}
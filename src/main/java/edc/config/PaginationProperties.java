@@ -0,0 +1,32 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.pagination")
+public class PaginationProperties {
+
+    private Estimate estimate = new Estimate();
+
+    /**
+     * Cached totals served for withTotal=estimate.
+     */
+    @Data
+    public static class Estimate {
+        // age after which a cached total is recounted in the background (the cached value is still served)
+        private Duration refreshAfter = Duration.ofSeconds(30);
+        // age after which a cached total is dropped and the next request counts synchronously
+        private Duration expireAfter = Duration.ofMinutes(10);
+        // maximum number of cached totals (one per listing, tenant and filter combination)
+        private int maximumSize = 10_000;
+        // count queries run at the same time in the background
+        private int refreshConcurrency = 2;
+        // background recounts waiting for a thread; further ones are skipped until the next request
+        private int refreshQueueCapacity = 100;
+    }
+}
@@ -0,0 +1,44 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.security.password-hashing")
+public class PasswordHashingProperties {
+
+    // id used for new hashes: bcrypt, pbkdf2 or argon2 (argon2 needs org.bouncycastle:bcprov-jdk18on at runtime)
+    private String encoder = "bcrypt";
+    // hashing threads, 0 means one per available core
+    private int threads = 0;
+    // hashes waiting for a thread, further requests are rejected
+    private int queueCapacity = 1000;
+    private Bcrypt bcrypt = new Bcrypt();
+    private Pbkdf2 pbkdf2 = new Pbkdf2();
+    private Argon2 argon2 = new Argon2();
+
+    @Data
+    public static class Bcrypt {
+        // log2 of the number of rounds
+        private int strength = 10;
+    }
+
+    @Data
+    public static class Pbkdf2 {
+        private int saltLength = 16;
+        private int iterations = 310000;
+        private String algorithm = "PBKDF2WithHmacSHA256";
+    }
+
+    @Data
+    public static class Argon2 {
+        private int saltLength = 16;
+        private int hashLength = 32;
+        private int parallelism = 1;
+        // memory cost in KiB
+        private int memory = 19456;
+        private int iterations = 2;
+    }
+}
@@ -0,0 +1,26 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.provisioning")
+public class ProvisioningProperties {
+
+    // maximum number of participants provisioned at the same time
+    private int maxConcurrency = 16;
+    // participants accepted by one POST /v1/participants/batch, larger batches are rejected with 400
+    private int maxBatchSize = 1000;
+    // how long shutdown waits for running provisioning tasks
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+    // a participant still waiting for its Keycloak user after this time is marked PROVISION_FAILED
+    private Duration staleAfter = Duration.ofMinutes(15);
+    // delay between two searches of stale provisionings
+    private Duration reconcileInterval = Duration.ofMinutes(5);
+    // stale participants failed per search
+    private int reconcileBatchSize = 100;
+}
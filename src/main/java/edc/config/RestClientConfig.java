@@ -5,11 +5,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
-import java.net.http.HttpClient;
-
+/**
+ * One RestClient per downstream, each with its own HTTP client (app.http-clients.*, see {@link HttpClientFactory}):
+ * - externalApiRestClient: provisioner
+ * - keycloakRestClient: Keycloak admin API
+ * - restClient (primary): identityhub credential requests
+ */
 @Configuration
 @RequiredArgsConstructor
 @Slf4j
@@ -17,43 +20,32 @@ public class RestClientConfig {
 
     private final ExternalApiProperties externalApiProperties;
     private final KeycloakProperties keycloakProperties;
-
-    HttpClient httpClient = HttpClient.newBuilder()
-            .version(HttpClient.Version.HTTP_1_1)
-            .build();
+    private final HttpClientProperties httpClientProperties;
+    private final HttpClientFactory httpClientFactory;
 
     @Bean(name = "externalApiRestClient")
     public RestClient externalApiRestClient(RestClient.Builder restClientBuilder) {
         log.trace("Configuring RestClient externalApiRestClient with base URL: {}", externalApiProperties.getBaseUrl());
-        return restClientBuilder
+        return httpClientFactory.configure(restClientBuilder, "provisioner",
+                        externalApiProperties.getBaseUrl(), httpClientProperties.getProvisioner())
                 .baseUrl(externalApiProperties.getBaseUrl())
-                .requestFactory(new JdkClientHttpRequestFactory(httpClient))
                 .build();
     }
 
     @Bean(name = "keycloakRestClient")
     public RestClient kkRestClient(RestClient.Builder restClientBuilder) {
         log.trace("Configuring RestClient keycloakRestClient with base URL: {}", keycloakProperties.getBaseUrl());
-        return restClientBuilder
+        return httpClientFactory.configure(restClientBuilder, "keycloak",
+                        keycloakProperties.getBaseUrl(), httpClientProperties.getKeycloak())
                 .baseUrl(keycloakProperties.getBaseUrl())
-                .requestFactory(new JdkClientHttpRequestFactory(httpClient))
                 .build();
     }
 
     @Bean()
     @Primary
     public RestClient restClient(RestClient.Builder restClientBuilder) {
-        return restClientBuilder.build();
-    }
-
-    // Optional: custom timeout configuration
-    /*
-    @Bean
-    public ClientHttpRequestFactory clientHttpRequestFactory() {
-        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
-        factory.setConnectTimeout(Duration.ofSeconds(30));
-        factory.setReadTimeout(Duration.ofSeconds(60));
-        return factory;
+        // identityhub URLs are built per participant (plain http inside the cluster), no base URL
+        return httpClientFactory.configure(restClientBuilder, "identityhub", null, httpClientProperties.getIdentityhub())
+                .build();
     }
-    */
 }
@@ -0,0 +1,18 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.tenant-cache")
+public class TenantCacheProperties {
+
+    // maximum number of tenant names kept
+    private int maximumSize = 1000;
+    // bounds how long another instance keeps serving a tenant deleted elsewhere
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,17 @@
+package edc.config;
+
+import edc.util.TotalMode;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the withTotal query parameter from its lowercase values (false, exact, estimate).
+ */
+@Component
+public class TotalModeConverter implements Converter<String, TotalMode> {
+
+    @Override
+    public TotalMode convert(String source) {
+        return TotalMode.fromValue(source.trim());
+    }
+}
@@ -0,0 +1,99 @@
+package edc.config;
+
+import edc.util.ExpiringCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR jdk.VirtualThreadPinned events of this JVM while virtual threads are enabled:
+ * - every pinned section longer than app.virtual-threads.pinning-threshold is recorded in the
+ *   jvm.threads.virtual.pinned timer
+ * - each distinct pinning stack (typically a blocking call inside synchronized) is logged once per
+ *   app.virtual-threads.pinning-log-interval
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(prefix = "app.virtual-threads", name = "pinning-monitor-enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final VirtualThreadsProperties virtualThreadsProperties;
+    private final Timer pinnedTimer;
+    private final ExpiringCache<String, Boolean> loggedStacks;
+
+    private volatile RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(VirtualThreadsProperties virtualThreadsProperties, MeterRegistry meterRegistry) {
+        this.virtualThreadsProperties = virtualThreadsProperties;
+        this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .register(meterRegistry);
+        this.loggedStacks = new ExpiringCache<>(1_000, virtualThreadsProperties.getPinningLogInterval());
+    }
+
+    @Override
+    public void start() {
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT)
+                .withThreshold(virtualThreadsProperties.getPinningThreshold())
+                .withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        recording = stream;
+        log.info("Monitoring virtual thread pinning longer than {}", virtualThreadsProperties.getPinningThreshold());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream stream = recording;
+        recording = null;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recording != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        String stack = format(event.getStackTrace());
+        if (loggedStacks.get(stack).isEmpty()) {
+            loggedStacks.put(stack, Boolean.TRUE);
+            log.warn("Virtual thread {} pinned its carrier for {} ms at:{}",
+                    event.getThread() != null ? event.getThread().getJavaName() : "?",
+                    event.getDuration().toMillis(), stack);
+        }
+    }
+
+    private String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " (no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(virtualThreadsProperties.getPinningStackDepth())
+                .map(this::format)
+                .collect(Collectors.joining());
+    }
+
+    private String format(RecordedFrame frame) {
+        return "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+}
@@ -0,0 +1,22 @@
+package edc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.virtual-threads")
+public class VirtualThreadsProperties {
+
+    // JFR monitor of virtual threads pinning their carrier, active only with spring.threads.virtual.enabled
+    private boolean pinningMonitorEnabled = true;
+    // pinned sections shorter than this are ignored
+    private Duration pinningThreshold = Duration.ofMillis(20);
+    // the same pinning stack is logged once per interval, every occurrence is still measured
+    private Duration pinningLogInterval = Duration.ofMinutes(10);
+    // frames of the pinning stack written to the log
+    private int pinningStackDepth = 12;
+}
@@ -0,0 +1,36 @@
+package edc.config.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/** JWT authentication carrying the {@link CallerContext} resolved when the token was verified. */
+public class CallerAuthenticationToken extends JwtAuthenticationToken {
+
+  /** */
+  private final CallerContext callerContext;
+
+  /**
+   * @param jwt
+   * @param authorities
+   * @param name
+   * @param callerContext
+   */
+  public CallerAuthenticationToken(
+      Jwt jwt,
+      Collection<? extends GrantedAuthority> authorities,
+      String name,
+      CallerContext callerContext) {
+    super(jwt, authorities, name);
+    this.callerContext = callerContext;
+  }
+
+  /**
+   * @return
+   */
+  public CallerContext getCallerContext() {
+    return callerContext;
+  }
+}
@@ -0,0 +1,90 @@
+package edc.config.security;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ * Caller of the current request, resolved once per verified token: role flags (a bitset of
+ * {@link Role}) plus the tenantName and username claims. Controllers receive it as a handler
+ * method argument, see {@link CallerContextArgumentResolver}.
+ */
+public final class CallerContext implements Serializable {
+
+  /** Caller without a bearer token or without any of the application roles. */
+  public static final CallerContext ANONYMOUS = new CallerContext(0, null, null);
+
+  /** Application roles, mapped from the authorities configured in RoleConfig. */
+  public enum Role {
+    ADMIN,
+    ADMIN_TENANT,
+    USER_PARTICIPANT;
+
+    /** */
+    int bit() {
+      return 1 << ordinal();
+    }
+  }
+
+  /** */
+  private final int roles;
+
+  /** */
+  private final String tenantName;
+
+  /** */
+  private final String username;
+
+  /**
+   * @param roles bitset of {@link Role#bit()}
+   * @param tenantName
+   * @param username
+   */
+  CallerContext(int roles, String tenantName, String username) {
+    this.roles = roles;
+    this.tenantName = tenantName;
+    this.username = username;
+  }
+
+  /**
+   * @param role
+   * @return
+   */
+  public boolean hasRole(Role role) {
+    return (roles & role.bit()) != 0;
+  }
+
+  /** */
+  public boolean isAdmin() {
+    return hasRole(Role.ADMIN);
+  }
+
+  /** */
+  public boolean isAdminTenant() {
+    return hasRole(Role.ADMIN_TENANT);
+  }
+
+  /** */
+  public boolean isUserParticipant() {
+    return hasRole(Role.USER_PARTICIPANT);
+  }
+
+  /**
+   * @return tenantName claim, empty when missing or blank
+   */
+  public Optional<String> getTenantName() {
+    return Optional.ofNullable(tenantName);
+  }
+
+  /**
+   * @return username claim, empty when missing or blank
+   */
+  public Optional<String> getUsername() {
+    return Optional.ofNullable(username);
+  }
+
+  @Override
+  public String toString() {
+    return "CallerContext{roles=" + Integer.toBinaryString(roles)
+        + ", tenantName=" + tenantName + ", username=" + username + "}";
+  }
+}
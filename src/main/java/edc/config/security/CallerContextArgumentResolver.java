@@ -0,0 +1,48 @@
+package edc.config.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CallerContext} handler method arguments from the current authentication:
+ * - {@link CallerAuthenticationToken}: the context built during authentication
+ * - other JWT authentications: a context built from the token
+ * - no JWT authentication (security disabled): {@link CallerContext#ANONYMOUS}
+ */
+@RequiredArgsConstructor
+@Component
+public class CallerContextArgumentResolver implements HandlerMethodArgumentResolver {
+
+  /** */
+  private final CallerContextFactory callerContextFactory;
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return CallerContext.class.equals(parameter.getParameterType());
+  }
+
+  @Override
+  public CallerContext resolveArgument(
+      MethodParameter parameter,
+      ModelAndViewContainer mavContainer,
+      NativeWebRequest webRequest,
+      WebDataBinderFactory binderFactory) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication instanceof CallerAuthenticationToken callerAuthentication) {
+      return callerAuthentication.getCallerContext();
+    }
+    if (authentication instanceof JwtAuthenticationToken jwtAuthentication) {
+      return callerContextFactory.create(
+          jwtAuthentication.getToken(), jwtAuthentication.getAuthorities());
+    }
+    return CallerContext.ANONYMOUS;
+  }
+}
@@ -0,0 +1,47 @@
+package edc.config.security;
+
+import edc.config.security.roles.RoleConfig;
+import edc.util.VisibilityUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/** Builds the {@link CallerContext} of an authenticated token. */
+@RequiredArgsConstructor
+@Component
+public class CallerContextFactory {
+
+  /** */
+  private final RoleConfig roleConfig;
+
+  /**
+   * @param jwt
+   * @param authorities
+   * @return
+   */
+  public CallerContext create(Jwt jwt, Collection<? extends GrantedAuthority> authorities) {
+    int roles = 0;
+    for (GrantedAuthority authority : authorities) {
+      String name = authority.getAuthority();
+      if (name == null) {
+        continue;
+      }
+      if (name.equals(roleConfig.ROLE_ADMIN)) {
+        roles |= CallerContext.Role.ADMIN.bit();
+      }
+      if (name.equals(roleConfig.ROLE_ADMIN_TENANT)) {
+        roles |= CallerContext.Role.ADMIN_TENANT.bit();
+      }
+      if (name.equals(roleConfig.ROLE_USER_PARTICIPANT)) {
+        roles |= CallerContext.Role.USER_PARTICIPANT.bit();
+      }
+    }
+    return new CallerContext(
+        roles,
+        VisibilityUtils.getTenantName(jwt).orElse(null),
+        VisibilityUtils.getUsernameClaim(jwt).orElse(null));
+  }
+}
@@ -1,15 +1,25 @@
 package edc.config.security;
 
+import edc.util.ExpiringCache;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Global CORS configuration, built once at startup and shared by all requests: CORS processing
+ * only reads it (combining creates a new instance), so it must not be modified after init.
+ * Origins containing "*" are treated as patterns; the outcome of matching a request origin against
+ * them is cached (app.security.cors.origin-cache-size distinct origins, for an hour).
+ */
 @Component
 public class CorsGlobalSource implements CorsConfigurationSource {
 
@@ -28,37 +38,64 @@ public class CorsGlobalSource implements CorsConfigurationSource {
   @Value("${app.security.cors.max-age:3600}")
   private long maxAge;
 
+  @Value("${app.security.cors.origin-cache-size:1000}")
+  private int originCacheSize;
 
-    private List<String> allowedOrigins;
-    private List<String> allowedMethods;
-    private List<String> allowedHeaders;
-    private List<String> exposedHeaders;
+  /** */
+  private CorsConfiguration config;
 
-    @PostConstruct
-    public void init() {
-        allowedOrigins = Arrays.asList(origins);
-        allowedMethods = Arrays.asList(methods);
-        allowedHeaders = Arrays.asList(exposeHeaders);
-        exposedHeaders = Arrays.asList(exposeHeaders);
+  @PostConstruct
+  public void init() {
+    CorsConfiguration configuration;
+    if (enableGlobalCors) {
+      configuration = new CorsConfiguration();
+      configuration.addAllowedOriginPattern("*");
+      configuration.addAllowedHeader("*");
+      configuration.addAllowedMethod("*");
+      configuration.setMaxAge(3600L);
+      configuration.setAllowCredentials(false);
+    } else {
+      List<String> originPatterns = Arrays.stream(origins).filter(o -> o.contains("*")).toList();
+      configuration =
+          originPatterns.isEmpty()
+              ? new CorsConfiguration()
+              : new OriginCachingCorsConfiguration(originCacheSize);
+      configuration.setAllowedOrigins(
+          Arrays.stream(origins).filter(o -> !o.contains("*")).toList());
+      configuration.setAllowedOriginPatterns(originPatterns);
+      configuration.setAllowedMethods(Arrays.asList(methods));
+      configuration.setAllowCredentials(true);
+      configuration.setAllowedHeaders(Arrays.asList(exposeHeaders));
+      configuration.setExposedHeaders(Arrays.asList(exposeHeaders));
+      configuration.setMaxAge(maxAge);
     }
+    config = configuration;
+  }
 
   @Override
   public CorsConfiguration getCorsConfiguration(HttpServletRequest request) {
-    CorsConfiguration config = new CorsConfiguration();
-    if(enableGlobalCors) {
-        config.addAllowedOriginPattern("*");
-        config.addAllowedHeader("*");
-        config.addAllowedMethod("*");
-        config.setMaxAge(3600L);
-        config.setAllowCredentials(false);
-    } else {
-        config.setAllowedOrigins(allowedOrigins);
-        config.setAllowedMethods(allowedMethods);
-        config.setAllowCredentials(true);
-        config.setAllowedHeaders(allowedHeaders);
-        config.setExposedHeaders(exposedHeaders);
-        config.setMaxAge(maxAge);
-    }
     return config;
   }
+
+  /** Remembers which request origins matched the configured origin patterns. */
+  private static final class OriginCachingCorsConfiguration extends CorsConfiguration {
+
+    /** empty value: origin rejected */
+    private final ExpiringCache<String, Optional<String>> checkedOrigins;
+
+    private OriginCachingCorsConfiguration(int maximumSize) {
+      this.checkedOrigins = new ExpiringCache<>(maximumSize, Duration.ofHours(1));
+    }
+
+    @Override
+    @Nullable
+    public String checkOrigin(@Nullable String origin) {
+      if (origin == null) {
+        return null;
+      }
+      return checkedOrigins
+          .get(origin, o -> Optional.ofNullable(super.checkOrigin(o)))
+          .orElse(null);
+    }
+  }
 }
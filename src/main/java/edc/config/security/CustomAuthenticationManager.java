@@ -1,19 +1,44 @@
 package edc.config.security;
 
-import lombok.SneakyThrows;
-import org.springframework.beans.factory.BeanFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import edc.config.JwtCacheProperties;
+import edc.util.ExpiringCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bearer token authentication with a single {@link JwtAuthenticationProvider} built at startup.
+ * Verified tokens are cached by SHA-256 digest until their exp claim (app.security.jwt-cache), so a
+ * token reused across requests is parsed, verified and converted only once; the cache keeps the
+ * decoded Jwt, its authorities and its {@link CallerContext}, every request gets its own
+ * {@link CallerAuthenticationToken}.
+ * Timers:
+ * - security.jwt.decode: parsing, signature verification and claim validation of the token
+ * - security.jwt.convert: conversion of the claims to authorities
+ * - security.jwt.authentication{outcome=success|failure}: the whole authentication, cache hits included
+ */
 @ConditionalOnProperty(prefix = "app.security", name = "enabled", havingValue = "true", matchIfMissing = true)
 @Component
 public class CustomAuthenticationManager implements AuthenticationManager {
@@ -22,16 +47,62 @@ public class CustomAuthenticationManager implements AuthenticationManager {
   public static final String KEY_CLAIM_EMAIL = "email";
 
   /** */
-  private final JwtDecoder jwtDecoder;
+  private final JwtAuthenticationProvider provider;
+
+  /** */
+  private final MeterRegistry meterRegistry;
+
+  /** */
+  private final Timer successTimer;
+
+  /** */
+  private final Timer failureTimer;
 
   /** */
-  @Autowired private BeanFactory beanFactory;
+  private final CallerContextFactory callerContextFactory;
+
+  /** null when the cache is disabled */
+  private final ExpiringCache<String, VerifiedToken> verifiedTokens;
 
   /**
    * @param jwtDecoder
+   * @param keycloakJwtAuthenticationConverter Keycloak role mapping, required: a token must never be authenticated
+   *     without its roles
+   * @param jwtCacheProperties
+   * @param callerContextFactory
+   * @param meterRegistry
    */
-  public CustomAuthenticationManager(JwtDecoder jwtDecoder) {
-    this.jwtDecoder = jwtDecoder;
+  public CustomAuthenticationManager(
+      JwtDecoder jwtDecoder,
+      @Qualifier("keycloakJwtAuthenticationConverter")
+          Converter<Jwt, AbstractAuthenticationToken> keycloakJwtAuthenticationConverter,
+      JwtCacheProperties jwtCacheProperties,
+      CallerContextFactory callerContextFactory,
+      MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.callerContextFactory = callerContextFactory;
+    Timer decodeTimer =
+        Timer.builder("security.jwt.decode")
+            .description("Bearer token parsing, signature verification and validation time")
+            .register(meterRegistry);
+    Timer convertTimer =
+        Timer.builder("security.jwt.convert")
+            .description("Bearer token claims to authorities conversion time")
+            .register(meterRegistry);
+    this.successTimer = authenticationTimer("success").register(meterRegistry);
+    this.failureTimer = authenticationTimer("failure").register(meterRegistry);
+
+    this.provider =
+        new JwtAuthenticationProvider(token -> decodeTimer.record(() -> jwtDecoder.decode(token)));
+    this.provider.setJwtAuthenticationConverter(
+        jwt -> convertTimer.record(() -> keycloakJwtAuthenticationConverter.convert(jwt)));
+
+    // entries always expire at the exp claim of their token, the default time to live is never used
+    this.verifiedTokens =
+        jwtCacheProperties.isEnabled()
+            ? new ExpiringCache<String, VerifiedToken>(jwtCacheProperties.getMaximumSize(), Duration.ZERO)
+                .registerMetrics(meterRegistry, "security.jwt.cache")
+            : null;
   }
 
   /**
@@ -39,18 +110,102 @@ public class CustomAuthenticationManager implements AuthenticationManager {
    * @return
    * @throws AuthenticationException
    */
-  @SneakyThrows
   @Override
   public Authentication authenticate(Authentication authentication) throws AuthenticationException {
-    JwtAuthenticationProvider provider = new JwtAuthenticationProvider(this.jwtDecoder);
-    provider.setJwtAuthenticationConverter(
-        (Converter<Jwt, ? extends AbstractAuthenticationToken>)
-            beanFactory.getBean("keycloakJwtAuthenticationConverter"));
-    Authentication authenticate = provider.authenticate(authentication);
+    Timer.Sample sample = Timer.start(meterRegistry);
+    Authentication authenticate;
+    try {
+      authenticate = authenticateBearer(authentication);
+    } catch (RuntimeException e) {
+      sample.stop(failureTimer);
+      throw e;
+    }
+    sample.stop(successTimer);
     if (authenticate.getPrincipal() instanceof Jwt
         && ((Jwt) authenticate.getPrincipal()).hasClaim(KEY_CLAIM_EMAIL)) {
       authenticate.setAuthenticated(true);
     }
     return authenticate;
   }
+
+  /**
+   * @param authentication
+   * @return
+   */
+  private Authentication authenticateBearer(Authentication authentication) {
+    if (verifiedTokens == null
+        || !(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+      Authentication result = provider.authenticate(authentication);
+      return result instanceof JwtAuthenticationToken jwtAuthentication
+          ? verified(jwtAuthentication).toAuthentication(result.getDetails())
+          : result;
+    }
+
+    String key = digest(bearer.getToken());
+    Optional<VerifiedToken> cached = verifiedTokens.get(key);
+    if (cached.isPresent()) {
+      return cached.get().toAuthentication(bearer.getDetails());
+    }
+
+    Authentication result = provider.authenticate(bearer);
+    if (!(result instanceof JwtAuthenticationToken jwtAuthentication)) {
+      return result;
+    }
+    VerifiedToken verified = verified(jwtAuthentication);
+    if (jwtAuthentication.getToken().getExpiresAt() != null) {
+      verifiedTokens.put(key, verified, jwtAuthentication.getToken().getExpiresAt());
+    }
+    return verified.toAuthentication(result.getDetails());
+  }
+
+  /**
+   * @param jwtAuthentication
+   * @return
+   */
+  private VerifiedToken verified(JwtAuthenticationToken jwtAuthentication) {
+    return new VerifiedToken(
+        jwtAuthentication.getToken(),
+        List.copyOf(jwtAuthentication.getAuthorities()),
+        jwtAuthentication.getName(),
+        callerContextFactory.create(
+            jwtAuthentication.getToken(), jwtAuthentication.getAuthorities()));
+  }
+
+  /**
+   * @param token
+   * @return
+   */
+  private static String digest(String token) {
+    try {
+      byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  /**
+   * @param outcome
+   * @return
+   */
+  private static Timer.Builder authenticationTimer(String outcome) {
+    return Timer.builder("security.jwt.authentication")
+        .description("Bearer token authentication time")
+        .tag("outcome", outcome);
+  }
+
+  /**
+   * Decoded token, its authorities and caller, shared by the requests that present the same token.
+   */
+  private record VerifiedToken(
+      Jwt jwt, Collection<GrantedAuthority> authorities, String name, CallerContext caller) {
+
+    CallerAuthenticationToken toAuthentication(Object details) {
+      CallerAuthenticationToken authentication =
+          new CallerAuthenticationToken(jwt, authorities, name, caller);
+      authentication.setDetails(details);
+      return authentication;
+    }
+  }
 }
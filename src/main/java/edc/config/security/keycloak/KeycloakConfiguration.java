@@ -11,7 +11,11 @@ import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.util.Collection;
 
-@ConditionalOnProperty(prefix = "app.security", name = "enabled", havingValue = "true")
+/**
+ * Keycloak role mapping of bearer tokens; same condition as {@link edc.config.security.CustomAuthenticationManager},
+ * which requires it.
+ */
+@ConditionalOnProperty(prefix = "app.security", name = "enabled", havingValue = "true", matchIfMissing = true)
 @Configuration
 public class KeycloakConfiguration {
 
@@ -0,0 +1,200 @@
+package edc.config.security.keycloak;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import edc.config.JwksProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.client.RestClient;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Signing keys of the Keycloak realm that issues the bearer tokens:
+ * - fetched at startup (OpenID discovery, then jwks_uri), a failure is logged and retried later
+ * - refreshed in the background every app.security.jwks.refresh-interval
+ * - looked up by kid without locking, the key set is immutable and replaced as a whole
+ * - refreshed on demand when a token carries an unknown kid, at most once per min-refresh-interval
+ * - the last key set fetched successfully keeps being served while Keycloak is unreachable
+ */
+@Slf4j
+public class KeycloakJwksKeySource implements JWKSource<SecurityContext> {
+
+  /** */
+  private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+
+  /** */
+  private final RestClient restClient;
+
+  /** */
+  private final String issuerUri;
+
+  /** */
+  private final JwksProperties jwksProperties;
+
+  /** serializes fetches, lookups never take it */
+  private final ReentrantLock refreshLock = new ReentrantLock();
+
+  /** */
+  private final Counter refreshSuccesses;
+
+  /** */
+  private final Counter refreshFailures;
+
+  /** null until the first successful fetch */
+  private volatile JWKSet keys;
+
+  /** discovered on the first fetch unless configured */
+  private volatile String jwkSetUri;
+
+  /** */
+  private volatile Instant lastRefreshAttempt = Instant.EPOCH;
+
+  /**
+   * @param restClient
+   * @param issuerUri
+   * @param jwkSetUri JWKS location, null to discover it from the issuer
+   * @param jwksProperties
+   * @param meterRegistry
+   */
+  public KeycloakJwksKeySource(
+      RestClient restClient,
+      String issuerUri,
+      String jwkSetUri,
+      JwksProperties jwksProperties,
+      MeterRegistry meterRegistry) {
+    this.restClient = restClient;
+    this.issuerUri = issuerUri;
+    this.jwkSetUri = jwkSetUri;
+    this.jwksProperties = jwksProperties;
+    this.refreshSuccesses = refreshCounter("success").register(meterRegistry);
+    this.refreshFailures = refreshCounter("failure").register(meterRegistry);
+    Gauge.builder("security.jwks.keys", this, KeycloakJwksKeySource::keyCount)
+        .description("Signing keys currently known")
+        .register(meterRegistry);
+  }
+
+  /** */
+  @PostConstruct
+  public void prefetch() {
+    refresh();
+  }
+
+  /** */
+  @Scheduled(
+      initialDelayString = "${app.security.jwks.refresh-interval:5m}",
+      fixedDelayString = "${app.security.jwks.refresh-interval:5m}")
+  public void scheduledRefresh() {
+    refresh();
+  }
+
+  /**
+   * @param jwkSelector
+   * @param context
+   * @return
+   * @throws KeySourceException when no key set could be fetched yet
+   */
+  @Override
+  public List<JWK> get(JWKSelector jwkSelector, SecurityContext context)
+      throws KeySourceException {
+    JWKSet current = keys;
+    if (current != null) {
+      List<JWK> matches = jwkSelector.select(current);
+      if (!matches.isEmpty()) {
+        return matches;
+      }
+    }
+
+    // unknown kid (the realm rotated its keys) or no keys yet
+    if (Instant.now().isAfter(lastRefreshAttempt.plus(jwksProperties.getMinRefreshInterval()))) {
+      refresh();
+      current = keys;
+    }
+    if (current == null) {
+      throw new KeySourceException("Signing keys of " + issuerUri + " are not available");
+    }
+    return jwkSelector.select(current);
+  }
+
+  /**
+   * Fetches the key set; on failure the current one is kept.
+   *
+   * @return true when the key set was replaced
+   */
+  public boolean refresh() {
+    Instant requested = Instant.now();
+    refreshLock.lock();
+    try {
+      if (lastRefreshAttempt.isAfter(requested)) {
+        // fetched by another thread while this one was waiting
+        return false;
+      }
+      lastRefreshAttempt = Instant.now();
+      JWKSet fetched =
+          JWKSet.parse(restClient.get().uri(resolveJwkSetUri()).retrieve().body(String.class));
+      keys = fetched;
+      refreshSuccesses.increment();
+      log.debug("Loaded {} signing keys from {}", fetched.size(), jwkSetUri);
+      return true;
+    } catch (ParseException | RuntimeException e) {
+      refreshFailures.increment();
+      log.warn(
+          "Unable to refresh signing keys of {}, keeping {} known keys: {}",
+          issuerUri,
+          keyCount(),
+          e.getMessage());
+      return false;
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /**
+   * @return
+   */
+  public int keyCount() {
+    JWKSet current = keys;
+    return current == null ? 0 : current.size();
+  }
+
+  /**
+   * @return
+   */
+  private String resolveJwkSetUri() {
+    if (jwkSetUri == null) {
+      JsonNode configuration =
+          restClient
+              .get()
+              .uri(issuerUri.replaceAll("/$", "") + DISCOVERY_PATH)
+              .retrieve()
+              .body(JsonNode.class);
+      if (configuration == null || !configuration.hasNonNull("jwks_uri")) {
+        throw new IllegalStateException("OpenID configuration of " + issuerUri + " has no jwks_uri");
+      }
+      jwkSetUri = configuration.get("jwks_uri").asText();
+    }
+    return jwkSetUri;
+  }
+
+  /**
+   * @param outcome
+   * @return
+   */
+  private static Counter.Builder refreshCounter(String outcome) {
+    return Counter.builder("security.jwks.refresh")
+        .description("Fetches of the realm signing keys")
+        .tag("outcome", outcome);
+  }
+}
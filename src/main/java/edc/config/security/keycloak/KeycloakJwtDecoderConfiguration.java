@@ -0,0 +1,175 @@
+package edc.config.security.keycloak;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import edc.config.HttpClientFactory;
+import edc.config.HttpClientProperties;
+import edc.config.JwksProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.client.RestClient;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces the lazily resolved issuer-uri decoder of Spring Boot with one backed by
+ * {@link KeycloakJwksKeySource}, so the realm keys are fetched at startup and rotated in the
+ * background. Claims are validated as Boot does (timestamps, issuer, audiences when configured).
+ * Timer security.jwt.verify: signature verification only.
+ */
+@ConditionalOnProperty(
+    prefix = "spring.security.oauth2.resourceserver.jwt",
+    name = "issuer-uri")
+@Configuration
+public class KeycloakJwtDecoderConfiguration {
+
+  /**
+   * @param resourceServerProperties
+   * @param jwksProperties
+   * @param restClientBuilder
+   * @param httpClientFactory
+   * @param meterRegistry
+   * @return
+   */
+  @Bean
+  KeycloakJwksKeySource keycloakJwksKeySource(
+      OAuth2ResourceServerProperties resourceServerProperties,
+      JwksProperties jwksProperties,
+      RestClient.Builder restClientBuilder,
+      HttpClientFactory httpClientFactory,
+      MeterRegistry meterRegistry) {
+    OAuth2ResourceServerProperties.Jwt jwt = resourceServerProperties.getJwt();
+    // fetches are single flight, one connection is enough
+    HttpClientProperties.Downstream downstream = new HttpClientProperties.Downstream();
+    downstream.setConnectTimeout(jwksProperties.getConnectTimeout());
+    downstream.setReadTimeout(jwksProperties.getReadTimeout());
+    downstream.setMaxConnections(2);
+    downstream.setExecutorThreads(1);
+    return new KeycloakJwksKeySource(
+        httpClientFactory
+            .configure(restClientBuilder, "jwks", jwt.getIssuerUri(), downstream)
+            .build(),
+        jwt.getIssuerUri(),
+        jwt.getJwkSetUri(),
+        jwksProperties,
+        meterRegistry);
+  }
+
+  /**
+   * @param resourceServerProperties
+   * @param keySource
+   * @param meterRegistry
+   * @return
+   */
+  @Bean
+  JwtDecoder jwtDecoder(
+      OAuth2ResourceServerProperties resourceServerProperties,
+      KeycloakJwksKeySource keySource,
+      MeterRegistry meterRegistry) {
+    OAuth2ResourceServerProperties.Jwt jwt = resourceServerProperties.getJwt();
+    Set<JWSAlgorithm> algorithms =
+        jwt.getJwsAlgorithms().stream().map(JWSAlgorithm::parse).collect(Collectors.toSet());
+
+    DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+    processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, keySource));
+    processor.setJWSVerifierFactory(
+        new TimedJWSVerifierFactory(
+            new DefaultJWSVerifierFactory(),
+            Timer.builder("security.jwt.verify")
+                .description("Bearer token signature verification time")
+                .register(meterRegistry)));
+    // type and claims are checked by Spring Security validators, as in the Boot decoder
+    processor.setJWSTypeVerifier((type, context) -> {});
+    processor.setJWTClaimsSetVerifier((claims, context) -> {});
+
+    NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+    decoder.setJwtValidator(validator(jwt));
+    return decoder;
+  }
+
+  /**
+   * @param jwt
+   * @return
+   */
+  private static OAuth2TokenValidator<Jwt> validator(OAuth2ResourceServerProperties.Jwt jwt) {
+    List<String> audiences = jwt.getAudiences();
+    if (audiences.isEmpty()) {
+      return JwtValidators.createDefaultWithIssuer(jwt.getIssuerUri());
+    }
+    List<OAuth2TokenValidator<Jwt>> validators = new ArrayList<>();
+    validators.add(JwtValidators.createDefaultWithIssuer(jwt.getIssuerUri()));
+    validators.add(
+        new JwtClaimValidator<Collection<String>>(
+            JwtClaimNames.AUD,
+            aud -> aud != null && aud.stream().anyMatch(audiences::contains)));
+    return new DelegatingOAuth2TokenValidator<>(validators);
+  }
+
+  /** Times the signature verification of the verifiers created by a delegate factory. */
+  private record TimedJWSVerifierFactory(JWSVerifierFactory delegate, Timer timer)
+      implements JWSVerifierFactory {
+
+    @Override
+    public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+      JWSVerifier verifier = delegate.createJWSVerifier(header, key);
+      return new JWSVerifier() {
+        @Override
+        public boolean verify(JWSHeader jwsHeader, byte[] signingInput, Base64URL signature)
+            throws JOSEException {
+          Timer.Sample sample = Timer.start();
+          try {
+            return verifier.verify(jwsHeader, signingInput, signature);
+          } finally {
+            sample.stop(timer);
+          }
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+          return verifier.supportedJWSAlgorithms();
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+          return verifier.getJCAContext();
+        }
+      };
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+      return delegate.supportedJWSAlgorithms();
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+      return delegate.getJCAContext();
+    }
+  }
+}
@@ -135,6 +135,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<ErrorResponse> handleCircuitOpenException(CircuitOpenException ex) {
+        ErrorResponse response = new ErrorResponse();
+        response.setError("SERVICE_UNAVAILABLE");
+        response.setMessage(ex.getMessage());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        log.warn("External API unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
     @ExceptionHandler(ExternalApiException.class)
     public ResponseEntity<ErrorResponse> handleExternalApiException(ExternalApiException ex) {
         ErrorResponse response = new ErrorResponse();
@@ -146,6 +157,61 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(response);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex) {
+        ErrorResponse response = new ErrorResponse();
+        response.setError("INVALID_CURSOR");
+        response.setMessage(ex.getMessage());
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+
+        log.warn("Invalid cursor: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(ParticipantBatchTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleParticipantBatchTooLargeException(ParticipantBatchTooLargeException ex) {
+        ErrorResponse response = new ErrorResponse();
+        response.setError("BATCH_TOO_LARGE");
+        response.setMessage(ex.getMessage());
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+
+        log.warn("Participant batch too large: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidIdempotencyKeyException(InvalidIdempotencyKeyException ex) {
+        ErrorResponse response = new ErrorResponse();
+        response.setError("INVALID_IDEMPOTENCY_KEY");
+        response.setMessage(ex.getMessage());
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+
+        log.warn("Invalid idempotency key: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInUseException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyInUseException(IdempotencyKeyInUseException ex) {
+        ErrorResponse response = new ErrorResponse();
+        response.setError("CONFLICT");
+        response.setMessage(ex.getMessage());
+        response.setStatus(HttpStatus.CONFLICT.value());
+
+        log.warn("Idempotency key in use: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException ex) {
+        ErrorResponse response = new ErrorResponse();
+        response.setError("IDEMPOTENCY_KEY_MISMATCH");
+        response.setMessage(ex.getMessage());
+        response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+
+        log.warn("Idempotency key mismatch: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
     @ExceptionHandler(value = {AccessDeniedException.class, AuthorizationDeniedException.class})
     public ResponseEntity<Map<String, Object>> handleAccessDeniedException(org.springframework.security.access.AccessDeniedException ex) {
         Map<String, Object> response = new HashMap<>();
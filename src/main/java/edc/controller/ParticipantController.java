@@ -1,31 +1,35 @@
 package edc.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import edc.dto.*;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import edc.config.ProvisioningProperties;
+import edc.config.security.CallerContext;
 import edc.config.security.roles.RoleConfig;
 import edc.entity.Participant;
 import edc.entity.Credential;
+import edc.exception.ParticipantBatchTooLargeException;
 import edc.service.ParticipantService;
 import edc.service.CredentialService;
+import edc.service.IdempotencyService;
 import edc.service.OperationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import edc.util.PageQuery;
+import edc.util.PageResult;
 import edc.util.PageUtils;
-import edc.util.VisibilityUtils;
+import edc.util.TotalMode;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -44,6 +48,8 @@ public class ParticipantController {
     private final ParticipantService participantService;
     private final CredentialService credentialService;
     private final OperationService operationService;
+    private final IdempotencyService idempotencyService;
+    private final ProvisioningProperties provisioningProperties;
 
     private final RoleConfig roleConfig;
 
@@ -55,28 +61,28 @@ public class ParticipantController {
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT)")
     public ResponseEntity<List<ParticipantResponse>> getAllParticipants(
-            JwtAuthenticationToken authToken,
+            CallerContext caller,
             @Parameter(description = "Filter by current operation") @RequestParam(required = false) Participant.CurrentOperation currentOperation,
             @Parameter(description = "Filter by participant name") @RequestParam(required = false) String participantName,
             @Parameter(description = "Maximum number of results per page") @RequestParam(defaultValue = "20") int limit,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Field to order by", in = ParameterIn.QUERY) @Valid @RequestParam(value = "orderBy", required = false, defaultValue = "created_at") List<String> orderBy,
-            @Parameter(description = "Order direction", in = ParameterIn.QUERY) @Valid @RequestParam(value = "order", required = false, defaultValue = "ASC") String order) {
+            @Parameter(description = "Order direction", in = ParameterIn.QUERY) @Valid @RequestParam(value = "order", required = false, defaultValue = "ASC") String order,
+            @Parameter(description = "Keyset cursor: empty for the first page, then the x-next-cursor value of the previous page, with the same order. Replaces page and orderBy") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Total count: exact, estimate (cached) or false (x-has-next only). Offset mode only") @RequestParam(defaultValue = "exact") TotalMode withTotal) {
 
         log.info("Getting participants with filters - currentOperation: {}, name: {}, limit: {}, page: {}", currentOperation, participantName, limit, page);
 
         Optional<String> tenantName = Optional.empty();
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        else if (caller.isAdmin()) {
             log.debug("User has {}, no need to extract tenantName from JWT", roleConfig.ROLE_ADMIN);
         }
         else {
@@ -86,11 +92,10 @@ public class ParticipantController {
 
         //Pageable pageable = PageRequest.of(page - 1, limit);
 
-        Page<ParticipantResponse> participants = participantService.findAllParticipants(tenantName,
+        PageResult<ParticipantResponse> participants = participantService.findAllParticipants(tenantName,
                 currentOperation,
                 participantName,
-                limit,
-                page-1,
+                PageQuery.of(page - 1, limit, cursor, withTotal, Sort.Direction.fromString(order)),
                 orderBy,
                 order);
         HttpHeaders headers = PageUtils.setPaginationHeaders(participants);
@@ -102,7 +107,7 @@ public class ParticipantController {
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(participants.getContent());
+                .body(participants.content());
     }
 
     @PostMapping
@@ -111,20 +116,26 @@ public class ParticipantController {
             @ApiResponse(responseCode = "202", description = "Provisioning started (asynchronous operation)"),
             @ApiResponse(responseCode = "400", description = "Invalid request"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
-            @ApiResponse(responseCode = "409", description = "Participant already exists")
+            @ApiResponse(responseCode = "409", description = "Participant already exists, or request with the same Idempotency-Key in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT)")
-    public ResponseEntity<ParticipantResponse> createParticipant(JwtAuthenticationToken authToken,
+    public ResponseEntity<ParticipantResponse> createParticipant(CallerContext caller,
+                                                                 @Parameter(description = "Key making retries of the request safe, they get the first response back") @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                                                                  @Parameter(description = "Participant data") @Valid @RequestBody ParticipantRequest request) {
 
+        return idempotencyService.execute(idempotencyKey, "POST /v1/participants", request,
+                new TypeReference<>() {}, () -> doCreateParticipant(caller, request));
+    }
+
+    private ResponseEntity<ParticipantResponse> doCreateParticipant(CallerContext caller, ParticipantRequest request) {
         log.info("Creating new participant for company: {}", request.getParticipant().getName());
         log.trace("Participant request details: {}", request);
 
         Optional<String> tenantName = Optional.ofNullable(request.getTenantName());
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has role {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has role {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -136,7 +147,7 @@ public class ParticipantController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
         }
-        else if(authToken.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        else if(caller.isAdmin()) {
             log.debug("User has role {}, using tenantName from request if provided", roleConfig.ROLE_ADMIN);
             if (tenantName.isEmpty()) {
                 log.warn("User has role {} but no tenantName provided in request, returning bad request", roleConfig.ROLE_ADMIN);
@@ -156,6 +167,62 @@ public class ParticipantController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(participant);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create participants in bulk", description = "Initiates the provisioning of several participants of the same tenant, reporting the outcome of every item")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Provisioning started for the accepted items (asynchronous operation)"),
+            @ApiResponse(responseCode = "400", description = "Invalid request, or more participants than app.provisioning.max-batch-size"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "409", description = "Request with the same Idempotency-Key in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request")
+    })
+    @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT)")
+    public ResponseEntity<ParticipantBatchResponse> createParticipants(CallerContext caller,
+                                                                       @Parameter(description = "Key making retries of the request safe, they get the first response back") @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                                       @Parameter(description = "Participants data") @Valid @RequestBody ParticipantBatchRequest request) {
+
+        if (request.getParticipants().size() > provisioningProperties.getMaxBatchSize()) {
+            throw new ParticipantBatchTooLargeException("A batch must not exceed " + provisioningProperties.getMaxBatchSize()
+                    + " participants, got " + request.getParticipants().size());
+        }
+        return idempotencyService.execute(idempotencyKey, "POST /v1/participants/batch", request,
+                new TypeReference<>() {}, () -> doCreateParticipants(caller, request));
+    }
+
+    private ResponseEntity<ParticipantBatchResponse> doCreateParticipants(CallerContext caller, ParticipantBatchRequest request) {
+        log.info("Creating {} participants in bulk", request.getParticipants().size());
+
+        Optional<String> tenantName = Optional.ofNullable(request.getTenantName());
+        boolean userRequired;
+        if (caller.isAdminTenant()) {
+            log.debug("User has role {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
+            tenantName = caller.getTenantName();
+            if (tenantName.isEmpty()) {
+                log.warn("User has role {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            }
+            //username and password are checked on every item
+            userRequired = true;
+        }
+        else if(caller.isAdmin()) {
+            log.debug("User has role {}, using tenantName from request if provided", roleConfig.ROLE_ADMIN);
+            if (tenantName.isEmpty()) {
+                log.warn("User has role {} but no tenantName provided in request, returning bad request", roleConfig.ROLE_ADMIN);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            }
+            //for admin role user and password are optional
+            userRequired = false;
+        }
+        else {
+            log.warn("User does not have required roles, returning unauthorized");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        ParticipantBatchResponse response = participantService.createParticipants(tenantName, request.getParticipants(), userRequired);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
     @GetMapping("/{participantId}")
     @Operation(summary = "Retrieve a specific participant", description = "Retrieves the details of a specific participant")
     @ApiResponses(value = {
@@ -164,25 +231,23 @@ public class ParticipantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT)")
-    public ResponseEntity<ParticipantResponse> getParticipant(JwtAuthenticationToken authToken,
+    public ResponseEntity<ParticipantResponse> getParticipant(CallerContext caller,
                                                               @Parameter(description = "Participant ID") @PathVariable String participantId) {
 
         log.info("Getting participant with ID: {}", participantId);
 
         ParticipantResponse participant;
         Optional<String> tenantName;
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
             participant = participantService.findParticipantByExternalIdAndTenantName(participantId, tenantName.get());
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        else if (caller.isAdmin()) {
             log.debug("User has {}, no need to extract tenantName from JWT", roleConfig.ROLE_ADMIN);
             participant = participantService.findParticipantByExternalId(participantId);
         }
@@ -202,22 +267,21 @@ public class ParticipantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_USER_PARTICIPANT)")
-    public ResponseEntity<ParticipantMeResponse> getMe(JwtAuthenticationToken authToken) {
+    public ResponseEntity<ParticipantMeResponse> getMe(CallerContext caller) {
 
         log.info("Try Getting participant by me");
 
         ParticipantMeResponse participant;
         Optional<String> tenantName;
         Optional<String> userName;
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_USER_PARTICIPANT))) {
+        if (caller.isUserParticipant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_USER_PARTICIPANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-            userName = VisibilityUtils.getUsernameClaim(authToken.getToken());
+            userName = caller.getUsername();
             if (userName.isEmpty()) {
                 log.warn("User has {} but no name claim found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -241,24 +305,22 @@ public class ParticipantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT)")
-    public ResponseEntity<ParticipantResponse> deleteParticipant(JwtAuthenticationToken authToken,
+    public ResponseEntity<ParticipantResponse> deleteParticipant(CallerContext caller,
                                                                  @Parameter(description = "Participant ID") @PathVariable String participantId) {
 
         log.info("Starting deprovisioning for participant with ID: {}", participantId);
         ParticipantResponse participant;
         Optional<String> tenantName = Optional.empty();
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
             participant = participantService.deleteParticipantByExternalIdAndTenantName(participantId, tenantName.get());
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        else if (caller.isAdmin()) {
             log.debug("User has {}, no need to extract tenantName from JWT", roleConfig.ROLE_ADMIN);
             participant = participantService.deleteParticipant(participantId);
         }
@@ -278,48 +340,48 @@ public class ParticipantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT,@roleConfig.ROLE_USER_PARTICIPANT)")
-    public ResponseEntity<List<CredentialResponse>> getParticipantCredentials(JwtAuthenticationToken authToken,
+    public ResponseEntity<List<CredentialResponse>> getParticipantCredentials(CallerContext caller,
                                                                               @Parameter(description = "Participant ID") @PathVariable String participantId,
                                                                               @Parameter(description = "Filter by credential status") @RequestParam(required = false) Credential.CredentialStatus status,
                                                                               @Parameter(description = "Maximum number of results per page") @RequestParam(defaultValue = "20") int limit,
-                                                                              @Parameter(description = "Page number") @RequestParam(defaultValue = "1") int page) {
+                                                                              @Parameter(description = "Page number") @RequestParam(defaultValue = "1") int page,
+                                                                              @Parameter(description = "Order direction of (created_at, id)", in = ParameterIn.QUERY) @RequestParam(value = "order", required = false, defaultValue = "ASC") String order,
+                                                                              @Parameter(description = "Keyset cursor: empty for the first page, then the x-next-cursor value of the previous page, with the same order. Replaces page") @RequestParam(required = false) String cursor,
+                                                                              @Parameter(description = "Total count: exact, estimate (cached) or false (x-has-next only). Offset mode only") @RequestParam(defaultValue = "exact") TotalMode withTotal) {
 
         log.info("Getting credentials for participant: {} with status: {}", participantId, status);
 
-        Page<CredentialResponse> credentials ;
-        Pageable pageable = PageRequest.of(page - 1, limit);
+        PageResult<CredentialResponse> credentials;
+        PageQuery pageQuery = PageQuery.of(page - 1, limit, cursor, withTotal, Sort.Direction.fromString(order));
 
         Optional<String> tenantName;
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-            credentials = credentialService.findCredentialsByParticipantExternalIdAndTenantName(participantId, status, tenantName.get(), pageable);
+            credentials = credentialService.findCredentialsByParticipantExternalIdAndTenantName(participantId, status, tenantName.get(), pageQuery);
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_USER_PARTICIPANT))) {
+        else if (caller.isUserParticipant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_USER_PARTICIPANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-            Optional<String> userName = VisibilityUtils.getUsernameClaim(authToken.getToken());
+            Optional<String> userName = caller.getUsername();
             if (userName.isEmpty()) {
                 log.warn("User has {} but no name claim found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
             log.info("Getting credentials for participant {} and user: {} and tenantName: {} from JWT", participantId, userName.get(), tenantName.get());
-            credentials = credentialService.findCredentialsByParticipantExternalIdAndUserNameAndTenantName(participantId, userName.get(), status, tenantName.get(), pageable);
+            credentials = credentialService.findCredentialsByParticipantExternalIdAndUserNameAndTenantName(participantId, userName.get(), status, tenantName.get(), pageQuery);
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        else if (caller.isAdmin()) {
             log.debug("User has {}, no need to extract tenantName from JWT", roleConfig.ROLE_ADMIN);
-            credentials = credentialService.findCredentialsByParticipantExternalId(participantId, status, pageable);
+            credentials = credentialService.findCredentialsByParticipantExternalId(participantId, status, pageQuery);
         }
         else {
             log.warn("User does not have required roles, returning unauthorized");
@@ -327,14 +389,15 @@ public class ParticipantController {
         }
 
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("X-Total", String.valueOf(credentials.getTotalElements()));
-        headers.add("X-Page", String.valueOf(page));
-        headers.add("X-Limit", String.valueOf(limit));
+        HttpHeaders headers = PageUtils.setPaginationHeaders(credentials);
+        if (!credentials.keyset()) {
+            // this listing has always reported the 1-based page number
+            headers.set("x-page", String.valueOf(page));
+        }
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(credentials.getContent());
+                .body(credentials.content());
     }
 
     @PostMapping("/{participantId}/credentials")
@@ -344,21 +407,28 @@ public class ParticipantController {
             @ApiResponse(responseCode = "400", description = "Invalid request"),
             @ApiResponse(responseCode = "404", description = "Participant not found"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "409", description = "Request with the same Idempotency-Key in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
             @ApiResponse(responseCode = "502", description = "External API call error")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_USER_PARTICIPANT,@roleConfig.ROLE_ADMIN_TENANT,@roleConfig.ROLE_USER_PARTICIPANT)")
-    public ResponseEntity<Map<String, Object>> requestCredentials(JwtAuthenticationToken authToken,
+    public ResponseEntity<Map<String, Object>> requestCredentials(CallerContext caller,
                                                                   @Parameter(description = "Participant ID") @PathVariable String participantId,
+                                                                  @Parameter(description = "Key making retries of the request safe, they get the first response back") @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                                                                   @Parameter(description = "Credential request data") @Valid @RequestBody CredentialRequest request) {
 
+        return idempotencyService.execute(idempotencyKey, "POST /v1/participants/" + participantId + "/credentials", request,
+                new TypeReference<>() {}, () -> doRequestCredentials(caller, participantId, request));
+    }
+
+    private ResponseEntity<Map<String, Object>> doRequestCredentials(CallerContext caller, String participantId, CredentialRequest request) {
         log.info("Requesting credentials for participant: {}", participantId);
 
         List<CredentialResponse> credentials;
         Optional<String> tenantName;
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -366,15 +436,14 @@ public class ParticipantController {
             log.info("Request credentials for participant {} and tenantName: {} from JWT", participantId, tenantName.get());
             credentials = credentialService.requestCredentials(participantId, request, tenantName.get());
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_USER_PARTICIPANT))) {
+        else if (caller.isUserParticipant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_USER_PARTICIPANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-            Optional<String> userName = VisibilityUtils.getUsernameClaim(authToken.getToken());
+            Optional<String> userName = caller.getUsername();
             if (userName.isEmpty()) {
                 log.warn("User has {} but no name claim found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -382,8 +451,7 @@ public class ParticipantController {
             log.info("Request credentials for participant {} and user: {} and tenantName: {} from JWT", participantId, userName.get(), tenantName.get());
             credentials = credentialService.requestCredentials(participantId, request, tenantName.get(), userName.get());
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        else if (caller.isAdmin()) {
             log.debug("User has {}, no need to extract tenantName from JWT", roleConfig.ROLE_ADMIN);
             log.info("Request credentials for participant {} from admin user", participantId);
             credentials = credentialService.requestCredentials(participantId, request);
@@ -418,7 +486,7 @@ public class ParticipantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT,@roleConfig.ROLE_USER_PARTICIPANT)")
-    public ResponseEntity<CredentialResponse> getCredential(JwtAuthenticationToken authToken,
+    public ResponseEntity<CredentialResponse> getCredential(CallerContext caller,
                                                             @Parameter(description = "Participant ID") @PathVariable String participantId,
                                                             @Parameter(description = "Credential ID") @PathVariable String credentialId) {
 
@@ -426,25 +494,23 @@ public class ParticipantController {
 
         CredentialResponse credential;
         Optional<String> tenantName;
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
             credential = credentialService.findCredentialByParticipantExternalIdAndCredentialIdAndTenantName(participantId, credentialId, tenantName.get());
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_USER_PARTICIPANT))) {
+        else if (caller.isUserParticipant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_USER_PARTICIPANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-            Optional<String> userName = VisibilityUtils.getUsernameClaim(authToken.getToken());
+            Optional<String> userName = caller.getUsername();
             if (userName.isEmpty()) {
                 log.warn("User has {} but no name claim found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -452,8 +518,7 @@ public class ParticipantController {
             log.info("Getting credential {} for participant: {} and tenantName: {} and user: {} from JWT", credentialId, participantId, tenantName.get(), userName.get());
             credential = credentialService.findCredentialByParticipantExternaIdAndCredentialIdAndTenantNameAndUserName(participantId, credentialId, tenantName.get(), userName.get());
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        else if (caller.isAdmin()) {
             log.debug("User has {}, no need to extract tenantName from JWT", roleConfig.ROLE_ADMIN);
             credential = credentialService.findCredentialByExternalId(participantId, credentialId);
         }
@@ -473,48 +538,48 @@ public class ParticipantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT,@roleConfig.ROLE_USER_PARTICIPANT)")
-    public ResponseEntity<List<OperationResponse>> getParticipantOperations(JwtAuthenticationToken authToken,
+    public ResponseEntity<List<OperationResponse>> getParticipantOperations(CallerContext caller,
                                                                             @Parameter(description = "Participant ID") @PathVariable String participantId,
                                                                             @Parameter(description = "Filter by event type") @RequestParam(required = false) edc.entity.Operation.EventType eventType,
                                                                             @Parameter(description = "Maximum number of results per page") @RequestParam(defaultValue = "20") int limit,
-                                                                            @Parameter(description = "Page number") @RequestParam(defaultValue = "1") int page) {
+                                                                            @Parameter(description = "Page number") @RequestParam(defaultValue = "1") int page,
+                                                                            @Parameter(description = "Order direction of (created_at, id)", in = ParameterIn.QUERY) @RequestParam(value = "order", required = false, defaultValue = "ASC") String order,
+                                                                            @Parameter(description = "Keyset cursor: empty for the first page, then the x-next-cursor value of the previous page, with the same order. Replaces page") @RequestParam(required = false) String cursor,
+                                                                            @Parameter(description = "Total count: exact, estimate (cached) or false (x-has-next only). Offset mode only") @RequestParam(defaultValue = "exact") TotalMode withTotal) {
 
         log.info("Getting operations for participant: {} with eventType: {}", participantId, eventType);
 
-        Page<OperationResponse> operations;
-        Pageable pageable = PageRequest.of(page - 1, limit);
+        PageResult<OperationResponse> operations;
+        PageQuery pageQuery = PageQuery.of(page - 1, limit, cursor, withTotal, Sort.Direction.fromString(order));
 
         Optional<String> tenantName;
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-            operations = operationService.findOperationsByParticipantExternalIdAndTenantName(participantId, tenantName.get(), eventType, pageable);
+            operations = operationService.findOperationsByParticipantExternalIdAndTenantName(participantId, tenantName.get(), eventType, pageQuery);
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_USER_PARTICIPANT))) {
+        else if (caller.isUserParticipant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_USER_PARTICIPANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
-            Optional<String> userName = VisibilityUtils.getUsernameClaim(authToken.getToken());
+            Optional<String> userName = caller.getUsername();
             if (userName.isEmpty()) {
                 log.warn("User has {} but no name claim found in JWT, returning bad request", roleConfig.ROLE_USER_PARTICIPANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
             log.info("Getting operations for participant: {} and tenantName: {} and user {} from JWT", participantId, tenantName.get(), userName.get());
-            operations = operationService.findOperationsByParticipantExternalIdAndTenantNameAndUserName(participantId, tenantName.get(), userName.get(), eventType, pageable);
+            operations = operationService.findOperationsByParticipantExternalIdAndTenantNameAndUserName(participantId, tenantName.get(), userName.get(), eventType, pageQuery);
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        else if (caller.isAdmin()) {
             log.debug("User has {}, no need to extract tenantName from JWT", roleConfig.ROLE_ADMIN);
-            operations = operationService.findOperationsByParticipantExternalId(participantId, eventType, pageable);
+            operations = operationService.findOperationsByParticipantExternalId(participantId, eventType, pageQuery);
         }
         else {
             log.warn("User does not have required roles, returning unauthorized");
@@ -522,14 +587,15 @@ public class ParticipantController {
         }
 
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("X-Total", String.valueOf(operations.getTotalElements()));
-        headers.add("X-Page", String.valueOf(page));
-        headers.add("X-Limit", String.valueOf(limit));
+        HttpHeaders headers = PageUtils.setPaginationHeaders(operations);
+        if (!operations.keyset()) {
+            // this listing has always reported the 1-based page number
+            headers.set("x-page", String.valueOf(page));
+        }
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(operations.getContent());
+                .body(operations.content());
     }
 
     @PatchMapping("/{participantId}")
@@ -540,7 +606,7 @@ public class ParticipantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT)")
-    public ResponseEntity<ParticipantResponse> updateParticipant(JwtAuthenticationToken authToken,
+    public ResponseEntity<ParticipantResponse> updateParticipant(CallerContext caller,
                                                                  @Parameter(description = "Participant ID") @PathVariable String participantId,
                                                                  @Parameter(description = "Updated participant data") @Valid @RequestBody ParticipantUpdateRequest request) {
 
@@ -548,10 +614,9 @@ public class ParticipantController {
 
         ParticipantResponse participantResponse;
         Optional<String> tenantName = Optional.empty();
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        if (caller.isAdminTenant()) {
             log.debug("User has {}, proceeding to find tenant extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            tenantName = VisibilityUtils.getTenantName(authToken.getToken());
+            tenantName = caller.getTenantName();
             if (tenantName.isEmpty()) {
                 log.warn("User has {} but no tenantName found in JWT, returning bad request", roleConfig.ROLE_ADMIN_TENANT);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
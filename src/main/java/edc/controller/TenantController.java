@@ -10,8 +10,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -27,6 +25,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import edc.config.security.CallerContext;
 import edc.config.security.roles.RoleConfig;
 import edc.dto.TenantRequest;
 import edc.dto.TenantResponse;
@@ -47,8 +46,6 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "Tenant Management", description = "API for tenant management")
 public class TenantController {
 
-    private static final String TENANT_NAME_CLAIM = "tenantName";
-
     private final TenantService tenantService;
 
     private final RoleConfig roleConfig;
@@ -80,19 +77,17 @@ public class TenantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT)")
-    public ResponseEntity<TenantResponse> getTenant(JwtAuthenticationToken authToken,
+    public ResponseEntity<TenantResponse> getTenant(CallerContext caller,
                                                     @Parameter(description = "Tenant ID") @PathVariable String tenantId) {
 
         TenantResponse tenant;
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        if (caller.isAdmin()) {
             log.debug("User has {}, proceeding to get tenant by ID", roleConfig.ROLE_ADMIN);
             log.info("Getting tenant with ID: {}", tenantId);
             tenant = tenantService.getTenant(tenantId);
-        } else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        } else if (caller.isAdminTenant()) {
             log.debug("User has {}, extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            Optional<TenantResponse> checkTenantName = checkTenantIdByTenantName(authToken.getToken(), tenantId);
+            Optional<TenantResponse> checkTenantName = checkTenantIdByTenantName(caller, tenantId);
             if (checkTenantName.isEmpty()) {
                 log.info("Access denied: User's tenant does not match requested tenant ID");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -161,21 +156,19 @@ public class TenantController {
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN,@roleConfig.ROLE_ADMIN_TENANT)")
-    public ResponseEntity<TenantResponse> updateTenant(JwtAuthenticationToken authToken,
+    public ResponseEntity<TenantResponse> updateTenant(CallerContext caller,
                                                        @Parameter(description = "Tenant ID") @PathVariable String tenantId,
                                                        @Parameter(description = "Updated tenant data") @Valid @RequestBody TenantUpdateRequest request) {
 
         log.info("Updating tenant with ID: {}", tenantId);
         TenantResponse tenant;
-        if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN))) {
+        if (caller.isAdmin()) {
             log.debug("User has {}, proceeding to update tenant by ID", roleConfig.ROLE_ADMIN);
             tenant = tenantService.updateTenant(tenantId, request);
         }
-        else if (authToken.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(roleConfig.ROLE_ADMIN_TENANT))) {
+        else if (caller.isAdminTenant()) {
             log.debug("User has {}, extracting tenantName from JWT", roleConfig.ROLE_ADMIN_TENANT);
-            Optional<TenantResponse> checkTenantName = checkTenantIdByTenantName(authToken.getToken(), tenantId);
+            Optional<TenantResponse> checkTenantName = checkTenantIdByTenantName(caller, tenantId);
             if (checkTenantName.isEmpty()) {
                 log.info("Access denied: User's tenant does not match requested tenant ID");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -218,15 +211,16 @@ public class TenantController {
             @ApiResponse(responseCode = "400", description = "Invalid token or missing tenantName")
     })
     @PreAuthorize("hasAnyAuthority(@roleConfig.ROLE_ADMIN_TENANT)")
-    public ResponseEntity<TenantResponse> getCurrentTenant(JwtAuthenticationToken authToken) {
+    public ResponseEntity<TenantResponse> getCurrentTenant(CallerContext caller) {
 
         log.info("Getting current tenant for authenticated user");
 
-        String tenantName = authToken.getToken().getClaim(TENANT_NAME_CLAIM);
-        if (tenantName == null || tenantName.trim().isEmpty()) {
-            log.warn("TenantName claim is missing in JWT token");
-            throw new IllegalArgumentException("TenantName not present in token");
-        }
+        String tenantName = caller.getTenantName()
+                .filter(name -> !name.isBlank())
+                .orElseThrow(() -> {
+                    log.warn("TenantName claim is missing in JWT token");
+                    return new IllegalArgumentException("TenantName not present in token");
+                });
 
         log.debug("Extracted tenantName from JWT: {}", tenantName);
 
@@ -237,12 +231,12 @@ public class TenantController {
     }
 
 
-    private Optional<TenantResponse> checkTenantIdByTenantName(Jwt jwt, String tenantId) {
-        // Retrieve the tenantName claim from the token
-        String tenantName = jwt.getClaim(TENANT_NAME_CLAIM);
-        log.debug("Getting tenant with name: {}", tenantName);
-        if (tenantName == null || tenantName.isEmpty()) {
-            log.info("Access denied: {} claim is missing in JWT", TENANT_NAME_CLAIM);
+    private Optional<TenantResponse> checkTenantIdByTenantName(CallerContext caller, String tenantId) {
+                    // tenantName claim of the token
+                    String tenantName = caller.getTenantName().orElse(null);
+                    log.debug("Getting tenant with name: {}", tenantName);
+                    if (tenantName == null) {
+            log.info("Access denied: tenantName claim is missing in JWT");
             return Optional.empty();
         }
         try {
@@ -0,0 +1,17 @@
+package edc.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ParticipantBatchRequest {
+
+    // items are validated one by one, an invalid item is reported without rejecting the batch;
+    // the size limit is app.provisioning.max-batch-size
+    @NotEmpty(message = "At least one participant is required")
+    private List<ParticipantRequest> participants;
+    // reserved for admin use
+    private String tenantName;
+}
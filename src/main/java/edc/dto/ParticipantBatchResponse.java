@@ -0,0 +1,30 @@
+package edc.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ParticipantBatchResponse {
+
+    private int accepted;
+    private int rejected;
+    private List<Item> items;
+
+    @Data
+    @Builder
+            public static class Item {
+        // position of the participant in the request
+        private int index;
+        private String name;
+        private ItemStatus status;
+        private ParticipantResponse participant;
+        private String error;
+    }
+
+    public enum ItemStatus {
+        ACCEPTED, CONFLICT, INVALID
+    }
+}
@@ -1,15 +1,24 @@
 package edc.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.ToString;
 
 import java.util.Map;
 
 @Data
 public class ParticipantRequest {
 
+    @Valid
+    @NotNull(message = "Participant is required")
     private ParticipantRequest.ParticipantDto participant;
+    @Valid
     private ParticipantRequest.UserDto user;
     // reserved for admin use
     private String tenantName;
@@ -29,8 +38,18 @@ public class ParticipantRequest {
     @Data
     public static class UserDto {
 
+        @Size(min = 3, max = 63, message = "Username must be between 3 and 63 characters")
         private String username;
+        // read from the request only, never serialized: kept out of logs and of the idempotency request hash
+        @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+        @ToString.Exclude
         private String password;
         private Map<String, Object> metadata;
+
+        @JsonIgnore
+        @AssertTrue(message = "User password is required")
+        public boolean isPasswordProvided() {
+            return username == null || username.isBlank() || (password != null && !password.isBlank());
+        }
     }
 }
@@ -1,7 +1,10 @@
 package edc.entity;
 
+import edc.util.KeysetRow;
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.proxy.HibernateProxy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -9,14 +12,19 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 
-@Data
+/**
+ * Audit columns shared by all entities. The id is declared by each entity:
+ * - pooled sequence for the entities inserted in bulk (participants, participant users, credentials), so that Hibernate
+ *   can batch their inserts; on MySQL the sequence is a one-row table, see db/mysql/pooled_sequences.sql
+ * - IDENTITY for the others
+ * Entities are equal when they have the same class and id, an entity not saved yet is only equal to itself; columns
+ * (JSON maps included) are never compared and a lazy proxy compared with its entity is not initialized.
+ */
+@Getter
+@Setter
 @MappedSuperclass
 @EntityListeners(AuditingEntityListener.class)
-public abstract class BaseEntity {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer id;
+public abstract class BaseEntity implements KeysetRow {
 
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -26,4 +34,31 @@ public abstract class BaseEntity {
     @Column(name = "updated_at")
     private OffsetDateTime updatedAt;
 
+    @Override
+    public abstract Integer getId();
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BaseEntity other) || persistentClass(this) != persistentClass(other)) {
+            return false;
+        }
+        Integer id = getId();
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // constant across the save that assigns the id
+        return persistentClass(this).hashCode();
+    }
+
+    private static Class<?> persistentClass(Object entity) {
+        return entity instanceof HibernateProxy proxy
+                ? proxy.getHibernateLazyInitializer().getPersistentClass()
+                : entity.getClass();
+    }
+
 }
@@ -4,27 +4,36 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
 
-@Data
-@EqualsAndHashCode(callSuper = true)
+@Getter
+@Setter
+@ToString
 @Entity
 @Table(name = "credentials", indexes = {
     @Index(name = "idx_participant_id", columnList = "participant_id"),
     @Index(name = "idx_request_id", columnList = "request_id"),
     @Index(name = "idx_status", columnList = "status"),
-    @Index(name = "idx_credential_type", columnList = "credential_type")
+    @Index(name = "idx_credential_type", columnList = "credential_type"),
+    @Index(name = "idx_credentials_participant_created_at_id", columnList = "participant_id, created_at, id")
 })
 public class Credential extends BaseEntity {
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credentials_seq")
+    @SequenceGenerator(name = "credentials_seq", sequenceName = "credentials_seq", allocationSize = 50)
+    private Integer id;
+
     @NotBlank(message = "External ID is required")
-    @Column(name = "external_id", unique = true, nullable = false)
+    @Column(name = "external_id", unique = true, nullable = false, columnDefinition = "BINARY(16)")
+    @Convert(converter = UuidBinaryConverter.class)
     private String externalId;
 
     @NotBlank(message = "Request ID is required")
@@ -41,6 +50,7 @@ public class Credential extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "participant_id", nullable = false)
+    @ToString.Exclude
     private Participant participant;
 
     @NotBlank(message = "Credential type is required")
@@ -0,0 +1,67 @@
+package edc.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Outcome of a request sent with an Idempotency-Key header, replayed to the retries of the same request until it expires.
+ * The row is written before the request is executed (IN_PROGRESS) and completed with the response afterwards.
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "idempotency_keys",
+    uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_scope_key", columnNames = {"scope", "idempotency_key"}),
+    indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // authenticated caller the key belongs to, keys of different callers never collide
+    @NotBlank(message = "Scope is required")
+    @Column(name = "scope", nullable = false)
+    private String scope;
+
+    @NotBlank(message = "Idempotency key is required")
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    // SHA-256 of method, path and body, a key reused for a different request is rejected
+    @NotBlank(message = "Request hash is required")
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @NotNull(message = "Status is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status = Status.IN_PROGRESS;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", columnDefinition = "JSON")
+    private String responseBody;
+
+    @Column(name = "location", length = 1000)
+    private String location;
+
+    // an IN_PROGRESS row whose lock expired belongs to a request that died, it can be taken over
+    @Column(name = "locked_until")
+    private OffsetDateTime lockedUntil;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
@@ -3,27 +3,36 @@ package edc.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.Map;
 
-@Data
-@EqualsAndHashCode(callSuper = true)
+@Getter
+@Setter
+@ToString
 @Entity
 @Table(name = "provisioning_operations", indexes = {
     @Index(name = "idx_participant_id", columnList = "participant_id"),
     @Index(name = "idx_event_type", columnList = "event_type"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_operations_participant_created_at_id", columnList = "participant_id, created_at, id")
 })
 public class Operation extends BaseEntity {
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
     @NotBlank(message = "External ID is required")
-    @Column(name = "external_id", unique = true, nullable = false)
+    @Column(name = "external_id", unique = true, nullable = false, columnDefinition = "BINARY(16)")
+    @Convert(converter = UuidBinaryConverter.class)
     private String externalId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "participant_id", nullable = false)
+    @ToString.Exclude
     private Participant participant;
 
     @NotNull(message = "Event type is required")
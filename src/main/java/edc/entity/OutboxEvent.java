@@ -0,0 +1,74 @@
+package edc.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * External call to be performed by the outbox relay, written in the same transaction as the state change it belongs to.
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_outbox_aggregate_id", columnList = "aggregate_id")
+})
+public class OutboxEvent extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @NotNull(message = "Event type is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType eventType;
+
+    // external ID of the participant the call belongs to
+    @NotBlank(message = "Aggregate ID is required")
+    @Column(name = "aggregate_id", nullable = false)
+    private String aggregateId;
+
+    @Column(name = "payload", columnDefinition = "JSON")
+    @Convert(converter = JsonConverter.class)
+    private Map<String, Object> payload;
+
+    @NotNull(message = "Status is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private OffsetDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt;
+
+    public enum EventType {
+        PROVISION_PARTICIPANT, DEPROVISION_PARTICIPANT, REQUEST_CREDENTIALS
+    }
+
+    public enum Status {
+        PENDING, IN_PROGRESS, COMPLETED, FAILED
+    }
+}
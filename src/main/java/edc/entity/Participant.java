@@ -4,22 +4,31 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.Map;
 
-@Data
-@EqualsAndHashCode(callSuper = true)
+@Getter
+@Setter
+@ToString
 @Entity
 @Table(name = "participants", indexes = {
     @Index(name = "idx_external_id", columnList = "external_id"),
     @Index(name = "idx_name", columnList = "name"),
     @Index(name = "idx_current_operation", columnList = "current_operation"),
-    @Index(name = "idx_did", columnList = "did")
+    @Index(name = "idx_did", columnList = "did"),
+    @Index(name = "idx_participants_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_participants_tenant_created_at_id", columnList = "tenant_id, created_at, id")
 })
 public class Participant extends BaseEntity {
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participants_seq")
+    @SequenceGenerator(name = "participants_seq", sequenceName = "participants_seq", allocationSize = 50)
+    private Integer id;
+
     @NotBlank(message = "External ID is required")
     @Column(name = "external_id", unique = true, nullable = false)
     private String externalId;
@@ -3,14 +3,16 @@ package edc.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.OffsetDateTime;
 import java.util.Map;
 
-@Data
-@EqualsAndHashCode(callSuper = true)
+@Getter
+@Setter
+@ToString
 @Entity
 @Table(name = "participant_users", indexes = {
     @Index(name = "idx_external_id", columnList = "external_id"),
@@ -18,6 +20,11 @@ import java.util.Map;
 })
 public class ParticipantUser extends BaseEntity {
 
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participant_users_seq")
+    @SequenceGenerator(name = "participant_users_seq", sequenceName = "participant_users_seq", allocationSize = 50)
+    private Integer id;
+
     @NotBlank(message = "External ID is required")
     @Column(name = "external_id", unique = true, nullable = false)
     private String externalId;
@@ -0,0 +1,47 @@
+package edc.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Stores a UUID kept as its canonical string in the entity in a BINARY(16) column: 16 bytes instead of 36 characters
+ * in the column and in every index containing it. The bytes are in canonical order, the same as MySQL
+ * UUID_TO_BIN(uuid) without swap flag, so time-ordered UUIDs (see edc.util.UuidV7) stay ordered in the index.
+ * Opt-in per column with @Convert; native queries on such a column must bind UUID_TO_BIN(:param).
+ */
+@Converter
+public class UuidBinaryConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(attribute);
+        } catch (IllegalArgumentException e) {
+            // lookup by an id that is not a UUID: matches no row, as the string column did
+            return new byte[0];
+        }
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null) {
+            return null;
+        }
+        if (dbData.length != 16) {
+            throw new IllegalArgumentException("UUID column must hold 16 bytes, got " + dbData.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(dbData);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
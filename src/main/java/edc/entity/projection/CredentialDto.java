@@ -0,0 +1,28 @@
+package edc.entity.projection;
+
+import edc.entity.Credential;
+import edc.util.KeysetRow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Credential columns returned by the API, read without loading the entity nor its participant.
+ */
+@Data
+@AllArgsConstructor
+public class CredentialDto implements KeysetRow {
+    private Integer id;
+    private String externalId;
+    private String requestId;
+    private String issuerDid;
+    private String holderPid;
+    private String credentialType;
+    private String format;
+    private Credential.CredentialStatus status;
+    private OffsetDateTime issuedAt;
+    private OffsetDateTime expiresAt;
+    private String credentialHash;
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package edc.entity.projection;
+
+import edc.entity.Operation;
+import edc.util.KeysetRow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Operation columns returned by the API, read without loading the entity nor its participant.
+ */
+@Data
+@AllArgsConstructor
+public class OperationDto implements KeysetRow {
+    private Integer id;
+    private String externalId;
+    private Operation.EventType eventType;
+    private Map<String, Object> eventPayload;
+    private OffsetDateTime createdAt;
+}
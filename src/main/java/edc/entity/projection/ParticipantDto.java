@@ -0,0 +1,27 @@
+package edc.entity.projection;
+
+import edc.entity.Participant;
+import edc.util.KeysetRow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Participant columns returned by the list endpoint, read without loading (nor dirty checking) the entity.
+ */
+@Data
+@AllArgsConstructor
+public class ParticipantDto implements KeysetRow {
+    private Integer id;
+    private String externalId;
+    private String name;
+    private String companyName;
+    private String did;
+    private String host;
+    private Map<String, Object> metadata;
+    private Participant.CurrentOperation currentOperation;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime updatedAt;
+}
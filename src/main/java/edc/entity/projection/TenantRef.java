@@ -0,0 +1,23 @@
+package edc.entity.projection;
+
+import edc.entity.Tenant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Tenant identity needed to scope queries by tenant_id instead of joining tenants by name.
+ */
+@Data
+@AllArgsConstructor
+public class TenantRef {
+    private Integer id;
+    private String name;
+    private Tenant.TenantStatus status;
+    private OffsetDateTime deletedAt;
+
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+}
@@ -0,0 +1,11 @@
+package edc.exception;
+
+/**
+ * Call to an external API refused without being sent, because its circuit breaker is open.
+ */
+public class CircuitOpenException extends ExternalApiException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package edc.exception;
+
+/**
+ * 4xx answer of an external API: the request itself is wrong, retrying it or opening the circuit would not help.
+ */
+public class ExternalApiClientErrorException extends ExternalApiException {
+
+    public ExternalApiClientErrorException(String message) {
+        super(message);
+    }
+}
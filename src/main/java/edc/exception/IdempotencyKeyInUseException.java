@@ -0,0 +1,11 @@
+package edc.exception;
+
+/**
+ * Request with the same Idempotency-Key still being processed, the client should retry later.
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    public IdempotencyKeyInUseException(String message) {
+        super(message);
+    }
+}
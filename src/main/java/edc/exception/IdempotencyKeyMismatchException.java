@@ -0,0 +1,11 @@
+package edc.exception;
+
+/**
+ * Idempotency-Key reused for a request different from the one it was first sent with.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
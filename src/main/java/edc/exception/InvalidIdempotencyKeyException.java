@@ -0,0 +1,11 @@
+package edc.exception;
+
+/**
+ * Idempotency-Key header blank or too long.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package edc.exception;
+
+public class ParticipantBatchTooLargeException extends RuntimeException {
+
+    public ParticipantBatchTooLargeException(String message) {
+        super(message);
+    }
+}
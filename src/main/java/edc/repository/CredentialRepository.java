@@ -1,70 +1,127 @@
 package edc.repository;
 
 import edc.entity.Credential;
+import edc.entity.Participant;
 import edc.entity.ParticipantUser;
+import edc.entity.projection.CredentialDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CredentialRepository extends JpaRepository<Credential, Integer> {
 
+    String SELECT_CREDENTIAL_DTO = "SELECT new edc.entity.projection.CredentialDto(c.id, c.externalId, c.requestId, c.issuerDid, " +
+            "c.holderPid, c.credentialType, c.format, c.status, c.issuedAt, c.expiresAt, c.credentialHash, c.createdAt) " +
+            "FROM Credential c JOIN c.participant p ";
+
+    String WHERE_PARTICIPANT_AND_STATUS = "WHERE p.externalId = :participantExternalId AND " +
+           "(:credentialStatus IS NULL OR c.status = :credentialStatus)";
+
+    String WHERE_PARTICIPANT_AND_TENANT_ID = WHERE_PARTICIPANT_AND_STATUS + " AND p.tenantId = :tenantId";
+
+    String JOIN_USER_WHERE_PARTICIPANT_AND_USER_NAME_AND_TENANT_ID = "JOIN ParticipantUser pu ON pu.participantId = p.id " +
+           WHERE_PARTICIPANT_AND_TENANT_ID + " AND pu.username = :userName AND pu.status IN (:userStatusList)";
+
     Optional<Credential> findByExternalId(String externalId);
 
+    /**
+     * Credential of the participant, checked in the same query: empty when either does not exist or they do not match.
+     */
+    @Query(SELECT_CREDENTIAL_DTO + "WHERE c.externalId = :credentialId AND p.externalId = :participantExternalId")
+    Optional<CredentialDto> findDtoByExternalIdAndParticipantExternalId(@Param("credentialId") String credentialId,
+                                                                        @Param("participantExternalId") String participantExternalId);
+
+    @Query(SELECT_CREDENTIAL_DTO + "WHERE c.externalId = :credentialId AND p.externalId = :participantExternalId " +
+           "AND p.tenantId = :tenantId")
+    Optional<CredentialDto> findDtoByExternalIdAndParticipantExternalIdAndTenantId(@Param("credentialId") String credentialId,
+                                                                                   @Param("participantExternalId") String participantExternalId,
+                                                                                   @Param("tenantId") Integer tenantId);
+
+    @Query(SELECT_CREDENTIAL_DTO + "JOIN ParticipantUser pu ON pu.participantId = p.id " +
+           "WHERE c.externalId = :credentialId AND p.externalId = :participantExternalId AND p.tenantId = :tenantId " +
+           "AND pu.username = :userName AND pu.status IN (:userStatusList)")
+    Optional<CredentialDto> findDtoByExternalIdAndParticipantExternalIdAndTenantIdAndUserName(@Param("credentialId") String credentialId,
+                                                                                              @Param("participantExternalId") String participantExternalId,
+                                                                                              @Param("tenantId") Integer tenantId,
+                                                                                              @Param("userName") String userName,
+                                                                                              @Param("userStatusList") List<ParticipantUser.Status> userStatusList);
+
+    List<Credential> findByRequestId(String requestId);
 
-    @Query("SELECT c FROM Credential c WHERE c.participant.externalId = :participantExternalId AND " +
-           "(:credentialStatus IS NULL OR c.status = :credentialStatus)")
-    Page<Credential> findByParticipantExternalIdAndStatus(@Param("participantExternalId") String participantExternalId,
+    @Query(SELECT_CREDENTIAL_DTO + WHERE_PARTICIPANT_AND_STATUS)
+    Page<CredentialDto> findByParticipantExternalIdAndStatus(@Param("participantExternalId") String participantExternalId,
+                                                            @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
+                                                            Pageable pageable);
+
+    /**
+     * Same as {@link #findByParticipantExternalIdAndStatus} without the count query.
+     */
+    @Query(SELECT_CREDENTIAL_DTO + WHERE_PARTICIPANT_AND_STATUS)
+    Slice<CredentialDto> findSliceByParticipantExternalIdAndStatus(@Param("participantExternalId") String participantExternalId,
+                                                                   @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
+                                                                   Pageable pageable);
+
+    @Query(SELECT_CREDENTIAL_DTO + "WHERE c.participant = :participant AND " +
+           "(:credentialStatus IS NULL OR c.status = :credentialStatus) AND " +
+           "(:afterCreatedAt IS NULL OR c.createdAt > :afterCreatedAt OR (c.createdAt = :afterCreatedAt AND c.id > :afterId)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CredentialDto> findByParticipantAndStatusAfter(@Param("participant") Participant participant,
+                                                        @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
+                                                        @Param("afterCreatedAt") OffsetDateTime afterCreatedAt,
+                                                        @Param("afterId") Integer afterId,
+                                                        Pageable pageable);
+
+    @Query(SELECT_CREDENTIAL_DTO + "WHERE c.participant = :participant AND " +
+           "(:credentialStatus IS NULL OR c.status = :credentialStatus) AND " +
+           "(:beforeCreatedAt IS NULL OR c.createdAt < :beforeCreatedAt OR (c.createdAt = :beforeCreatedAt AND c.id < :beforeId)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CredentialDto> findByParticipantAndStatusBefore(@Param("participant") Participant participant,
                                                          @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
+                                                         @Param("beforeCreatedAt") OffsetDateTime beforeCreatedAt,
+                                                         @Param("beforeId") Integer beforeId,
                                                          Pageable pageable);
 
-
-    @Query(value = "SELECT c.* FROM credentials c " +
-            "JOIN participants p ON c.participant_id = p.id " +
-            "JOIN tenants t ON p.tenant_id = t.id " +
-            "WHERE p.external_id = :participantExternalId AND t.name = :tenantName AND" +
-            " (:credentialStatus IS NULL OR c.status = :credentialStatus)",
-            countQuery = "SELECT COUNT(*) FROM credentials c " +
-                    "JOIN participants p ON c.participant_id = p.id " +
-                    "JOIN tenants t ON p.tenant_id = t.id " +
-                    "WHERE p.external_id = :participantExternalId AND t.name = :tenantName AND" +
-                    " (:credentialStatus IS NULL OR c.status = :credentialStatus)",
-            nativeQuery = true)
-    Page<Credential> findByParticipantExternalIdAndStatusAndTenantName(@Param("participantExternalId") String participantExternalId,
+    @Query(SELECT_CREDENTIAL_DTO + WHERE_PARTICIPANT_AND_TENANT_ID)
+    Page<CredentialDto> findByParticipantExternalIdAndStatusAndTenantId(@Param("participantExternalId") String participantExternalId,
                                                                        @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
-                                                                        @Param("tenantName") String tenantName,
-                                                                        Pageable pageable);
-
-    @Query(value = "SELECT c.* FROM credentials c " +
-            "JOIN participants p ON c.participant_id = p.id " +
-            "JOIN tenants t ON p.tenant_id = t.id " +
-            "JOIN participant_users pu ON pu.participant_id = p.id " +
-            "WHERE p.external_id = :participantExternalId " +
-            "AND t.name = :tenantName " +
-            "AND pu.username = :userName " +
-            "AND pu.status IN (:userStatusList)" +
-            "AND (:credentialStatus IS NULL OR c.status = :credentialStatus)",
-            countQuery = "SELECT COUNT(*) FROM credentials c " +
-                    "JOIN participants p ON c.participant_id = p.id " +
-                    "JOIN tenants t ON p.tenant_id = t.id " +
-                    "JOIN participant_users pu ON pu.participant_id = p.id " +
-                    "WHERE p.external_id = :participantExternalId " +
-                    "AND t.name = :tenantName " +
-                    "AND pu.username = :userName " +
-                    "AND pu.status IN (:userStatusList)" +
-                    "AND (:credentialStatus IS NULL OR c.status = :credentialStatus)",
-            nativeQuery = true)
-    Page<Credential> findByParticipantExternalIdAndUserNameAndStatusAndTenantName(@Param("participantExternalId") String participantExternalId,
+                                                                       @Param("tenantId") Integer tenantId,
+                                                                       Pageable pageable);
+
+    /**
+     * Same as {@link #findByParticipantExternalIdAndStatusAndTenantId} without the count query.
+     */
+    @Query(SELECT_CREDENTIAL_DTO + WHERE_PARTICIPANT_AND_TENANT_ID)
+    Slice<CredentialDto> findSliceByParticipantExternalIdAndStatusAndTenantId(@Param("participantExternalId") String participantExternalId,
+                                                                              @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
+                                                                              @Param("tenantId") Integer tenantId,
+                                                                              Pageable pageable);
+
+    @Query(SELECT_CREDENTIAL_DTO + JOIN_USER_WHERE_PARTICIPANT_AND_USER_NAME_AND_TENANT_ID)
+    Page<CredentialDto> findByParticipantExternalIdAndUserNameAndStatusAndTenantId(@Param("participantExternalId") String participantExternalId,
                                                                                   @Param("userName") String userName,
                                                                                   @Param("userStatusList") List<ParticipantUser.Status> userStatusList,
-                                                                                   @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
-                                                                                   @Param("tenantName") String tenantName,
-                                                                                   Pageable pageable);
+                                                                                  @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
+                                                                                  @Param("tenantId") Integer tenantId,
+                                                                                  Pageable pageable);
+
+    /**
+     * Same as {@link #findByParticipantExternalIdAndUserNameAndStatusAndTenantId} without the count query.
+     */
+    @Query(SELECT_CREDENTIAL_DTO + JOIN_USER_WHERE_PARTICIPANT_AND_USER_NAME_AND_TENANT_ID)
+    Slice<CredentialDto> findSliceByParticipantExternalIdAndUserNameAndStatusAndTenantId(@Param("participantExternalId") String participantExternalId,
+                                                                                         @Param("userName") String userName,
+                                                                                         @Param("userStatusList") List<ParticipantUser.Status> userStatusList,
+                                                                                         @Param("credentialStatus") Credential.CredentialStatus credentialStatus,
+                                                                                         @Param("tenantId") Integer tenantId,
+                                                                                         Pageable pageable);
 
 }
@@ -0,0 +1,38 @@
+package edc.repository;
+
+import edc.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Integer> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    /**
+     * Takes over an expired record, or an IN_PROGRESS one whose lock expired; at most one caller gets 1 back.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE IdempotencyRecord r SET r.status = edc.entity.IdempotencyRecord.Status.IN_PROGRESS, r.requestHash = :requestHash, " +
+           "r.responseStatus = null, r.responseBody = null, r.location = null, " +
+           "r.lockedUntil = :lockedUntil, r.expiresAt = :expiresAt, r.updatedAt = :now " +
+           "WHERE r.id = :id AND (r.expiresAt < :now OR (r.status = edc.entity.IdempotencyRecord.Status.IN_PROGRESS AND r.lockedUntil < :now))")
+    int takeOver(@Param("id") Integer id,
+                 @Param("requestHash") String requestHash,
+                 @Param("lockedUntil") OffsetDateTime lockedUntil,
+                 @Param("expiresAt") OffsetDateTime expiresAt,
+                 @Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
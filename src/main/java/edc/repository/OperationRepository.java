@@ -2,28 +2,65 @@ package edc.repository;
 
 import edc.entity.Operation;
 import edc.entity.Participant;
+import edc.entity.projection.OperationDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @Repository
 public interface OperationRepository extends JpaRepository<Operation, Integer> {
 
 
-    @Query("SELECT o FROM Operation o WHERE o.participant = :participant AND " +
-           "(:eventType IS NULL OR o.eventType = :eventType)")
-    Page<Operation> findByParticipantAndEventType(@Param("participant") Participant participant, 
-                                                 @Param("eventType") Operation.EventType eventType, 
-                                                 Pageable pageable);
+    String SELECT_OPERATION_DTO = "SELECT new edc.entity.projection.OperationDto(o.id, o.externalId, o.eventType, " +
+            "o.eventPayload, o.createdAt) FROM Operation o ";
+
+    String FIND_BY_PARTICIPANT_AND_EVENT_TYPE = SELECT_OPERATION_DTO + "WHERE o.participant = :participant AND " +
+           "(:eventType IS NULL OR o.eventType = :eventType)";
+
+    @Query(FIND_BY_PARTICIPANT_AND_EVENT_TYPE)
+    Page<OperationDto> findByParticipantAndEventType(@Param("participant") Participant participant,
+                                                    @Param("eventType") Operation.EventType eventType,
+                                                    Pageable pageable);
+
+    /**
+     * Same as {@link #findByParticipantAndEventType} without the count query.
+     */
+    @Query(FIND_BY_PARTICIPANT_AND_EVENT_TYPE)
+    Slice<OperationDto> findSliceByParticipantAndEventType(@Param("participant") Participant participant,
+                                                           @Param("eventType") Operation.EventType eventType,
+                                                           Pageable pageable);
+
+
+    @Query(SELECT_OPERATION_DTO + "WHERE o.participant = :participant AND " +
+           "(:eventType IS NULL OR o.eventType = :eventType) AND " +
+           "(:afterCreatedAt IS NULL OR o.createdAt > :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id > :afterId)) " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    List<OperationDto> findByParticipantAndEventTypeAfter(@Param("participant") Participant participant,
+                                                          @Param("eventType") Operation.EventType eventType,
+                                                          @Param("afterCreatedAt") OffsetDateTime afterCreatedAt,
+                                                          @Param("afterId") Integer afterId,
+                                                          Pageable pageable);
+
+    @Query(SELECT_OPERATION_DTO + "WHERE o.participant = :participant AND " +
+           "(:eventType IS NULL OR o.eventType = :eventType) AND " +
+           "(:beforeCreatedAt IS NULL OR o.createdAt < :beforeCreatedAt OR (o.createdAt = :beforeCreatedAt AND o.id < :beforeId)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OperationDto> findByParticipantAndEventTypeBefore(@Param("participant") Participant participant,
+                                                           @Param("eventType") Operation.EventType eventType,
+                                                           @Param("beforeCreatedAt") OffsetDateTime beforeCreatedAt,
+                                                           @Param("beforeId") Integer beforeId,
+                                                           Pageable pageable);
 
 
     boolean existsByExternalId(String externalId);
 
-    @Query("SELECT o FROM Operation o WHERE o.participant = :participant ORDER BY o.createdAt DESC")
-    List<Operation> findLatestByParticipant(@Param("participant") Participant participant, Pageable pageable);
+    @Query(SELECT_OPERATION_DTO + "WHERE o.participant = :participant ORDER BY o.createdAt DESC")
+    List<OperationDto> findLatestByParticipant(@Param("participant") Participant participant, Pageable pageable);
 }
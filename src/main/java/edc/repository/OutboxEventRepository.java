@@ -0,0 +1,29 @@
+package edc.repository;
+
+import edc.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Integer> {
+
+    /**
+     * Locks the next due events; rows already locked by another relay instance are skipped, not waited for.
+     * IN_PROGRESS rows are due again once their lease has expired (the relay that claimed them died).
+     */
+    @Query(value = "SELECT * FROM outbox_events " +
+                   "WHERE ((status = 'PENDING' AND next_attempt_at <= :now) " +
+                   "   OR (status = 'IN_PROGRESS' AND locked_until < :now)) " +
+                   "ORDER BY next_attempt_at, id " +
+                   "LIMIT :batchSize " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> lockNextDue(@Param("now") OffsetDateTime now, @Param("batchSize") int batchSize);
+
+    boolean existsByAggregateId(String aggregateId);
+}
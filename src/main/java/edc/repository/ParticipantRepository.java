@@ -1,59 +1,154 @@
 package edc.repository;
 
 import edc.entity.ParticipantUser;
+import edc.entity.projection.ParticipantDto;
 import edc.entity.projection.ParticipantMeDto;
 import edc.entity.Participant;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ParticipantRepository extends JpaRepository<Participant, Integer> {
 
-    Optional<Participant> findByExternalId(String externalId);
+    String SELECT_PARTICIPANT_DTO = "SELECT new edc.entity.projection.ParticipantDto(p.id, p.externalId, p.name, " +
+           "p.companyName, p.did, p.host, p.metadata, p.currentOperation, p.createdAt, p.updatedAt) FROM Participant p ";
 
-    boolean existsByName(String name);
+    String WHERE_FILTERS = "WHERE (:currentOperation IS NULL OR p.currentOperation = :currentOperation) AND " +
+           "(:participantName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :participantName, '%')))";
+
+    String WHERE_FILTERS_AND_TENANT_ID = WHERE_FILTERS + " AND p.tenantId = :tenantId";
 
+    Optional<Participant> findByExternalId(String externalId);
 
-    @Query("SELECT p " +
-           "FROM Participant p WHERE " +
-           "(:currentOperation IS NULL OR p.currentOperation = :currentOperation) AND " +
-           "(:participantName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :participantName, '%')))")
-    Page<Participant> findByFilters(@Param("currentOperation") String currentOperation,
-                                              @Param("participantName") String participantName,
-                                              Pageable pageable);
-
-    @Query(value = "SELECT p.* FROM participants p " +
-            "JOIN tenants t ON p.tenant_id = t.id " +
-            "WHERE t.name = :tenantName AND t.deleted_at IS NULL AND " +
-            "(:currentOperation IS NULL OR p.current_operation = :currentOperation) AND " +
-            "(:participantName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :participantName, '%')))",
-            countQuery = "SELECT COUNT(*) FROM participants p " +
-                    "JOIN tenants t ON p.tenant_id = t.id " +
-                    "WHERE t.name = :tenantName ",
-            nativeQuery = true)
-    Page<Participant> findByFiltersAndTenantName(@Param("tenantName") String tenantName,
-                                               @Param("currentOperation") String currentOperation,
-                                               @Param("participantName") String participantName,
-                                               Pageable pageable);
+    /**
+     * Locks the participant row until the end of the transaction, for state changes racing with each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Participant p WHERE p.externalId = :externalId")
+    Optional<Participant> findByExternalIdForUpdate(@Param("externalId") String externalId);
 
+    boolean existsByName(String name);
 
+    @Query("SELECT p.name FROM Participant p WHERE p.name IN (:names)")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+
+    @Query(SELECT_PARTICIPANT_DTO + WHERE_FILTERS)
+    Page<ParticipantDto> findByFilters(@Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                       @Param("participantName") String participantName,
+                                       Pageable pageable);
+
+    /**
+     * Same as {@link #findByFilters} without the count query.
+     */
+    @Query(SELECT_PARTICIPANT_DTO + WHERE_FILTERS)
+    Slice<ParticipantDto> findSliceByFilters(@Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                             @Param("participantName") String participantName,
+                                             Pageable pageable);
+
+    @Query(SELECT_PARTICIPANT_DTO + WHERE_FILTERS_AND_TENANT_ID)
+    Page<ParticipantDto> findByFiltersAndTenantId(@Param("tenantId") Integer tenantId,
+                                                  @Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                                  @Param("participantName") String participantName,
+                                                  Pageable pageable);
+
+    /**
+     * Same as {@link #findByFiltersAndTenantId} without the count query.
+     */
+    @Query(SELECT_PARTICIPANT_DTO + WHERE_FILTERS_AND_TENANT_ID)
+    Slice<ParticipantDto> findSliceByFiltersAndTenantId(@Param("tenantId") Integer tenantId,
+                                                        @Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                                        @Param("participantName") String participantName,
+                                                        Pageable pageable);
+
+    /**
+     * Keyset page in ascending (created_at, id) order, starting after the given position (or from the start when null).
+     */
+    @Query(SELECT_PARTICIPANT_DTO + """
+    WHERE (:currentOperation IS NULL OR p.currentOperation = :currentOperation)
+      AND (:participantName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :participantName, '%')))
+      AND (:afterCreatedAt IS NULL OR p.createdAt > :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id > :afterId))
+    ORDER BY p.createdAt ASC, p.id ASC
+    """)
+    List<ParticipantDto> findByFiltersAfter(@Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                            @Param("participantName") String participantName,
+                                            @Param("afterCreatedAt") OffsetDateTime afterCreatedAt,
+                                            @Param("afterId") Integer afterId,
+                                            Pageable pageable);
+
+    /**
+     * Keyset page in descending (created_at, id) order, starting before the given position (or from the end when null).
+     */
+    @Query(SELECT_PARTICIPANT_DTO + """
+    WHERE (:currentOperation IS NULL OR p.currentOperation = :currentOperation)
+      AND (:participantName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :participantName, '%')))
+      AND (:beforeCreatedAt IS NULL OR p.createdAt < :beforeCreatedAt OR (p.createdAt = :beforeCreatedAt AND p.id < :beforeId))
+    ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<ParticipantDto> findByFiltersBefore(@Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                             @Param("participantName") String participantName,
+                                             @Param("beforeCreatedAt") OffsetDateTime beforeCreatedAt,
+                                             @Param("beforeId") Integer beforeId,
+                                             Pageable pageable);
+
+    @Query(SELECT_PARTICIPANT_DTO + """
+    WHERE p.tenantId = :tenantId
+      AND (:currentOperation IS NULL OR p.currentOperation = :currentOperation)
+      AND (:participantName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :participantName, '%')))
+      AND (:afterCreatedAt IS NULL OR p.createdAt > :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id > :afterId))
+    ORDER BY p.createdAt ASC, p.id ASC
+    """)
+    List<ParticipantDto> findByFiltersAndTenantIdAfter(@Param("tenantId") Integer tenantId,
+                                                         @Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                                         @Param("participantName") String participantName,
+                                                         @Param("afterCreatedAt") OffsetDateTime afterCreatedAt,
+                                                         @Param("afterId") Integer afterId,
+                                                         Pageable pageable);
+
+    @Query(SELECT_PARTICIPANT_DTO + """
+    WHERE p.tenantId = :tenantId
+      AND (:currentOperation IS NULL OR p.currentOperation = :currentOperation)
+      AND (:participantName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :participantName, '%')))
+      AND (:beforeCreatedAt IS NULL OR p.createdAt < :beforeCreatedAt OR (p.createdAt = :beforeCreatedAt AND p.id < :beforeId))
+    ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<ParticipantDto> findByFiltersAndTenantIdBefore(@Param("tenantId") Integer tenantId,
+                                                          @Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                                          @Param("participantName") String participantName,
+                                                          @Param("beforeCreatedAt") OffsetDateTime beforeCreatedAt,
+                                                          @Param("beforeId") Integer beforeId,
+                                                          Pageable pageable);
+
+    Optional<Participant> findByExternalIdAndTenantId(String externalId, int tenantId);
+
+    /**
+     * Participants created before the given time, still in the given state and with no outbox event: the after-commit
+     * step that creates their Keycloak user and enqueues the provisioner call never completed.
+     */
     @Query("""
-    SELECT p
+    SELECT p.externalId
     FROM Participant p
-    JOIN Tenant t ON p.tenantId = t.id
-    WHERE p.externalId = :externalId
-      AND t.name = :tenantName
+    WHERE p.currentOperation = :currentOperation
+      AND p.createdAt < :createdBefore
+      AND NOT EXISTS (SELECT e.id FROM OutboxEvent e WHERE e.aggregateId = p.externalId)
+    ORDER BY p.createdAt ASC, p.id ASC
     """)
-    Optional<Participant> findByExternalIdAndTenantName(@Param("externalId") String externalId,
-                                                        @Param("tenantName") String tenantName);
+    List<String> findExternalIdsWithoutOutboxEvent(@Param("currentOperation") Participant.CurrentOperation currentOperation,
+                                                   @Param("createdBefore") OffsetDateTime createdBefore,
+                                                   Pageable pageable);
 
     @Query("""
     SELECT new edc.entity.projection.ParticipantMeDto(    
@@ -72,29 +167,27 @@ public interface ParticipantRepository extends JpaRepository<Participant, Intege
         pu.createdAt
     )
     FROM Participant p
-    JOIN Tenant t ON p.tenantId = t.id
     JOIN ParticipantUser pu ON pu.participantId = p.id
     WHERE pu.username = :userName
       AND pu.status IN (:statusList)
-      AND t.name = :tenantName
+      AND p.tenantId = :tenantId
     """)
-    Optional<ParticipantMeDto> findByUserNameAndTenantName(@Param("userName") String userName,
-                                                           @Param("tenantName") String tenantName,
+    Optional<ParticipantMeDto> findByUserNameAndTenantId(@Param("userName") String userName,
+                                                         @Param("tenantId") Integer tenantId,
                                                            @Param("statusList") List<ParticipantUser.Status> statusList);
 
 
     @Query("""
     SELECT p
     FROM Participant p
-    JOIN Tenant t ON p.tenantId = t.id
     JOIN ParticipantUser cu ON cu.participantId = p.id
     WHERE p.externalId = :externalId
       AND cu.username = :userName
       AND cu.status IN (:statusList)
-      AND t.name = :tenantName
+      AND p.tenantId = :tenantId
     """)
-    Optional<Participant> findByExternalIdAndTenantNameAndUserName(@Param("externalId") String externalId,
-                                                                   @Param("tenantName") String tenantName,
+    Optional<Participant> findByExternalIdAndTenantIdAndUserName(@Param("externalId") String externalId,
+                                                                 @Param("tenantId") Integer tenantId,
                                                                    @Param("userName") String userName,
                                                                    @Param("statusList") List<ParticipantUser.Status> statusList);
 
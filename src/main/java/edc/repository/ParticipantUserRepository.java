@@ -2,8 +2,11 @@ package edc.repository;
 
 import edc.entity.ParticipantUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,6 +14,9 @@ public interface ParticipantUserRepository extends JpaRepository<ParticipantUser
 
     boolean existsByUsername(String username);
 
+    @Query("SELECT pu.username FROM ParticipantUser pu WHERE pu.username IN (:usernames)")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
     List<ParticipantUser> findByParticipantId(Integer participantId);
 
 }
@@ -1,6 +1,7 @@
 package edc.repository;
 
 import edc.entity.Tenant;
+import edc.entity.projection.TenantRef;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -19,6 +20,9 @@ public interface TenantRepository extends JpaRepository<Tenant, Integer> {
 
     boolean existsByName(String name);
 
+    @Query("SELECT new edc.entity.projection.TenantRef(t.id, t.name, t.status, t.deletedAt) FROM Tenant t WHERE t.name = :name")
+    Optional<TenantRef> findRefByName(@Param("name") String name);
+
 
     @Query("SELECT t FROM Tenant t WHERE t.status != 'DELETED'")
     Page<Tenant> findAllActive(Pageable pageable);
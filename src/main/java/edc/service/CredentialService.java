@@ -7,22 +7,25 @@ import edc.dto.ExternalCredentialRequest;
 import edc.entity.Credential;
 import edc.entity.Participant;
 import edc.entity.ParticipantUser;
+import edc.entity.projection.CredentialDto;
 import edc.exception.ParticipantNotActiveException;
 import edc.exception.ParticipantNotFoundException;
 import edc.repository.CredentialRepository;
 import edc.repository.ParticipantRepository;
+import edc.service.outbox.OutboxService;
+import edc.util.Cursor;
+import edc.util.PageQuery;
+import edc.util.PageResult;
+import edc.util.UuidV7;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,81 +36,122 @@ public class CredentialService {
 
     private final CredentialRepository credentialRepository;
     private final ParticipantRepository participantRepository;
-    private final ExternalApiService externalApiService;
+    private final OutboxService outboxService;
     private final ExternalApiProperties externalApiProperties;
+    private final TotalCountService totalCountService;
+    private final TenantResolver tenantResolver;
 
     @Value("${app.mockCredentials:false}")
     private boolean mockCredentials;
 
-    public Page<CredentialResponse> findCredentialsByParticipantExternalId(String participantExternalId,
+    @Transactional(readOnly = true)
+    public PageResult<CredentialResponse> findCredentialsByParticipantExternalId(String participantExternalId,
                                                                  Credential.CredentialStatus status,
-                                                                 Pageable pageable) {
+                                                                 PageQuery pageQuery) {
 
-        Page<Credential> credentials = credentialRepository.findByParticipantExternalIdAndStatus(participantExternalId, status, pageable);
+        if (pageQuery.keyset()) {
+            return findCredentialsAfter(participantRepository.findByExternalId(participantExternalId), status, pageQuery);
+        }
+        PageResult<CredentialDto> credentials = totalCountService.findPage(pageQuery.totalMode(), pageQuery.pageable(),
+                TotalCountService.CountKey.of("credentials", participantExternalId, status),
+                p -> credentialRepository.findByParticipantExternalIdAndStatus(participantExternalId, status, p),
+                p -> credentialRepository.findSliceByParticipantExternalIdAndStatus(participantExternalId, status, p));
         return credentials.map(this::convertToResponse);
     }
 
-    public Page<CredentialResponse> findCredentialsByParticipantExternalIdAndTenantName(String participantExternalId,
+    @Transactional(readOnly = true)
+    public PageResult<CredentialResponse> findCredentialsByParticipantExternalIdAndTenantName(String participantExternalId,
                                                                    Credential.CredentialStatus status,
                                                                    String tenantName,
-                                                                   Pageable pageable) {
+                                                                   PageQuery pageQuery) {
 
-        Page<Credential> credentials = credentialRepository.findByParticipantExternalIdAndStatusAndTenantName(participantExternalId, status, tenantName, pageable);
+        if (pageQuery.keyset()) {
+            return findCredentialsAfter(tenantResolver.findTenantId(tenantName)
+                    .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantId(participantExternalId, tenantId)), status, pageQuery);
+        }
+        Optional<Integer> tenantId = tenantResolver.findTenantId(tenantName);
+        if (tenantId.isEmpty()) {
+            return PageResult.empty(pageQuery);
+        }
+        PageResult<CredentialDto> credentials = totalCountService.findPage(pageQuery.totalMode(), pageQuery.pageable(),
+                TotalCountService.CountKey.of("credentials", participantExternalId, tenantId.get(), status),
+                p -> credentialRepository.findByParticipantExternalIdAndStatusAndTenantId(participantExternalId, status, tenantId.get(), p),
+                p -> credentialRepository.findSliceByParticipantExternalIdAndStatusAndTenantId(participantExternalId, status, tenantId.get(), p));
         return credentials.map(this::convertToResponse);
     }
 
-    public Page<CredentialResponse> findCredentialsByParticipantExternalIdAndUserNameAndTenantName(String participantExternalId,
+    @Transactional(readOnly = true)
+    public PageResult<CredentialResponse> findCredentialsByParticipantExternalIdAndUserNameAndTenantName(String participantExternalId,
                                                                                         String username,
                                                                                         Credential.CredentialStatus status,
                                                                                         String tenantName,
-                                                                                        Pageable pageable) {
+                                                                                        PageQuery pageQuery) {
 
-        Page<Credential> credentials = credentialRepository.findByParticipantExternalIdAndUserNameAndStatusAndTenantName(participantExternalId,
-                username, List.of(ParticipantUser.Status.ACTIVE, ParticipantUser.Status.DELETE_IN_PROGRESS), status, tenantName, pageable);
+        List<ParticipantUser.Status> userStatusList = List.of(ParticipantUser.Status.ACTIVE, ParticipantUser.Status.DELETE_IN_PROGRESS);
+        if (pageQuery.keyset()) {
+            return findCredentialsAfter(tenantResolver.findTenantId(tenantName)
+                    .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantIdAndUserName(participantExternalId, tenantId, username, userStatusList)),
+                    status, pageQuery);
+        }
+        Optional<Integer> tenantId = tenantResolver.findTenantId(tenantName);
+        if (tenantId.isEmpty()) {
+            return PageResult.empty(pageQuery);
+        }
+        PageResult<CredentialDto> credentials = totalCountService.findPage(pageQuery.totalMode(), pageQuery.pageable(),
+                TotalCountService.CountKey.of("credentials", participantExternalId, tenantId.get(), username, status),
+                p -> credentialRepository.findByParticipantExternalIdAndUserNameAndStatusAndTenantId(participantExternalId,
+                        username, userStatusList, status, tenantId.get(), p),
+                p -> credentialRepository.findSliceByParticipantExternalIdAndUserNameAndStatusAndTenantId(participantExternalId,
+                        username, userStatusList, status, tenantId.get(), p));
         return credentials.map(this::convertToResponse);
     }
 
+    /**
+     * Keyset page of the participant credentials in the direction of the page query; an unknown or not visible
+     * participant gives an empty page, as in offset mode.
+     */
+    private PageResult<CredentialResponse> findCredentialsAfter(Optional<Participant> participant,
+                                                                Credential.CredentialStatus status,
+                                                                PageQuery pageQuery) {
+        if (participant.isEmpty()) {
+            return PageResult.empty(pageQuery);
+        }
+        Cursor cursor = pageQuery.after();
+        OffsetDateTime createdAt = cursor != null ? cursor.createdAt() : null;
+        Integer id = cursor != null ? cursor.id() : null;
+        List<CredentialDto> credentials = pageQuery.direction().isAscending()
+                ? credentialRepository.findByParticipantAndStatusAfter(participant.get(), status, createdAt, id, pageQuery.keysetPageable())
+                : credentialRepository.findByParticipantAndStatusBefore(participant.get(), status, createdAt, id, pageQuery.keysetPageable());
+        return PageResult.keyset(credentials, pageQuery).map(this::convertToResponse);
+    }
 
     public CredentialResponse findCredentialByParticipantExternalIdAndCredentialIdAndTenantName(String participantId, String credentialId, String tenantName) {
-        Participant participant = participantRepository.findByExternalIdAndTenantName(participantId, tenantName)
-                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantId));
-
-        Credential credential = findAndcheckCredential(participant, credentialId);
-
-        return convertToResponse(credential);
+        return tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> credentialRepository.findDtoByExternalIdAndParticipantExternalIdAndTenantId(credentialId, participantId, tenantId))
+                .map(this::convertToResponse)
+                .orElseThrow(() -> new ParticipantNotFoundException("Credential not found with external ID: " + credentialId
+                        + " for participant: " + participantId + " tenantName: " + tenantName));
     }
 
     public CredentialResponse findCredentialByParticipantExternaIdAndCredentialIdAndTenantNameAndUserName(String participantId, String credentialId, String tenantName, String username) {
-        Participant participant = participantRepository.findByExternalIdAndTenantNameAndUserName(participantId, tenantName, username, List.of(ParticipantUser.Status.ACTIVE,
-                                                                                                                                                ParticipantUser.Status.DELETE_IN_PROGRESS))
-                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with id: " + participantId + " tenantName: " + tenantName + " username: " + username));
-
-        Credential credential = findAndcheckCredential(participant, credentialId);
-
-        return convertToResponse(credential);
+        return tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> credentialRepository.findDtoByExternalIdAndParticipantExternalIdAndTenantIdAndUserName(credentialId, participantId, tenantId, username,
+                        List.of(ParticipantUser.Status.ACTIVE, ParticipantUser.Status.DELETE_IN_PROGRESS)))
+                .map(this::convertToResponse)
+                .orElseThrow(() -> new ParticipantNotFoundException("Credential not found with external ID: " + credentialId
+                        + " for participant: " + participantId + " tenantName: " + tenantName + " username: " + username));
     }
 
     public CredentialResponse findCredentialByExternalId(String participantId, String credentialId) {
-        Participant participant = participantRepository.findByExternalId(participantId)
-                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantId));
-
-        Credential credential = findAndcheckCredential(participant, credentialId);
-
-        return convertToResponse(credential);
-    }
-
-    private Credential findAndcheckCredential(Participant partecipant, String credentialId) {
-        Credential credential = credentialRepository.findByExternalId(credentialId)
-                .orElseThrow(() -> new ParticipantNotFoundException("Credential not found with external ID: " + credentialId));
-
-        if (!credential.getParticipant().equals(partecipant)) {
-            throw new ParticipantNotFoundException("Credential does not belong to the specified participant");
-        }
-        return credential;
+        return credentialRepository.findDtoByExternalIdAndParticipantExternalId(credentialId, participantId)
+                .map(this::convertToResponse)
+                .orElseThrow(() -> new ParticipantNotFoundException("Credential not found with external ID: " + credentialId
+                        + " for participant: " + participantId));
     }
 
     public List<CredentialResponse> requestCredentials(String participantId, CredentialRequest request, String tenantName, String username) {
-        Participant participant = participantRepository.findByExternalIdAndTenantNameAndUserName(participantId, tenantName, username, List.of(ParticipantUser.Status.ACTIVE))
+        Participant participant = tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantIdAndUserName(participantId, tenantId, username, List.of(ParticipantUser.Status.ACTIVE)))
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantId));
         if(participant.getCurrentOperation() == null || !participant.getCurrentOperation().equals(Participant.CurrentOperation.ACTIVE)) {
             throw new ParticipantNotActiveException("Participant with external ID: " + participantId + " is not "
@@ -117,7 +161,8 @@ public class CredentialService {
     }
 
     public List<CredentialResponse> requestCredentials(String participantId, CredentialRequest request, String tenantName) {
-        Participant participant = participantRepository.findByExternalIdAndTenantName(participantId, tenantName)
+        Participant participant = tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantId(participantId, tenantId))
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantId));
         if(participant.getCurrentOperation() == null || !participant.getCurrentOperation().equals(Participant.CurrentOperation.ACTIVE)) {
             throw new ParticipantNotActiveException("Participant with external ID: " + participantId + " is not "
@@ -137,7 +182,7 @@ public class CredentialService {
     }
 
     private List<CredentialResponse> saveCredentials(Participant participant, CredentialRequest request) {
-        String requestId = UUID.randomUUID().toString();
+        String requestId = UuidV7.randomUUID().toString();
 
         // Convert to external API format
         List<ExternalCredentialRequest.CredentialSpec> externalCredentials = request.getCredentials().stream()
@@ -148,59 +193,53 @@ public class CredentialService {
                         .build())
                 .collect(Collectors.toList());
 
-        try {
-
-            if(!mockCredentials) {
-                // Call external API first
-                Map<String, String> externalResponse = externalApiService.requestCredentials(
-                        participant.getName(),
-                        participant.getDid(),
-                        externalCredentials
-                );
-                log.info("External credentials API call successful for participant: {}, response: {}",
-                        participant.getExternalId(), externalResponse);
-            }
-            else{
-                log.debug("Mocking external API call for participant: {}", participant.getExternalId());
-                log.info("External credentials API call successful for participant: {}",
-                        participant.getExternalId());
-            }
-
-
-
-            // Create local credentials only after successful external call
-            List<Credential> credentials = request.getCredentials().stream()
-                    .map(credentialItem -> {
-                        Credential credential = new Credential();
-                        credential.setExternalId(UUID.randomUUID().toString());
-                        credential.setRequestId(requestId);
-                        credential.setIssuerDid(externalApiProperties.getIssuerDid());
-                        credential.setHolderPid(externalApiProperties.getHolderPid());
-                        credential.setParticipant(participant);
-                        credential.setCredentialType(credentialItem.getType());
-                        credential.setFormat(credentialItem.getFormat());
-                        credential.setStatus(mockCredentials ? Credential.CredentialStatus.ISSUED : Credential.CredentialStatus.REQUESTED);
-
-                        // Generate credential hash automatically
-                        credential.setCredentialHash(credential.generateCredentialHash());
-
-                        return credential;
-                    })
-                    .collect(Collectors.toList());
-
-            List<Credential> savedCredentials = credentialRepository.saveAll(credentials);
-
-            log.info("Created {} credential requests for participant: {} with request ID: {} after successful external API call",
-                    savedCredentials.size(), participant.getExternalId(), requestId);
-
-            return savedCredentials.stream()
-                    .map(this::convertToResponse)
-                    .collect(Collectors.toList());
-
-        } catch (Exception e) {
-            log.error("Failed to request credentials via external API for participant {}: {}", participant.getExternalId(), e.getMessage(), e);
-            throw new RuntimeException("Failed to request credentials via external API: " + e.getMessage(), e);
+        // Create local credentials, the external call is enqueued in the same transaction
+        List<Credential> credentials = request.getCredentials().stream()
+                .map(credentialItem -> {
+                    Credential credential = new Credential();
+                    credential.setExternalId(UuidV7.randomUUID().toString());
+                    credential.setRequestId(requestId);
+                    credential.setIssuerDid(externalApiProperties.getIssuerDid());
+                    credential.setHolderPid(externalApiProperties.getHolderPid());
+                    credential.setParticipant(participant);
+                    credential.setCredentialType(credentialItem.getType());
+                    credential.setFormat(credentialItem.getFormat());
+                    credential.setStatus(mockCredentials ? Credential.CredentialStatus.ISSUED : Credential.CredentialStatus.REQUESTED);
+
+                    // Generate credential hash automatically
+                    credential.setCredentialHash(credential.generateCredentialHash());
+
+                    return credential;
+                })
+                .collect(Collectors.toList());
+
+        List<Credential> savedCredentials = credentialRepository.saveAll(credentials);
+
+        if(!mockCredentials) {
+            outboxService.enqueueCredentialRequest(participant, requestId, externalCredentials);
+        }
+        else{
+            log.debug("Mocking external API call for participant: {}", participant.getExternalId());
         }
+
+        log.info("Created {} credential requests for participant: {} with request ID: {}",
+                savedCredentials.size(), participant.getExternalId(), requestId);
+
+        return savedCredentials.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sets the credentials of a request to ERROR after the external credential request failed for the last time.
+     * @param requestId the credential request ID
+     */
+    public void markCredentialRequestFailed(String requestId) {
+        List<Credential> credentials = credentialRepository.findByRequestId(requestId);
+        credentials.forEach(credential -> credential.setStatus(Credential.CredentialStatus.ERROR));
+        credentialRepository.saveAll(credentials);
+
+        log.warn("Set {} credentials of request ID: {} to {}", credentials.size(), requestId, Credential.CredentialStatus.ERROR);
     }
 
     public CredentialResponse updateCredentialStatus(String credentialId, Credential.CredentialStatus status) {
@@ -234,6 +273,22 @@ public class CredentialService {
         return convertToResponse(updatedCredential);
     }
 
+    private CredentialResponse convertToResponse(CredentialDto credential) {
+        CredentialResponse response = new CredentialResponse();
+        response.setId(credential.getExternalId());
+        response.setRequestId(credential.getRequestId());
+        response.setIssuerDid(credential.getIssuerDid());
+        response.setHolderPid(credential.getHolderPid());
+        response.setCredentialType(credential.getCredentialType());
+        response.setFormat(credential.getFormat());
+        response.setStatus(credential.getStatus());
+        response.setIssuedAt(credential.getIssuedAt());
+        response.setExpiresAt(credential.getExpiresAt());
+        response.setCredentialHash(credential.getCredentialHash());
+        response.setCreatedAt(credential.getCreatedAt());
+        return response;
+    }
+
     private CredentialResponse convertToResponse(Credential credential) {
         CredentialResponse response = new CredentialResponse();
         response.setId(credential.getExternalId());
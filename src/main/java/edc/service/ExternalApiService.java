@@ -3,8 +3,13 @@ package edc.service;
 import edc.config.ExternalApiProperties;
 import edc.dto.ExternalProvisioningRequest;
 import edc.dto.ExternalCredentialRequest;
+import edc.exception.CircuitOpenException;
+import edc.exception.ExternalApiClientErrorException;
 import edc.exception.ExternalApiException;
+import edc.service.resilience.CircuitBreaker;
+import edc.service.resilience.Retry;
 import edc.util.EdcUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -23,14 +28,32 @@ public class ExternalApiService {
     private final ExternalApiProperties externalApiProperties;
 
     private final RestClient restClient;
-    private final RestClient defaultRestClient;
+    private final IdentityHubClientRegistry identityHubClientRegistry;
+    private final CircuitBreaker provisionerCircuitBreaker;
+    private final Retry deprovisionRetry;
 
     public ExternalApiService(ExternalApiProperties externalApiProperties,
                               @Qualifier("externalApiRestClient") RestClient restClient,
-                              RestClient defaultRestClient) {
+                              IdentityHubClientRegistry identityHubClientRegistry,
+                              MeterRegistry meterRegistry) {
         this.externalApiProperties = externalApiProperties;
         this.restClient = restClient;
-        this.defaultRestClient = defaultRestClient;
+        this.identityHubClientRegistry = identityHubClientRegistry;
+        this.provisionerCircuitBreaker = new CircuitBreaker("provisioner",
+                externalApiProperties.getProvisioner().getCircuitBreaker(), ExternalApiService::isDownstreamFailure, meterRegistry);
+        this.deprovisionRetry = new Retry("provisioner.deprovision",
+                externalApiProperties.getProvisioner().getRetry(), ExternalApiService::isRetryable, meterRegistry);
+    }
+
+    /**
+     * Network errors and 5xx answers count against the circuit breaker, 4xx answers do not.
+     */
+    public static boolean isDownstreamFailure(Throwable e) {
+        return !(e instanceof ExternalApiClientErrorException);
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return isDownstreamFailure(e) && !(e instanceof CircuitOpenException);
     }
 
     public Map<String, String> provisionParticipant(String participantName) {
@@ -56,7 +79,7 @@ public class ExternalApiService {
         log.trace("Provisioning request URL: {}", url);
 
         try {
-            Map<String, String> response = restClient.post()
+            Map<String, String> response = provisionerCircuitBreaker.execute(() -> restClient.post()
                     .uri(url)
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(request)
@@ -65,7 +88,7 @@ public class ExternalApiService {
                         String responseBody = new String(res.getBody().readAllBytes());
                         log.error("Client error calling external API for participant {}: {} - {}",
                                 normalizedParticipantName, res.getStatusCode(), responseBody);
-                        throw new ExternalApiException("External API client error: " + res.getStatusCode());
+                        throw new ExternalApiClientErrorException("External API client error: " + res.getStatusCode());
                     })
                     .onStatus(HttpStatusCode::is5xxServerError, (req, res) -> {
                         String responseBody = new String(res.getBody().readAllBytes());
@@ -73,7 +96,7 @@ public class ExternalApiService {
                                 normalizedParticipantName, res.getStatusCode(), responseBody);
                         throw new ExternalApiException("External API server error: " + res.getStatusCode());
                     })
-                    .body(new ParameterizedTypeReference<Map<String, String>>() {});
+                    .body(new ParameterizedTypeReference<Map<String, String>>() {}));
 
             log.info("External API response for participant {}: {}", normalizedParticipantName, response);
             return response;
@@ -104,7 +127,7 @@ public class ExternalApiService {
         String url = externalApiProperties.getProvisioner().getEndpoint();
 
         try {
-            Map<String, String> response = restClient.method(HttpMethod.DELETE)
+            Map<String, String> response = deprovisionRetry.execute(() -> provisionerCircuitBreaker.execute(() -> restClient.method(HttpMethod.DELETE)
                     .uri(url)
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(request)
@@ -113,7 +136,7 @@ public class ExternalApiService {
                         String responseBody = new String(res.getBody().readAllBytes());
                         log.error("Client error calling external API for deprovisioning participant {}: {} - {}",
                                 normalizedParticipantName, res.getStatusCode(), responseBody);
-                        throw new ExternalApiException("External API client error: " + res.getStatusCode());
+                        throw new ExternalApiClientErrorException("External API client error: " + res.getStatusCode());
                     })
                     .onStatus(HttpStatusCode::is5xxServerError, (req, res) -> {
                         String responseBody = new String(res.getBody().readAllBytes());
@@ -121,7 +144,7 @@ public class ExternalApiService {
                                 normalizedParticipantName, res.getStatusCode(), responseBody);
                         throw new ExternalApiException("External API server error: " + res.getStatusCode());
                     })
-                    .body(new ParameterizedTypeReference<Map<String, String>>() {});
+                    .body(new ParameterizedTypeReference<Map<String, String>>() {})));
 
             log.info("External API deprovision response for participant {}: {}", normalizedParticipantName, response);
             return response;
@@ -152,9 +175,8 @@ public class ExternalApiService {
         // Encode DID to base64 for the URL path
         String base64Did = Base64.getEncoder().encodeToString(did.getBytes());
 
-        //create service url
-        String serviceUrl = "http://identityhub." + normalizedParticipantName + ".svc.cluster.local:7081";
-        
+        IdentityHubClientRegistry.IdentityHubClient identityHub = identityHubClientRegistry.forParticipant(normalizedParticipantName);
+
         // Build the URL with participant name and base64 DID
 //        String endpoint = externalApiProperties.getCredentials().getEndpoint()
 //                .replace("{participant}", normalizedParticipantName)
@@ -171,12 +193,12 @@ public class ExternalApiService {
                 .credentials(credentials)
                 .build();
 
-        log.debug("url : {}", serviceUrl+endpoint);
+        log.debug("url : {}", identityHub.baseUrl() + endpoint);
         log.trace("Credentials request payload: {}", request);
 
         try {
-            Map<String, String> response = defaultRestClient.post()
-                    .uri(serviceUrl+endpoint)
+            Map<String, String> response = identityHub.execute(client -> client.post()
+                    .uri(endpoint)
                     .contentType(MediaType.APPLICATION_JSON)
                     .header("X-Api-Key", externalApiProperties.getApiKey())
                     .body(request)
@@ -185,7 +207,7 @@ public class ExternalApiService {
                         String responseBody = new String(res.getBody().readAllBytes());
                         log.error("Client error calling external credentials API for participant {}: {} - {}",
                                 normalizedParticipantName, res.getStatusCode(), responseBody);
-                        throw new ExternalApiException("External credentials API client error: " + res.getStatusCode());
+                        throw new ExternalApiClientErrorException("External credentials API client error: " + res.getStatusCode());
                     })
                     .onStatus(HttpStatusCode::is5xxServerError, (req, res) -> {
                         String responseBody = new String(res.getBody().readAllBytes());
@@ -193,7 +215,7 @@ public class ExternalApiService {
                                 normalizedParticipantName, res.getStatusCode(), responseBody);
                         throw new ExternalApiException("External credentials API server error: " + res.getStatusCode());
                     })
-                    .body(new ParameterizedTypeReference<Map<String, String>>() {});
+                    .body(new ParameterizedTypeReference<Map<String, String>>() {}));
 
             log.info("External API credentials response for participant {}: {}", normalizedParticipantName, response);
             return response;
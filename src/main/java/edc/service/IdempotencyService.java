@@ -0,0 +1,206 @@
+package edc.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edc.config.IdempotencyProperties;
+import edc.entity.IdempotencyRecord;
+import edc.exception.IdempotencyKeyInUseException;
+import edc.exception.IdempotencyKeyMismatchException;
+import edc.exception.InvalidIdempotencyKeyException;
+import edc.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for non idempotent requests: the first request with a key is executed and its response stored
+ * for app.idempotency.ttl, retries with the same key get the stored response back (header Idempotent-Replayed) without
+ * executing the request again.
+ * - keys are scoped to the authenticated caller
+ * - a key reused with a different method, path or body is rejected (422); the body is hashed as serialized by Jackson,
+ *   so write-only fields (user passwords) are not part of it and never reach the stored hash
+ * - a retry arriving while the first request is still running is rejected (409), the client retries later
+ * - a request ending with an exception stores nothing, its retry is executed again
+ * Every call runs in its own transaction, the reservation is visible to the other instances before the request is executed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String ANONYMOUS_SCOPE = "anonymous";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param idempotencyKey value of the Idempotency-Key header, the action is simply executed when null
+     * @param operation method and path of the request, e.g. "POST /v1/participants"
+     * @param request request body, part of the request hash
+     * @param responseType type of the response body, to read back a stored response
+     * @param action request execution
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey,
+                                         String operation,
+                                         Object request,
+                                         TypeReference<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > idempotencyProperties.getMaxKeyLength()) {
+            throw new InvalidIdempotencyKeyException(IDEMPOTENCY_KEY_HEADER + " must be between 1 and "
+                    + idempotencyProperties.getMaxKeyLength() + " characters");
+        }
+
+        String scope = currentScope();
+        String requestHash = requestHash(operation, request);
+        IdempotencyRecord record = newRecord(scope, idempotencyKey, requestHash);
+        try {
+            record = idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord existing = idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, idempotencyKey)
+                    // purged in the meantime
+                    .orElseThrow(() -> new IdempotencyKeyInUseException("Request with the same " + IDEMPOTENCY_KEY_HEADER + " in progress"));
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            if (idempotencyRecordRepository.takeOver(existing.getId(), requestHash, now.plus(idempotencyProperties.getLockTimeout()),
+                    now.plus(idempotencyProperties.getTtl()), now) == 1) {
+                log.debug("Took over expired {} {} of {}", IDEMPOTENCY_KEY_HEADER, idempotencyKey, scope);
+                record = idempotencyRecordRepository.findById(existing.getId())
+                        .orElseThrow(() -> new IdempotencyKeyInUseException("Request with the same " + IDEMPOTENCY_KEY_HEADER + " in progress"));
+            } else {
+                return replay(existing, requestHash, operation, responseType);
+            }
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(record);
+            throw e;
+        }
+        complete(record, response);
+        return response;
+    }
+
+    /**
+     * Removes the records whose time to live has elapsed.
+     */
+    @Scheduled(initialDelayString = "${app.idempotency.purge-interval:15m}", fixedDelayString = "${app.idempotency.purge-interval:15m}")
+    public void purgeExpired() {
+        try {
+            int deleted = idempotencyRecordRepository.deleteExpired(OffsetDateTime.now(ZoneOffset.UTC));
+            if (deleted > 0) {
+                log.debug("Purged {} expired idempotency records", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to purge expired idempotency records: {}", e.getMessage());
+        }
+    }
+
+    private IdempotencyRecord newRecord(String scope, String idempotencyKey, String requestHash) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScope(scope);
+        record.setIdempotencyKey(idempotencyKey);
+        record.setRequestHash(requestHash);
+        record.setStatus(IdempotencyRecord.Status.IN_PROGRESS);
+        record.setLockedUntil(now.plus(idempotencyProperties.getLockTimeout()));
+        record.setExpiresAt(now.plus(idempotencyProperties.getTtl()));
+        return record;
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyRecord existing, String requestHash, String operation, TypeReference<T> responseType) {
+        if (!existing.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(IDEMPOTENCY_KEY_HEADER + " " + existing.getIdempotencyKey()
+                    + " already used for a different request");
+        }
+        if (existing.getStatus() != IdempotencyRecord.Status.COMPLETED) {
+            throw new IdempotencyKeyInUseException("Request with " + IDEMPOTENCY_KEY_HEADER + " "
+                    + existing.getIdempotencyKey() + " still in progress");
+        }
+        log.info("Replaying response of {} for {} {}", operation, IDEMPOTENCY_KEY_HEADER, existing.getIdempotencyKey());
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(existing.getResponseStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (existing.getLocation() != null) {
+            builder.location(URI.create(existing.getLocation()));
+        }
+        if (existing.getResponseBody() == null) {
+            return builder.build();
+        }
+        try {
+            return builder.body(objectMapper.readValue(existing.getResponseBody(), responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to read stored response of " + IDEMPOTENCY_KEY_HEADER + " "
+                    + existing.getIdempotencyKey(), e);
+        }
+    }
+
+    private void complete(IdempotencyRecord record, ResponseEntity<?> response) {
+        try {
+            if (response.getStatusCode().is5xxServerError()) {
+                // not an outcome worth replaying, the retry is executed again
+                idempotencyRecordRepository.delete(record);
+                return;
+            }
+            record.setStatus(IdempotencyRecord.Status.COMPLETED);
+            record.setResponseStatus(response.getStatusCode().value());
+            record.setResponseBody(response.hasBody() ? objectMapper.writeValueAsString(response.getBody()) : null);
+            URI location = response.getHeaders().getLocation();
+            record.setLocation(location != null ? location.toString() : null);
+            record.setLockedUntil(null);
+            idempotencyRecordRepository.save(record);
+        } catch (Exception e) {
+            // the request was executed, its response is still returned; a retry after the lock timeout executes it again
+            log.error("Unable to store response for {} {}: {}", IDEMPOTENCY_KEY_HEADER, record.getIdempotencyKey(), e.getMessage(), e);
+        }
+    }
+
+    private void release(IdempotencyRecord record) {
+        try {
+            idempotencyRecordRepository.delete(record);
+        } catch (Exception e) {
+            log.warn("Unable to release {} {}: {}", IDEMPOTENCY_KEY_HEADER, record.getIdempotencyKey(), e.getMessage());
+        }
+    }
+
+    private String requestHash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize request of " + operation, e);
+        }
+    }
+
+    private static String currentScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getName() != null ? authentication.getName() : ANONYMOUS_SCOPE;
+    }
+}
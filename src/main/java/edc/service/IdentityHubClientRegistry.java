@@ -0,0 +1,114 @@
+package edc.service;
+
+import edc.config.ExternalApiProperties;
+import edc.config.HttpClientProperties;
+import edc.service.resilience.CircuitBreaker;
+import edc.util.ExpiringCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * RestClients of the participant identityhubs, one per participant, with its base URL built once:
+ * - all share the identityhub HTTP client, so repeated calls to a participant reuse its idle
+ *   connections (and skip DNS resolution and TCP setup) for jdk.httpclient.keepalive.timeout
+ * - at most app.http-clients.identityhub-registry.maximum-size participants are kept, least recently used
+ *   first out, each for at most ttl
+ * - each participant identityhub has its own circuit breaker (external.api.credentials.circuit-breaker), so an
+ *   unreachable identityhub fails fast without affecting the others
+ * - calls are timed per host in identityhub.requests{host, outcome}; the meters go with the evicted client
+ * - a client is created once per participant, concurrent first calls wait for it; it is only built, the identityhub
+ *   is not called while creating it
+ */
+@Component
+@Slf4j
+public class IdentityHubClientRegistry {
+
+    private final RestClient identityHubRestClient;
+    private final ExternalApiProperties externalApiProperties;
+    private final MeterRegistry meterRegistry;
+    private final ExpiringCache<String, IdentityHubClient> clients;
+
+    public IdentityHubClientRegistry(RestClient identityHubRestClient,
+                                     ExternalApiProperties externalApiProperties,
+                                     HttpClientProperties httpClientProperties,
+                                     MeterRegistry meterRegistry) {
+        this.identityHubRestClient = identityHubRestClient;
+        this.externalApiProperties = externalApiProperties;
+        this.meterRegistry = meterRegistry;
+        HttpClientProperties.IdentityHubRegistry registry = httpClientProperties.getIdentityhubRegistry();
+        this.clients = new ExpiringCache<String, IdentityHubClient>(registry.getMaximumSize(), registry.getTtl(),
+                (participant, client) -> client.removeMeters(meterRegistry))
+                .registerMetrics(meterRegistry, "identityhub.clients");
+    }
+
+    /**
+     * @param normalizedParticipantName participant name already normalized for DNS use
+     */
+    public IdentityHubClient forParticipant(String normalizedParticipantName) {
+        // one client per participant: a second one would register its circuit breaker under the same meter id, the
+        // state gauge would stay bound to whichever breaker registered first
+        return clients.computeIfAbsent(normalizedParticipantName, this::create);
+    }
+
+    private IdentityHubClient create(String normalizedParticipantName) {
+        String baseUrl = externalApiProperties.getCredentials().getServiceUrlTemplate()
+                .replace("{participant}", normalizedParticipantName);
+        String host = hostOf(baseUrl);
+        log.debug("Creating identityhub client for participant {}: {}", normalizedParticipantName, baseUrl);
+        return new IdentityHubClient(baseUrl,
+                identityHubRestClient.mutate().baseUrl(baseUrl).build(),
+                requestTimer(host, "success").register(meterRegistry),
+                requestTimer(host, "failure").register(meterRegistry),
+                new CircuitBreaker("identityhub", Tags.of("host", host),
+                        externalApiProperties.getCredentials().getCircuitBreaker(),
+                        ExternalApiService::isDownstreamFailure, meterRegistry));
+    }
+
+    private static String hostOf(String baseUrl) {
+        int start = baseUrl.indexOf("://") + 3;
+        int end = baseUrl.indexOf('/', start);
+        return end < 0 ? baseUrl.substring(start) : baseUrl.substring(start, end);
+    }
+
+    private static Timer.Builder requestTimer(String host, String outcome) {
+        return Timer.builder("identityhub.requests")
+                .description("Identityhub calls per target host")
+                .tag("host", host)
+                .tag("outcome", outcome);
+    }
+
+    /**
+     * Identityhub of one participant.
+     */
+    public record IdentityHubClient(String baseUrl, RestClient restClient, Timer successTimer, Timer failureTimer,
+                                    CircuitBreaker circuitBreaker) {
+
+        /**
+         * Runs a call through the participant client and its circuit breaker, and times it.
+         */
+        public <T> T execute(Function<RestClient, T> call) {
+            long start = System.nanoTime();
+            try {
+                T result = circuitBreaker.execute(() -> call.apply(restClient));
+                successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (RuntimeException e) {
+                failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+
+        private void removeMeters(MeterRegistry meterRegistry) {
+            meterRegistry.remove(successTimer);
+            meterRegistry.remove(failureTimer);
+            circuitBreaker.removeMeters(meterRegistry);
+        }
+    }
+}
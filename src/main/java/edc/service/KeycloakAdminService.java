@@ -3,16 +3,17 @@ package edc.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import edc.config.KeycloakProperties;
 import edc.exception.KeycloakAdminException;
+import edc.util.ExpiringCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientResponseException;
 
-import java.time.LocalDateTime;
+import java.net.URI;
 import java.util.*;
 
 /**
@@ -22,6 +23,7 @@ import java.util.*;
  * - Creates Client Roles
  * - Creates User
  * - Sets user claims and protocol mapper for JWT
+ * - Caches realm/client role representations used for role mappings
  */
 @Slf4j
 @Service
@@ -29,12 +31,10 @@ public class KeycloakAdminService {
 
     private final RestClient restClient;
     private final KeycloakProperties keycloakProperties;
-
-    private String adminToken;
-    private LocalDateTime tokenExpiry;
+    private final KeycloakAdminTokenManager tokenManager;
+    private final ExpiringCache<RoleKey, RoleRepresentation> roleCache;
 
     // === API Keycloak ===
-    private static final String TOKEN_PATH = "/realms/master/protocol/openid-connect/token";
     private static final String REALMS_PATH = "/admin/realms";
     private static final String CLIENTS_PATH = "/admin/realms/{realm}/clients";
     private static final String CLIENT_QUERY_PATH = "/admin/realms/{realm}/clients?clientId={clientId}";
@@ -43,7 +43,7 @@ public class KeycloakAdminService {
     private static final String CLIENT_PROTOCOL_MAPPER_PATH = "/admin/realms/{realm}/clients/{clientId}/protocol-mappers/models";
     private static final String USERS_PATH = "/admin/realms/{realm}/users";
     private static final String USER_PROFILE_PATH = "/admin/realms/{realm}/users/profile";
-    private static final String USER_SEARCH_PATH = "/admin/realms/{realm}/users?username={username}";
+    private static final String USER_EXACT_SEARCH_PATH = "/admin/realms/{realm}/users?username={username}&exact=true";
     private static final String USER_ROLE_MAPPING_PATH =  "/admin/realms/{realm}/users/{userId}/role-mappings/clients/{clientId}";
     private static final String REALM_ROLE_BY_NAME_PATH = "/admin/realms/{realm}/roles/{role}";
     private static final String USER_REALM_ROLE_MAPPING_PATH = "/admin/realms/{realm}/users/{userId}/role-mappings/realm";
@@ -54,42 +54,31 @@ public class KeycloakAdminService {
     private static final List<Map<String, Object>> BASE_GROUPS = buildBaseGroups();
 
     public KeycloakAdminService(@Qualifier("keycloakRestClient") RestClient restClient,
-                                KeycloakProperties keycloakProperties) {
+                                KeycloakProperties keycloakProperties,
+                                KeycloakAdminTokenManager tokenManager,
+                                MeterRegistry meterRegistry) {
         this.restClient = restClient;
         this.keycloakProperties = keycloakProperties;
+        this.tokenManager = tokenManager;
+        this.roleCache = new ExpiringCache<RoleKey, RoleRepresentation>(
+                keycloakProperties.getRoleCache().getMaximumSize(),
+                keycloakProperties.getRoleCache().getTtl())
+                .registerMetrics(meterRegistry, "keycloak.role.cache");
     }
 
     /**
-     * Returns an admin token for the master realm, with temporal caching.
+     * Returns an admin token for the master realm, served from the token manager cache.
      */
     private String getAdminToken() {
-//        if (adminToken != null && tokenExpiry != null && LocalDateTime.now().isBefore(tokenExpiry)) {
-//            return adminToken;
-//        }
-        try {
-
-            MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
-            formData.add("grant_type", "password");
-            formData.add("client_id", "admin-cli");
-            formData.add("username", keycloakProperties.getAdmin().getUsername());
-            formData.add("password", keycloakProperties.getAdmin().getPassword());
-
-
-            JsonNode node = restClient.post()
-                    .uri(TOKEN_PATH)
-                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
-                    .body(formData)
-                    .retrieve()
-                    .body(JsonNode.class);
-
-            this.adminToken = node.get("access_token").asText();
-            int expiresIn = node.get("expires_in").asInt();
-            this.tokenExpiry = LocalDateTime.now().plusSeconds(expiresIn - 30);
-            return adminToken;
+        return tokenManager.getAccessToken();
+    }
 
-        } catch (RestClientResponseException e) {
-            log.error("Error obtaining admin token from Keycloak: {}", e.getResponseBodyAsString(), e);
-            throw new KeycloakAdminException("Unable to obtain admin token", e);
+    /**
+     * Drops the cached admin token when Keycloak rejected it, so the next call requests a new one.
+     */
+    private void invalidateTokenOnUnauthorized(RestClientResponseException e) {
+        if (e.getStatusCode().value() == HttpStatus.UNAUTHORIZED.value()) {
+            tokenManager.invalidate();
         }
     }
 
@@ -134,6 +123,7 @@ public class KeycloakAdminService {
                     realmName, clientId, username, claimKey);
 
         } catch (RestClientResponseException e) {
+            invalidateTokenOnUnauthorized(e);
             log.error("Keycloak error [{}]: {}", e.getRawStatusCode(), e.getResponseBodyAsString(), e);
             throw new KeycloakAdminException("Error creating realm/client/user", e);
         }
@@ -161,6 +151,7 @@ public class KeycloakAdminService {
                     realmName, username, realmRoles, claimKey, claimValue);
 
         } catch (RestClientResponseException e) {
+            invalidateTokenOnUnauthorized(e);
             log.error("Keycloak error [{}]: {}", e.getRawStatusCode(), e.getResponseBodyAsString(), e);
             throw new KeycloakAdminException("Error creating realm/client/user", e);
         }
@@ -174,7 +165,7 @@ public class KeycloakAdminService {
         try {
             // 1. Retrieve user
             JsonNode list = restClient.get()
-                    .uri(USER_SEARCH_PATH, realmName, username)
+                    .uri(USER_EXACT_SEARCH_PATH, realmName, username)
                     .header("Authorization", "Bearer " + getAdminToken())
                     .retrieve()
                     .body(JsonNode.class);
@@ -196,6 +187,7 @@ public class KeycloakAdminService {
             log.info("User [{}] deleted from realm [{}]", username, realmName);
 
         } catch (RestClientResponseException e) {
+            invalidateTokenOnUnauthorized(e);
             log.error("Error deleting user [{}] from realm [{}]: {}",
                     username, realmName, e.getResponseBodyAsString(), e);
             throw new KeycloakAdminException("Unable to delete user " + username, e);
@@ -427,22 +419,45 @@ public class KeycloakAdminService {
                 "temporary", false
         )));
 
-        restClient.post()
+        ResponseEntity<Void> response = restClient.post()
                 .uri(USERS_PATH, realmName)
                 .header("Authorization", "Bearer " + getAdminToken())
                 .body(user)
                 .retrieve()
                 .toBodilessEntity();
 
+        String userId = userIdFromLocation(response.getHeaders().getLocation());
+        if (userId == null) {
+            log.debug("No Location header in user creation response for {}, falling back to exact search", username);
+            userId = findUserIdByUsername(realmName, username);
+        }
+        log.info("User {} created (ID: {}) with claim {}={}", username, userId, claimKey, claimValue);
+        return userId;
+    }
+
+    /**
+     * Keycloak answers 201 with Location: .../users/{id}; returns that id, or null when the header is missing.
+     */
+    private static String userIdFromLocation(URI location) {
+        if (location == null || location.getPath() == null) {
+            return null;
+        }
+        String path = location.getPath();
+        String userId = path.substring(path.lastIndexOf('/') + 1);
+        return userId.isBlank() ? null : userId;
+    }
+
+    private String findUserIdByUsername(String realmName, String username) {
         JsonNode node = restClient.get()
-                .uri(USER_SEARCH_PATH, realmName, username)
+                .uri(USER_EXACT_SEARCH_PATH, realmName, username)
                 .header("Authorization", "Bearer " + getAdminToken())
                 .retrieve()
                 .body(JsonNode.class);
 
-        String userId = node.get(0).get("id").asText();
-        log.info("User {} created (ID: {}) with claim {}={}", username, userId, claimKey, claimValue);
-        return userId;
+        if (node == null || !node.isArray() || node.isEmpty()) {
+            throw new KeycloakAdminException("User " + username + " not found in realm " + realmName + " after creation");
+        }
+        return node.get(0).get("id").asText();
     }
 
     private void assignClientRolesToUser(String realmName,
@@ -450,23 +465,19 @@ public class KeycloakAdminService {
                                          String userId,
                                          List<String> roles) {
 
-        List<Map<String, String>> roleReps = new ArrayList<>();
-        for (String role : roles) {
-            JsonNode r = restClient.get()
-                    .uri(CLIENT_ROLE_BY_NAME_PATH, realmName, clientUuid, role)
-                    .header("Authorization", "Bearer " + getAdminToken())
-                    .retrieve()
-                    .body(JsonNode.class);
-            roleReps.add(Map.of("id", r.get("id").asText(), "name", r.get("name").asText()));
+        List<Map<String, String>> roleReps = resolveRoles(realmName, clientUuid, roles);
+        try {
+            postClientRoleMapping(realmName, clientUuid, userId, roleReps);
+        } catch (RestClientResponseException e) {
+            if (!isStaleRoleError(e)) {
+                throw e;
+            }
+            log.info("Client role mapping for user {} rejected [{}], reloading roles {} from Keycloak",
+                    userId, e.getStatusCode().value(), roles);
+            invalidateRoles(realmName, clientUuid, roles);
+            postClientRoleMapping(realmName, clientUuid, userId, resolveRoles(realmName, clientUuid, roles));
         }
 
-        restClient.post()
-                .uri(USER_ROLE_MAPPING_PATH, realmName, userId, clientUuid)
-                .header("Authorization", "Bearer " + getAdminToken())
-                .body(roleReps)
-                .retrieve()
-                .toBodilessEntity();
-
         log.info("Assigned roles {} to user {}", roles, userId);
     }
 
@@ -474,23 +485,90 @@ public class KeycloakAdminService {
                                         String userId,
                                         List<String> realmRoles) {
 
-        List<Map<String, String>> roleReps = new ArrayList<>();
-        for (String role : realmRoles) {
-            JsonNode r = restClient.get()
-                    .uri(REALM_ROLE_BY_NAME_PATH, realmName, role)
-                    .header("Authorization", "Bearer " + getAdminToken())
-                    .retrieve()
-                    .body(JsonNode.class);
-            roleReps.add(Map.of("id", r.get("id").asText(), "name", r.get("name").asText()));
+        List<Map<String, String>> roleReps = resolveRoles(realmName, null, realmRoles);
+        try {
+            postRealmRoleMapping(realmName, userId, roleReps);
+        } catch (RestClientResponseException e) {
+            if (!isStaleRoleError(e)) {
+                throw e;
+            }
+            log.info("Realm role mapping for user {} rejected [{}], reloading roles {} from Keycloak",
+                    userId, e.getStatusCode().value(), realmRoles);
+            invalidateRoles(realmName, null, realmRoles);
+            postRealmRoleMapping(realmName, userId, resolveRoles(realmName, null, realmRoles));
         }
 
+        log.info("Assigned roles {} to user {}", realmRoles, userId);
+    }
+
+    private void postClientRoleMapping(String realmName, String clientUuid, String userId, List<Map<String, String>> roleReps) {
+        restClient.post()
+                .uri(USER_ROLE_MAPPING_PATH, realmName, userId, clientUuid)
+                .header("Authorization", "Bearer " + getAdminToken())
+                .body(roleReps)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private void postRealmRoleMapping(String realmName, String userId, List<Map<String, String>> roleReps) {
         restClient.post()
                 .uri(USER_REALM_ROLE_MAPPING_PATH, realmName, userId)
                 .header("Authorization", "Bearer " + getAdminToken())
                 .body(roleReps)
                 .retrieve()
                 .toBodilessEntity();
+    }
 
-        log.info("Assigned roles {} to user {}", realmRoles, userId);
+    /**
+     * Returns the role representations (id, name) for the given role names, reading them from the role cache
+     * and fetching only the missing ones from Keycloak. A null clientUuid means realm roles.
+     */
+    private List<Map<String, String>> resolveRoles(String realmName, String clientUuid, List<String> roles) {
+        List<Map<String, String>> roleReps = new ArrayList<>();
+        for (String role : roles) {
+            RoleRepresentation representation = roleCache.get(new RoleKey(realmName, clientUuid, role), this::fetchRole);
+            roleReps.add(Map.of("id", representation.id(), "name", representation.name()));
+        }
+        return roleReps;
+    }
+
+    private RoleRepresentation fetchRole(RoleKey key) {
+        JsonNode r;
+        if (key.clientUuid() == null) {
+            r = restClient.get()
+                    .uri(REALM_ROLE_BY_NAME_PATH, key.realm(), key.roleName())
+                    .header("Authorization", "Bearer " + getAdminToken())
+                    .retrieve()
+                    .body(JsonNode.class);
+        } else {
+            r = restClient.get()
+                    .uri(CLIENT_ROLE_BY_NAME_PATH, key.realm(), key.clientUuid(), key.roleName())
+                    .header("Authorization", "Bearer " + getAdminToken())
+                    .retrieve()
+                    .body(JsonNode.class);
+        }
+        log.debug("Loaded role {} (realm {}, client {}) into role cache", key.roleName(), key.realm(), key.clientUuid());
+        return new RoleRepresentation(r.get("id").asText(), r.get("name").asText());
+    }
+
+    private void invalidateRoles(String realmName, String clientUuid, List<String> roles) {
+        roles.forEach(role -> roleCache.invalidate(new RoleKey(realmName, clientUuid, role)));
+    }
+
+    /**
+     * Keycloak answers 404 (or 400) to a role-mapping POST that references a role id which no longer exists.
+     */
+    private static boolean isStaleRoleError(RestClientResponseException e) {
+        int status = e.getStatusCode().value();
+        return status == HttpStatus.NOT_FOUND.value() || status == HttpStatus.BAD_REQUEST.value();
+    }
+
+    /**
+     * Role cache key; clientUuid is null for realm roles.
+     */
+    private record RoleKey(String realm, String clientUuid, String roleName) {
+    }
+
+    private record RoleRepresentation(String id, String name) {
     }
 }
@@ -0,0 +1,238 @@
+package edc.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import edc.config.KeycloakProperties;
+import edc.exception.KeycloakAdminException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keycloak admin token manager for the master realm:
+ * - Serves the cached access token while it is valid
+ * - Refreshes it in the background before expires_in (refresh_token grant)
+ * - Falls back to the password grant when no usable refresh token is left
+ * - Lets only one refresh run at a time under concurrent load
+ * - Exposes hit/miss/refresh counters through Micrometer (actuator metrics)
+ */
+@Slf4j
+@Component
+public class KeycloakAdminTokenManager {
+
+    private static final String TOKEN_PATH = "/realms/master/protocol/openid-connect/token";
+    private static final String ADMIN_CLIENT_ID = "admin-cli";
+
+    // background refresh fires once this share of the token validity has elapsed
+    private static final double REFRESH_AHEAD_RATIO = 0.75;
+    private static final Duration MIN_REFRESH_DELAY = Duration.ofSeconds(1);
+
+    private final RestClient restClient;
+    private final KeycloakProperties keycloakProperties;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final ScheduledExecutorService refreshScheduler;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter passwordGrants;
+    private final Counter refreshTokenGrants;
+    private final Counter refreshFailures;
+
+    private volatile AdminToken currentToken;
+
+    // guarded by refreshLock
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public KeycloakAdminTokenManager(@Qualifier("keycloakRestClient") RestClient restClient,
+                                     KeycloakProperties keycloakProperties,
+                                     MeterRegistry meterRegistry) {
+        this.restClient = restClient;
+        this.keycloakProperties = keycloakProperties;
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "keycloak-admin-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.cacheHits = Counter.builder("keycloak.admin.token.requests")
+                .description("Admin token lookups served from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("keycloak.admin.token.requests")
+                .description("Admin token lookups that required a synchronous token request")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.passwordGrants = Counter.builder("keycloak.admin.token.refresh")
+                .description("Admin token requests sent to Keycloak")
+                .tag("grant", "password")
+                .register(meterRegistry);
+        this.refreshTokenGrants = Counter.builder("keycloak.admin.token.refresh")
+                .description("Admin token requests sent to Keycloak")
+                .tag("grant", "refresh_token")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("keycloak.admin.token.refresh.failures")
+                .description("Failed background admin token refreshes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a valid admin access token, requesting a new one only when the cached token is missing or expired.
+     */
+    public String getAccessToken() {
+        AdminToken token = currentToken;
+        if (token != null && token.isUsableAt(Instant.now())) {
+            cacheHits.increment();
+            return token.accessToken();
+        }
+        cacheMisses.increment();
+        return refresh(false).accessToken();
+    }
+
+    /**
+     * Drops the cached token, e.g. after Keycloak rejected it with 401.
+     */
+    public void invalidate() {
+        currentToken = null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshScheduler.shutdownNow();
+    }
+
+    private AdminToken refresh(boolean force) {
+        refreshLock.lock();
+        try {
+            AdminToken token = currentToken;
+            // another thread may have refreshed the token while this one was waiting for the lock
+            if (!force && token != null && token.isUsableAt(Instant.now())) {
+                return token;
+            }
+
+            AdminToken freshToken = requestToken(token);
+            currentToken = freshToken;
+            scheduleRefresh(freshToken);
+            return freshToken;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void backgroundRefresh() {
+        try {
+            refresh(true);
+            log.debug("Keycloak admin token refreshed in background");
+        } catch (Exception e) {
+            // the cached token stays in use until it expires, then callers fetch a new one synchronously
+            refreshFailures.increment();
+            log.warn("Background refresh of Keycloak admin token failed: {}", e.getMessage());
+        }
+    }
+
+    private void scheduleRefresh(AdminToken token) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        Duration validity = Duration.between(token.issuedAt(), token.usableUntil());
+        long delayMillis = Math.max(MIN_REFRESH_DELAY.toMillis(), (long) (validity.toMillis() * REFRESH_AHEAD_RATIO));
+        scheduledRefresh = refreshScheduler.schedule(this::backgroundRefresh, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private AdminToken requestToken(AdminToken previous) {
+        if (previous != null && previous.hasUsableRefreshTokenAt(Instant.now())) {
+            try {
+                MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
+                formData.add("grant_type", "refresh_token");
+                formData.add("client_id", ADMIN_CLIENT_ID);
+                formData.add("refresh_token", previous.refreshToken());
+
+                AdminToken token = postTokenRequest(formData);
+                refreshTokenGrants.increment();
+                return token;
+            } catch (RestClientException | KeycloakAdminException e) {
+                log.debug("Refresh token grant rejected by Keycloak, falling back to password grant: {}", e.getMessage());
+            }
+        }
+
+        try {
+            MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
+            formData.add("grant_type", "password");
+            formData.add("client_id", ADMIN_CLIENT_ID);
+            formData.add("username", keycloakProperties.getAdmin().getUsername());
+            formData.add("password", keycloakProperties.getAdmin().getPassword());
+
+            AdminToken token = postTokenRequest(formData);
+            passwordGrants.increment();
+            return token;
+        } catch (RestClientResponseException e) {
+            log.error("Error obtaining admin token from Keycloak: {}", e.getResponseBodyAsString(), e);
+            throw new KeycloakAdminException("Unable to obtain admin token", e);
+        }
+    }
+
+    private AdminToken postTokenRequest(MultiValueMap<String, String> formData) {
+        JsonNode node = restClient.post()
+                .uri(TOKEN_PATH)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(formData)
+                .retrieve()
+                .body(JsonNode.class);
+
+        if (node == null || !node.hasNonNull("access_token")) {
+            throw new KeycloakAdminException("Keycloak token response does not contain an access token");
+        }
+
+        Instant issuedAt = Instant.now();
+        Duration skew = keycloakProperties.getAdmin().getTokenRefreshSkew();
+        Duration expiresIn = Duration.ofSeconds(node.path("expires_in").asLong());
+        Duration refreshExpiresIn = Duration.ofSeconds(node.path("refresh_expires_in").asLong());
+
+        return new AdminToken(
+                node.get("access_token").asText(),
+                node.hasNonNull("refresh_token") ? node.get("refresh_token").asText() : null,
+                issuedAt,
+                issuedAt.plus(usableWindow(expiresIn, skew)),
+                refreshExpiresIn.isZero() ? null : issuedAt.plus(usableWindow(refreshExpiresIn, skew)));
+    }
+
+    /**
+     * Shortens a Keycloak lifespan by the configured skew, keeping at least half of it for very short lifespans.
+     */
+    private static Duration usableWindow(Duration lifespan, Duration skew) {
+        Duration window = lifespan.minus(skew);
+        Duration half = lifespan.dividedBy(2);
+        return window.compareTo(half) < 0 ? half : window;
+    }
+
+    private record AdminToken(String accessToken,
+                              String refreshToken,
+                              Instant issuedAt,
+                              Instant usableUntil,
+                              Instant refreshUsableUntil) {
+
+        boolean isUsableAt(Instant now) {
+            return now.isBefore(usableUntil);
+        }
+
+        boolean hasUsableRefreshTokenAt(Instant now) {
+            return refreshToken != null && refreshUsableUntil != null && now.isBefore(refreshUsableUntil);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package edc.service;
+
+import edc.config.OperationEventsProperties;
+import edc.entity.JsonConverter;
+import edc.entity.Operation;
+import edc.entity.UuidBinaryConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes provisioning operations with JDBC batch inserts, without loading the participant (only its id is needed).
+ * - default: inserted right away, in the transaction of the state change they belong to
+ * - app.operation-events.write-behind: queued once that transaction commits and inserted by a background writer, in
+ *   batches of app.operation-events.batch-size or every app.operation-events.flush-interval. The queue is bounded:
+ *   when full the caller waits up to enqueue-timeout, then inserts its operations itself. The queue is flushed on
+ *   shutdown; operations still queued when the process dies are lost, the participant state is not affected.
+ *   A batch whose insert fails is inserted again one operation at a time, the operations still failing are logged
+ *   as lost and counted in operations.events.failed.
+ * Metrics: operations.events.queued, operations.events.written, operations.events.failed, operations.events.flush
+ */
+@Component
+@Slf4j
+public class OperationEventWriter implements SmartLifecycle {
+
+    private static final String INSERT_SQL = "INSERT INTO provisioning_operations " +
+            "(external_id, participant_id, event_type, event_payload, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final JsonConverter JSON_CONVERTER = new JsonConverter();
+    private static final UuidBinaryConverter UUID_CONVERTER = new UuidBinaryConverter();
+
+    private final OperationEventsProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate requiresNew;
+    private final BlockingQueue<OperationEvent> queue;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public OperationEventWriter(OperationEventsProperties properties,
+                                JdbcTemplate jdbcTemplate,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("operations.events.queued", queue, BlockingQueue::size)
+                .description("Operations waiting to be written")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("operations.events.written")
+                .description("Operations inserted")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("operations.events.failed")
+                .description("Queued operations lost because their insert failed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("operations.events.flush")
+                .description("Batch insert time of the queued operations")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param events operations of participants already saved
+     */
+    public void write(List<OperationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!properties.isWriteBehind()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // participants with pooled ids are inserted at flush time, the operations reference them
+                entityManager.flush();
+            }
+            insert(events);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // nothing is recorded for a state change that is rolled back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(events);
+                }
+            });
+        } else {
+            enqueue(events);
+        }
+    }
+
+    private void enqueue(List<OperationEvent> events) {
+        List<OperationEvent> rejected = new ArrayList<>();
+        boolean interrupted = false;
+        for (OperationEvent event : events) {
+            if (interrupted || !running) {
+                rejected.add(event);
+                continue;
+            }
+            try {
+                if (!queue.offer(event, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                    rejected.add(event);
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                rejected.add(event);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (!rejected.isEmpty()) {
+            log.debug("Operation queue full or stopped, inserting {} operations synchronously", rejected.size());
+            // may run in afterCommit, where the committed transaction is still bound to the thread
+            requiresNew.executeWithoutResult(status -> insert(rejected));
+        }
+    }
+
+    private void insert(List<OperationEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, properties.getBatchSize(), (ps, event) -> {
+            LocalDateTime createdAt = event.createdAt().withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+            ps.setBytes(1, UUID_CONVERTER.convertToDatabaseColumn(event.externalId()));
+            ps.setInt(2, event.participantId());
+            ps.setString(3, event.eventType().name());
+            ps.setString(4, JSON_CONVERTER.convertToDatabaseColumn(event.eventPayload()));
+            ps.setObject(5, createdAt);
+            ps.setObject(6, createdAt);
+        });
+        writtenCounter.increment(events.size());
+    }
+
+    private void drain() {
+        List<OperationEvent> batch = new ArrayList<>(properties.getBatchSize());
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        while (running || !queue.isEmpty()) {
+            try {
+                OperationEvent first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (running && batch.size() < properties.getBatchSize()) {
+                    OperationEvent next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // shutdown timeout elapsed, the current batch is still written
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                flush(batch);
+                return;
+            }
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<OperationEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flushTimer.record(() -> requiresNew.executeWithoutResult(status -> insert(batch)));
+            log.trace("Inserted {} queued operations", batch.size());
+        } catch (Exception e) {
+            log.warn("Unable to insert {} queued operations, inserting them one by one: {}", batch.size(), e.getMessage());
+            flushOneByOne(batch);
+        }
+    }
+
+    /**
+     * A single bad row fails the whole batch; inserted one by one, only that row is lost.
+     */
+    private void flushOneByOne(List<OperationEvent> batch) {
+        for (OperationEvent event : batch) {
+            try {
+                requiresNew.executeWithoutResult(status -> insert(List.of(event)));
+            } catch (Exception e) {
+                failedCounter.increment();
+                // everything needed to insert it again by hand
+                log.error("Lost operation {} {} of participant {} created at {} with payload {}: {}", event.externalId(),
+                        event.eventType(), event.participantId(), event.createdAt(),
+                        JSON_CONVERTER.convertToDatabaseColumn(event.eventPayload()), e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isWriteBehind()) {
+            return;
+        }
+        running = true;
+        writerThread = Thread.ofPlatform().name("operation-events-writer").daemon().start(this::drain);
+        log.info("Operation write-behind enabled, batch size {} flush interval {}",
+                properties.getBatchSize(), properties.getFlushInterval());
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = writerThread;
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(properties.getShutdownTimeout().toMillis());
+            if (thread.isAlive()) {
+                log.warn("Operation writer still busy after {}, interrupting it with {} operations queued",
+                        properties.getShutdownTimeout(), queue.size());
+                thread.interrupt();
+                thread.join(properties.getShutdownTimeout().toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writerThread != null;
+    }
+
+    /**
+     * Stopped after the web server, so that the operations of the last requests are written.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * @param participantId database id of the participant
+     */
+    public record OperationEvent(String externalId,
+                                 Integer participantId,
+                                 Operation.EventType eventType,
+                                 Map<String, Object> eventPayload,
+                                 OffsetDateTime createdAt) {
+    }
+}
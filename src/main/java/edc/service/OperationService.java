@@ -4,19 +4,23 @@ import edc.dto.OperationResponse;
 import edc.entity.Operation;
 import edc.entity.Participant;
 import edc.entity.ParticipantUser;
+import edc.entity.projection.OperationDto;
 import edc.exception.ParticipantNotFoundException;
 import edc.repository.OperationRepository;
 import edc.repository.ParticipantRepository;
+import edc.util.Cursor;
+import edc.util.PageQuery;
+import edc.util.PageResult;
+import edc.util.UuidV7;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,108 +31,146 @@ public class OperationService {
 
     private final OperationRepository operationRepository;
     private final ParticipantRepository participantRepository;
-
-    public Page<OperationResponse> findOperationsByParticipantExternalId(String participantExternalId,
-                                                             Operation.EventType eventType, 
-                                                             Pageable pageable) {
+    private final TotalCountService totalCountService;
+    private final TenantResolver tenantResolver;
+    private final OperationEventWriter operationEventWriter;
+
+    @Transactional(readOnly = true)
+    public PageResult<OperationResponse> findOperationsByParticipantExternalId(String participantExternalId,
+                                                             Operation.EventType eventType,
+                                                             PageQuery pageQuery) {
         Participant participant = participantRepository.findByExternalId(participantExternalId)
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantExternalId));
 
-        Page<Operation> operations = operationRepository.findByParticipantAndEventType(participant, eventType, pageable);
-        return operations.map(this::convertToResponse);
+        return findOperations(participant, eventType, pageQuery);
     }
 
-    public Page<OperationResponse> findOperationsByParticipantExternalIdAndTenantName(String participantExternalId,
+    @Transactional(readOnly = true)
+    public PageResult<OperationResponse> findOperationsByParticipantExternalIdAndTenantName(String participantExternalId,
                                                                          String tenantName,
                                                                          Operation.EventType eventType,
-                                                                         Pageable pageable) {
-        Participant participant = participantRepository.findByExternalIdAndTenantName(participantExternalId, tenantName)
+                                                                         PageQuery pageQuery) {
+        Participant participant = tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantId(participantExternalId, tenantId))
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantExternalId));
 
-        Page<Operation> operations = operationRepository.findByParticipantAndEventType(participant, eventType, pageable);
-        return operations.map(this::convertToResponse);
+        return findOperations(participant, eventType, pageQuery);
     }
 
-    public Page<OperationResponse> findOperationsByParticipantExternalIdAndTenantNameAndUserName(String participantName,
+    @Transactional(readOnly = true)
+    public PageResult<OperationResponse> findOperationsByParticipantExternalIdAndTenantNameAndUserName(String participantName,
                                                                                                 String tenantName,
                                                                                                  String userName,
                                                                                                  Operation.EventType eventType,
-                                                                                                 Pageable pageable) {
-        Participant participant = participantRepository.findByExternalIdAndTenantNameAndUserName(participantName, tenantName, userName, List.of(ParticipantUser.Status.ACTIVE,
-                                                                                                                                                ParticipantUser.Status.DELETE_IN_PROGRESS))
+                                                                                                 PageQuery pageQuery) {
+        Participant participant = tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantIdAndUserName(participantName, tenantId, userName, List.of(ParticipantUser.Status.ACTIVE,
+                                                                                                                                                ParticipantUser.Status.DELETE_IN_PROGRESS)))
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with name: " + participantName +
                         ", tenant: " + tenantName + ", user: " + userName));
 
-        Page<Operation> operations = operationRepository.findByParticipantAndEventType(participant, eventType, pageable);
+        return findOperations(participant, eventType, pageQuery);
+    }
+
+    private PageResult<OperationResponse> findOperations(Participant participant, Operation.EventType eventType, PageQuery pageQuery) {
+        if (pageQuery.keyset()) {
+            Cursor cursor = pageQuery.after();
+            OffsetDateTime createdAt = cursor != null ? cursor.createdAt() : null;
+            Integer id = cursor != null ? cursor.id() : null;
+            List<OperationDto> operations = pageQuery.direction().isAscending()
+                    ? operationRepository.findByParticipantAndEventTypeAfter(participant, eventType, createdAt, id, pageQuery.keysetPageable())
+                    : operationRepository.findByParticipantAndEventTypeBefore(participant, eventType, createdAt, id, pageQuery.keysetPageable());
+            return PageResult.keyset(operations, pageQuery).map(this::convertToResponse);
+        }
+        PageResult<OperationDto> operations = totalCountService.findPage(pageQuery.totalMode(), pageQuery.pageable(),
+                TotalCountService.CountKey.of("operations", participant.getId(), eventType),
+                p -> operationRepository.findByParticipantAndEventType(participant, eventType, p),
+                p -> operationRepository.findSliceByParticipantAndEventType(participant, eventType, p));
         return operations.map(this::convertToResponse);
     }
 
+    @Transactional(readOnly = true)
     public List<OperationResponse> findLatestOperationsByParticipant(String participantId, int limit) {
         Participant participant = participantRepository.findByExternalId(participantId)
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantId));
 
         Pageable pageable = Pageable.ofSize(limit);
-        List<Operation> operations = operationRepository.findLatestByParticipant(participant, pageable);
+        List<OperationDto> operations = operationRepository.findLatestByParticipant(participant, pageable);
         
         return operations.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
 
-    public OperationResponse createOperation(String participantId, Operation.EventType eventType, Map<String, Object> eventPayload) {
-        Participant participant = participantRepository.findByExternalId(participantId)
-                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantId));
-
-        Operation operation = new Operation();
-        operation.setExternalId(UUID.randomUUID().toString());
-        operation.setParticipant(participant);
-        operation.setEventType(eventType);
-        operation.setEventPayload(eventPayload);
+    /**
+     * Records an operation of a participant the caller already holds, without reloading it.
+     */
+    public void createOperation(Participant participant, Operation.EventType eventType, Map<String, Object> eventPayload) {
+        createOperation(participant.getId(), eventType, eventPayload);
+        log.info("Created operation {} for participant: {}", eventType, participant.getExternalId());
+    }
 
-        Operation savedOperation = operationRepository.save(operation);
+    /**
+     * @param participantId database id of the participant
+     */
+    public void createOperation(Integer participantId, Operation.EventType eventType, Map<String, Object> eventPayload) {
+        operationEventWriter.write(List.of(newEvent(participantId, eventType, eventPayload)));
+    }
 
-        log.info("Created operation {} for participant: {}", eventType, participantId);
-        return convertToResponse(savedOperation);
+    public void createProvisionStartedOperation(Participant participant) {
+        createOperation(participant, Operation.EventType.PROVISION_STARTED, Map.of("message", "Provisioning started"));
     }
 
-    public OperationResponse createProvisionStartedOperation(String participantId) {
-        return createOperation(participantId, Operation.EventType.PROVISION_STARTED, Map.of("message", "Provisioning started"));
+    /**
+     * Records PROVISION_STARTED for several participants with a single batch insert.
+     */
+    public void createProvisionStartedOperations(List<Participant> participants) {
+        operationEventWriter.write(participants.stream()
+                .map(participant -> newEvent(participant.getId(), Operation.EventType.PROVISION_STARTED,
+                        Map.of("message", "Provisioning started")))
+                .toList());
+        log.info("Created {} {} operations", participants.size(), Operation.EventType.PROVISION_STARTED);
     }
 
-    public OperationResponse createProvisionCompletedOperation(String participantId, String did, String host) {
+    public void createProvisionCompletedOperation(Participant participant) {
         Map<String, Object> payload = Map.of(
             "message", "Provisioning completed",
-            "did", did,
-            "host", host
+            "did", participant.getDid(),
+            "host", participant.getHost()
         );
-        return createOperation(participantId, Operation.EventType.PROVISION_COMPLETED, payload);
+        createOperation(participant, Operation.EventType.PROVISION_COMPLETED, payload);
     }
 
-    public OperationResponse createProvisionFailedOperation(String participantId, String errorMessage) {
+    public void createProvisionFailedOperation(Participant participant, String errorMessage) {
         Map<String, Object> payload = Map.of(
             "message", "Provisioning failed",
             "error", errorMessage
         );
-        return createOperation(participantId, Operation.EventType.PROVISION_FAILED, payload);
+        createOperation(participant, Operation.EventType.PROVISION_FAILED, payload);
     }
 
-    public OperationResponse createDeprovisionStartedOperation(String participantId) {
-        return createOperation(participantId, Operation.EventType.DEPROVISION_STARTED, Map.of("message", "Deprovisioning started"));
+    public void createDeprovisionStartedOperation(Participant participant) {
+        createOperation(participant, Operation.EventType.DEPROVISION_STARTED, Map.of("message", "Deprovisioning started"));
     }
 
-    public OperationResponse createDeprovisionCompletedOperation(String participantId) {
-        return createOperation(participantId, Operation.EventType.DEPROVISION_COMPLETED, Map.of("message", "Deprovisioning completed"));
+    public void createDeprovisionCompletedOperation(Participant participant) {
+        createOperation(participant, Operation.EventType.DEPROVISION_COMPLETED, Map.of("message", "Deprovisioning completed"));
     }
 
-    public OperationResponse createDeprovisionFailedOperation(String participantId, String errorMessage) {
+    public void createDeprovisionFailedOperation(Participant participant, String errorMessage) {
         Map<String, Object> payload = Map.of(
             "message", "Deprovisioning failed",
             "error", errorMessage
         );
-        return createOperation(participantId, Operation.EventType.DEPROVISION_FAILED, payload);
+        createOperation(participant, Operation.EventType.DEPROVISION_FAILED, payload);
+    }
+
+    private OperationEventWriter.OperationEvent newEvent(Integer participantId, Operation.EventType eventType, Map<String, Object> eventPayload) {
+        return new OperationEventWriter.OperationEvent(UuidV7.randomUUID().toString(), participantId, eventType, eventPayload,
+                OffsetDateTime.now());
     }
 
-    private OperationResponse convertToResponse(Operation operation) {
+    private OperationResponse convertToResponse(OperationDto operation) {
         OperationResponse response = new OperationResponse();
         response.setId(operation.getExternalId());
         response.setEventType(operation.getEventType());
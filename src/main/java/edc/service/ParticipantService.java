@@ -1,7 +1,6 @@
 package edc.service;
 
-import edc.config.KeycloakProperties;
-import edc.config.security.roles.RoleConfig;
+import edc.dto.ParticipantBatchResponse;
 import edc.dto.ParticipantMeResponse;
 import edc.dto.ParticipantRequest;
 import edc.dto.ParticipantResponse;
@@ -9,30 +8,40 @@ import edc.dto.ParticipantUpdateRequest;
 import edc.entity.Operation;
 import edc.entity.Participant;
 import edc.entity.ParticipantUser;
-import edc.entity.Tenant;
 import edc.repository.ParticipantRepository;
 import edc.repository.ParticipantUserRepository;
-import edc.repository.TenantRepository;
+import edc.entity.projection.ParticipantDto;
 import edc.entity.projection.ParticipantMeDto;
+import edc.entity.projection.TenantRef;
 import edc.exception.ParticipantConflictException;
 import edc.exception.ParticipantNotFoundException;
+import edc.service.outbox.OutboxService;
+import edc.service.provisioning.ParticipantProvisioningRequestedEvent;
+import edc.util.Cursor;
 import edc.util.EdcUtils;
+import edc.util.PageQuery;
+import edc.util.PageResult;
 import edc.util.PageUtils;
+import edc.util.UuidV7;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -41,41 +50,84 @@ import java.util.UUID;
 public class ParticipantService {
 
     private final ParticipantRepository participantRepository;
-    private final TenantRepository tenantRepository;
     private final ExternalApiService externalApiService;
     private final OperationService operationService;
-    private final KeycloakAdminService keycloakAdminService;
-    private final KeycloakProperties keycloakProperties;
-    private final RoleConfig roleConfig;
     private final ParticipantUserRepository participantUserRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final TotalCountService totalCountService;
+    private final TenantResolver tenantResolver;
+    private final Validator validator;
 
 
-    @Value("${app.security.realmName:edc}")
-    public String realmName;
 
-    BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-
-
-    public Page<ParticipantResponse> findAllParticipants(Optional<String> tenantName,
+    @Transactional(readOnly = true)
+    public PageResult<ParticipantResponse> findAllParticipants(Optional<String> tenantName,
                                                          Participant.CurrentOperation currentOperation,
                                                          String participantName,
-                                                         Integer limit,
-                                                         Integer page,
+                                                         PageQuery pageQuery,
                                                          List<String> orderBy,
                                                          String order) {
 
-        final Pageable pageable = PageUtils.getPageable(limit, page, orderBy, Sort.Direction.valueOf(order));
+        Sort.Direction direction = Sort.Direction.valueOf(order);
+        boolean allTenants = tenantName.isEmpty() || tenantName.get().isBlank();
+        Integer tenantId = null;
+        if (!allTenants) {
+            Optional<Integer> activeTenantId = tenantResolver.findActiveTenantId(tenantName.get());
+            if (activeTenantId.isEmpty()) {
+                return PageResult.empty(pageQuery);
+            }
+            tenantId = activeTenantId.get();
+        }
+        if (pageQuery.keyset()) {
+            return findParticipantsAfter(tenantId, currentOperation, participantName, pageQuery);
+        }
+
+        final Pageable pageable = PageUtils.getPageable(pageQuery.limit(), pageQuery.page(), orderBy, direction);
 
         String currentOperationValue = currentOperation != null ? currentOperation.getValue() : null;
-        Page<Participant> participants;
-        if (tenantName.isEmpty() || tenantName.get().isBlank()) {
-            participants = participantRepository.findByFilters(currentOperationValue, participantName, pageable);
+        PageResult<ParticipantDto> participants;
+        if (allTenants) {
+            participants = totalCountService.findPage(pageQuery.totalMode(), pageable,
+                    TotalCountService.CountKey.of("participants", currentOperationValue, participantName),
+                    p -> participantRepository.findByFilters(currentOperation, participantName, p),
+                    p -> participantRepository.findSliceByFilters(currentOperation, participantName, p));
         } else {
-            participants = participantRepository.findByFiltersAndTenantName(tenantName.get(), currentOperationValue, participantName, pageable);
+            Integer scopedTenantId = tenantId;
+            participants = totalCountService.findPage(pageQuery.totalMode(), pageable,
+                    TotalCountService.CountKey.of("participants", scopedTenantId, currentOperationValue, participantName),
+                    p -> participantRepository.findByFiltersAndTenantId(scopedTenantId, currentOperation, participantName, p),
+                    p -> participantRepository.findSliceByFiltersAndTenantId(scopedTenantId, currentOperation, participantName, p));
         }
         return participants.map(this::convertToResponse);
     }
 
+    /**
+     * Keyset page ordered by (created_at, id) in the direction of the page query; orderBy does not apply in this mode.
+     */
+    private PageResult<ParticipantResponse> findParticipantsAfter(Integer tenantId,
+                                                                  Participant.CurrentOperation currentOperation,
+                                                                  String participantName,
+                                                                  PageQuery pageQuery) {
+        Sort.Direction direction = pageQuery.direction();
+        Cursor cursor = pageQuery.after();
+        OffsetDateTime createdAt = cursor != null ? cursor.createdAt() : null;
+        Integer id = cursor != null ? cursor.id() : null;
+        Pageable pageable = pageQuery.keysetPageable();
+
+        List<ParticipantDto> participants;
+        if (tenantId == null) {
+            participants = direction.isAscending()
+                    ? participantRepository.findByFiltersAfter(currentOperation, participantName, createdAt, id, pageable)
+                    : participantRepository.findByFiltersBefore(currentOperation, participantName, createdAt, id, pageable);
+        } else {
+            participants = direction.isAscending()
+                    ? participantRepository.findByFiltersAndTenantIdAfter(tenantId, currentOperation, participantName, createdAt, id, pageable)
+                    : participantRepository.findByFiltersAndTenantIdBefore(tenantId, currentOperation, participantName, createdAt, id, pageable);
+        }
+        return PageResult.keyset(participants, pageQuery).map(this::convertToResponse);
+    }
+
     public ParticipantResponse findParticipantByExternalId(String externalId) {
         Participant participant = participantRepository.findByExternalId(externalId)
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId));
@@ -83,14 +135,16 @@ public class ParticipantService {
     }
 
     public ParticipantResponse findParticipantByExternalIdAndTenantName(String externalId, String tenantName) {
-        Participant participant = participantRepository.findByExternalIdAndTenantName(externalId, tenantName)
+        Participant participant = tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantId(externalId, tenantId))
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId + " and tenant: " + tenantName));
         return convertToResponse(participant);
     }
 
     public ParticipantMeResponse findParticipantMeByUserNameAndTenantName(String userName, String tenantName) {
-        ParticipantMeDto participantMeDto = participantRepository.findByUserNameAndTenantName(userName, tenantName, List.of(ParticipantUser.Status.ACTIVE,
-                                                                                                                            ParticipantUser.Status.DELETE_IN_PROGRESS))
+        ParticipantMeDto participantMeDto = tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> participantRepository.findByUserNameAndTenantId(userName, tenantId, List.of(ParticipantUser.Status.ACTIVE,
+                                                                                                                    ParticipantUser.Status.DELETE_IN_PROGRESS)))
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found for username: " + userName + " and tenant: " + tenantName));
         return convertToMeResponse(participantMeDto);
     }
@@ -111,81 +165,310 @@ public class ParticipantService {
         if (tenantName.isEmpty() || tenantName.get().isBlank()) {
             throw new RuntimeException("Tenant not found with name " + tenantName);
         }
-        Tenant foundTenant = tenantRepository.findByName(tenantName.get()).orElseThrow(() ->
+        TenantRef foundTenant = tenantResolver.resolve(tenantName.get()).orElseThrow(() ->
             new RuntimeException("Tenant not found with name " + tenantName.get())
         );
 
-        if(!(request.getUser().getUsername() == null || request.getUser().getUsername().isBlank())
+        if(request.getUser() != null && !(request.getUser().getUsername() == null || request.getUser().getUsername().isBlank())
                 && participantUserRepository.existsByUsername(request.getUser().getUsername())){
                 throw new ParticipantConflictException("Participant user with username already exists: " + request.getUser().getUsername());
             }
 
 
-        try {
-            log.info("Try Creating participant with name: {} - tenant: {}", normalizedParticipantName, tenantName.get());
-            Map<String, String> externalResponse = externalApiService.provisionParticipant(normalizedParticipantName);
-            log.info("External API provisioning successful for participant: {}, response: {}", normalizedParticipantName, externalResponse);
-
-            // Create and save Participant entity
-            String did = externalApiService.buildDid(normalizedParticipantName);
-            String host = externalApiService.buildHost(normalizedParticipantName);
-            Participant participant = new Participant();
-            participant.setName(normalizedParticipantName);
-            participant.setCompanyName(request.getParticipant().getName());
-            participant.setTenantId(foundTenant.getId());
-            participant.setExternalId(UUID.randomUUID().toString());
-            participant.setDid(did);
-            participant.setHost(host);
-            participant.setCurrentOperation(Participant.CurrentOperation.PROVISION_IN_PROGRESS);
-            participant.setMetadata(request.getParticipant().getMetadata());
-            participant.setDescription(request.getParticipant().getDescription());
-
-            Participant savedParticipant = participantRepository.save(participant);
-            log.trace("Saved participant entity: {}", savedParticipant);
-
-            // Create corresponding operation
-            operationService.createProvisionStartedOperation(savedParticipant.getExternalId());
-
-            //create participant user on kk
-            keycloakAdminService.createUserWithRealmRolesAndClaim(realmName,
-                        request.getUser().getUsername(),
-                        request.getUser().getPassword(),
-                        keycloakProperties.getTenantKey(),
-                        tenantName.get(),
-                        List.of(roleConfig.ROLE_USER_PARTICIPANT));
-
-            log.info("Created Keycloak user {} for participant {}", request.getUser().getUsername(), normalizedParticipantName);
-
-            //create and save ParticipantUser entity
-            ParticipantUser participantUser = new ParticipantUser();
-            participantUser.setExternalId(UUID.randomUUID().toString());
-            participantUser.setParticipantId(savedParticipant.getId());
-            participantUser.setUsername(request.getUser().getUsername());
-            participantUser.setPassword(passwordEncoder.encode(request.getUser().getPassword()));
-            participantUser.setMetadata(request.getUser().getMetadata());
-            participantUser.setStatus(ParticipantUser.Status.ACTIVE);
-
-            participantUserRepository.save(participantUser);
-            log.trace("Saved participant user entity: {}", participantUser);
-
-            log.info("Created new participant with external_id: {} and name: {} after successful external provisioning",
-                    savedParticipant.getExternalId(), savedParticipant.getName());
-
-            return convertToResponse(savedParticipant);
-
-        } catch (Exception e) {
-            // Rollback participant creation in case of Keycloak user creation failure
-            //try rollback external provisioning
-            try {
-                externalApiService.deprovisionParticipant(normalizedParticipantName);
-            } catch (Exception ex) {
-                log.error("Failed to rollback external provisioning for participant {}: {}", normalizedParticipantName, ex.getMessage(), ex);
+        // Create and save Participant entity, external provisioning continues asynchronously after commit
+        Participant participant = newParticipant(normalizedParticipantName, request.getParticipant(), foundTenant);
+
+        Participant savedParticipant = participantRepository.save(participant);
+        log.trace("Saved participant entity: {}", savedParticipant);
+
+        // Create corresponding operation
+        operationService.createProvisionStartedOperation(savedParticipant);
+
+        if (hasUser(request.getUser())) {
+            publishProvisioningRequest(savedParticipant, tenantName.get(), request.getUser());
+        } else {
+            outboxService.enqueueParticipantProvision(savedParticipant);
+        }
+
+        log.info("Accepted new participant with external_id: {} and name: {}, provisioning started",
+                savedParticipant.getExternalId(), savedParticipant.getName());
+
+        return convertToResponse(savedParticipant);
+    }
+
+    /**
+     * Creates several participants of the same tenant in one transaction:
+     * - Validates every item with the constraints of the single create and checks names / usernames against the DB
+     *   with one IN query each
+     * - Batch-inserts the accepted participants and their PROVISION_STARTED operations
+     * - Starts their provisioning, which then runs concurrently on the provisioning and outbox executors
+     * Rejected items do not prevent the others from being accepted.
+     * @param tenantName the tenant of all the participants
+     * @param requests the participants to create
+     * @param userRequired true when every participant must come with a user (username and password)
+     * @return the outcome of every item, in request order
+     */
+    public ParticipantBatchResponse createParticipants(Optional<String> tenantName,
+                                                       List<ParticipantRequest> requests,
+                                                       boolean userRequired) {
+        if (tenantName.isEmpty() || tenantName.get().isBlank()) {
+            throw new RuntimeException("Tenant not found with name " + tenantName);
+        }
+        TenantRef foundTenant = tenantResolver.resolve(tenantName.get()).orElseThrow(() ->
+            new RuntimeException("Tenant not found with name " + tenantName.get())
+        );
+
+        ParticipantBatchResponse.Item[] items = new ParticipantBatchResponse.Item[requests.size()];
+        String[] normalizedNames = new String[requests.size()];
+
+        // per-item validation and duplicates inside the batch
+        Set<String> batchNames = new HashSet<>();
+        Set<String> batchUsernames = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ParticipantRequest request = requests.get(i);
+            String error = validateBatchItem(request, userRequired);
+            if (error != null) {
+                items[i] = rejectedItem(i, request, ParticipantBatchResponse.ItemStatus.INVALID, error);
+                continue;
+            }
+            normalizedNames[i] = EdcUtils.normalizeForInnerDnsUse(request.getParticipant().getName());
+            if (!batchNames.add(normalizedNames[i])) {
+                items[i] = rejectedItem(i, request, ParticipantBatchResponse.ItemStatus.CONFLICT,
+                        "Duplicate participant name in batch: " + normalizedNames[i]);
+                continue;
+            }
+            if (hasUser(request.getUser()) && !batchUsernames.add(request.getUser().getUsername())) {
+                items[i] = rejectedItem(i, request, ParticipantBatchResponse.ItemStatus.CONFLICT,
+                        "Duplicate participant username in batch: " + request.getUser().getUsername());
+            }
+        }
+
+        // one query per column instead of an exists query per item
+        Set<String> existingNames = batchNames.isEmpty() ? Set.of() : new HashSet<>(participantRepository.findExistingNames(batchNames));
+        Set<String> existingUsernames = batchUsernames.isEmpty() ? Set.of() : new HashSet<>(participantUserRepository.findExistingUsernames(batchUsernames));
+
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Participant> participants = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (items[i] != null) {
+                continue;
+            }
+            ParticipantRequest request = requests.get(i);
+            if (existingNames.contains(normalizedNames[i])) {
+                items[i] = rejectedItem(i, request, ParticipantBatchResponse.ItemStatus.CONFLICT,
+                        "Participant with name already exists: " + normalizedNames[i]);
+            } else if (hasUser(request.getUser()) && existingUsernames.contains(request.getUser().getUsername())) {
+                items[i] = rejectedItem(i, request, ParticipantBatchResponse.ItemStatus.CONFLICT,
+                        "Participant user with username already exists: " + request.getUser().getUsername());
+            } else {
+                acceptedIndexes.add(i);
+                participants.add(newParticipant(normalizedNames[i], request.getParticipant(), foundTenant));
             }
+        }
+
+        List<Participant> savedParticipants = participantRepository.saveAll(participants);
+        operationService.createProvisionStartedOperations(savedParticipants);
+
+        List<Participant> withoutUser = new ArrayList<>();
+        for (int k = 0; k < savedParticipants.size(); k++) {
+            int i = acceptedIndexes.get(k);
+            Participant savedParticipant = savedParticipants.get(k);
+            ParticipantRequest.UserDto user = requests.get(i).getUser();
+            if (hasUser(user)) {
+                publishProvisioningRequest(savedParticipant, tenantName.get(), user);
+            } else {
+                withoutUser.add(savedParticipant);
+            }
+            items[i] = ParticipantBatchResponse.Item.builder()
+                    .index(i)
+                    .name(savedParticipant.getName())
+                    .status(ParticipantBatchResponse.ItemStatus.ACCEPTED)
+                    .participant(convertToResponse(savedParticipant))
+                    .build();
+        }
+        outboxService.enqueueParticipantProvisions(withoutUser);
+
+        log.info("Accepted {} of {} participants for tenant {}, provisioning started",
+                savedParticipants.size(), requests.size(), tenantName.get());
 
-            log.error("Failed to provision participant via external API: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to provision participant via external API: " + e.getMessage(), e);
+        return ParticipantBatchResponse.builder()
+                .accepted(savedParticipants.size())
+                .rejected(requests.size() - savedParticipants.size())
+                .items(Arrays.asList(items))
+                .build();
+    }
+
+    /**
+     * Applies to one item the bean validation that @Valid applies to the body of a single create.
+     * @return the error messages, null when the item is valid
+     */
+    private String validateBatchItem(ParticipantRequest request, boolean userRequired) {
+        if (request == null) {
+            return "Participant is required";
         }
+        Set<ConstraintViolation<ParticipantRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        String normalizedName = EdcUtils.normalizeForInnerDnsUse(request.getParticipant().getName());
+        if (normalizedName.length() < 3) {
+            return "Name must be between 3 and 63 characters (DNS-compatible): " + normalizedName;
+        }
+        if (userRequired && !hasUser(request.getUser())) {
+            return "User username and password are required";
+        }
+        return null;
+    }
+
+    private static ParticipantBatchResponse.Item rejectedItem(int index,
+                                                              ParticipantRequest request,
+                                                              ParticipantBatchResponse.ItemStatus status,
+                                                              String error) {
+        return ParticipantBatchResponse.Item.builder()
+                .index(index)
+                .name(request != null && request.getParticipant() != null ? request.getParticipant().getName() : null)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    private Participant newParticipant(String normalizedParticipantName, ParticipantRequest.ParticipantDto request, TenantRef tenant) {
+        Participant participant = new Participant();
+        participant.setName(normalizedParticipantName);
+        participant.setCompanyName(request.getName());
+        participant.setTenantId(tenant.getId());
+        participant.setExternalId(UuidV7.randomUUID().toString());
+        participant.setDid(externalApiService.buildDid(normalizedParticipantName));
+        participant.setHost(externalApiService.buildHost(normalizedParticipantName));
+        participant.setCurrentOperation(Participant.CurrentOperation.PROVISION_IN_PROGRESS);
+        participant.setMetadata(request.getMetadata());
+        participant.setDescription(request.getDescription());
+        return participant;
+    }
 
+    private static boolean hasUser(ParticipantRequest.UserDto user) {
+        return user != null && user.getUsername() != null && !user.getUsername().isBlank();
+    }
+
+    /**
+     * The Keycloak user is created first (after commit), the provisioner call is enqueued once it exists.
+     */
+    private void publishProvisioningRequest(Participant participant, String tenantName, ParticipantRequest.UserDto user) {
+        eventPublisher.publishEvent(ParticipantProvisioningRequestedEvent.builder()
+                .participantExternalId(participant.getExternalId())
+                .participantName(participant.getName())
+                .tenantName(tenantName)
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .userMetadata(user.getMetadata())
+                .build());
+    }
+
+    /**
+     * Stores the participant user created on Keycloak and enqueues the provisioner call in the same transaction.
+     * The participant row is locked: a participant no longer PROVISION_IN_PROGRESS (failed as stale meanwhile) is left
+     * untouched and false is returned, the caller removes the Keycloak user.
+     * @param externalId the participant external ID
+     * @param username the participant username
+     * @param passwordHash the encoded user password
+     * @param userMetadata the user metadata
+     * @return true when the user was stored and the provisioner call enqueued
+     */
+    public boolean registerParticipantUser(String externalId, String username, String passwordHash, Map<String, Object> userMetadata) {
+        Participant participant = participantRepository.findByExternalIdForUpdate(externalId)
+                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId));
+        if (participant.getCurrentOperation() != Participant.CurrentOperation.PROVISION_IN_PROGRESS) {
+            log.warn("Participant {} is {}, user {} not registered", externalId, participant.getCurrentOperation(), username);
+            return false;
+        }
+
+        //create and save ParticipantUser entity
+        ParticipantUser participantUser = new ParticipantUser();
+        participantUser.setExternalId(UuidV7.randomUUID().toString());
+        participantUser.setParticipantId(participant.getId());
+        participantUser.setUsername(username);
+        participantUser.setPassword(passwordHash);
+        participantUser.setMetadata(userMetadata);
+        participantUser.setStatus(ParticipantUser.Status.ACTIVE);
+
+        participantUserRepository.save(participantUser);
+        log.trace("Saved participant user entity: {}", participantUser);
+
+        outboxService.enqueueParticipantProvision(participant);
+        return true;
+    }
+
+    /**
+     * Completes an asynchronous provisioning: marks the participant ACTIVE and records the PROVISION_COMPLETED operation.
+     * @param externalId the participant external ID
+     */
+    public void completeProvisioning(String externalId) {
+        Participant participant = participantRepository.findByExternalId(externalId)
+                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId));
+
+        participant.setCurrentOperation(Participant.CurrentOperation.ACTIVE);
+        participantRepository.save(participant);
+        operationService.createProvisionCompletedOperation(participant);
+
+        log.info("Provisioning completed for participant with external_id: {} and name: {}", externalId, participant.getName());
+    }
+
+    /**
+     * Marks an asynchronous provisioning as failed and records the PROVISION_FAILED operation.
+     * @param externalId the participant external ID
+     * @param errorMessage the failure reason
+     * @param rollback true to enqueue the removal of whatever the provisioner and Keycloak may have created
+     */
+    public void failProvisioning(String externalId, String errorMessage, boolean rollback) {
+        Participant participant = participantRepository.findByExternalId(externalId)
+                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId));
+
+        participant.setCurrentOperation(Participant.CurrentOperation.PROVISION_FAILED);
+        participantRepository.save(participant);
+        operationService.createProvisionFailedOperation(participant, String.valueOf(errorMessage));
+
+        if (rollback) {
+            List<String> usernames = updateParticipantUsersStatus(participant, ParticipantUser.Status.DELETE_IN_PROGRESS);
+            outboxService.enqueueParticipantDeprovision(participant, usernames, true);
+        }
+
+        log.info("Provisioning failed for participant with external_id: {} and name: {}", externalId, participant.getName());
+    }
+
+
+
+    /**
+     * Lists the participants whose Keycloak user step was lost (instance stopped after the commit of the participant).
+     * @param createdBefore only participants created before this time
+     * @param limit the maximum number of external IDs returned
+     */
+    @Transactional(readOnly = true)
+    public List<String> findStaleProvisionings(OffsetDateTime createdBefore, int limit) {
+        return participantRepository.findExternalIdsWithoutOutboxEvent(Participant.CurrentOperation.PROVISION_IN_PROGRESS,
+                createdBefore, Pageable.ofSize(limit));
+    }
+
+    /**
+     * Marks PROVISION_FAILED a participant whose Keycloak user step was lost. The user password was never persisted,
+     * the step cannot be replayed. Checked again on the locked row, the step may have completed meanwhile; a step
+     * completing afterwards finds the participant failed and removes its Keycloak user.
+     * @param externalId the participant external ID
+     * @param errorMessage the failure reason
+     * @return true when the participant was marked PROVISION_FAILED
+     */
+    public boolean failStaleProvisioning(String externalId, String errorMessage) {
+        Participant participant = participantRepository.findByExternalIdForUpdate(externalId).orElse(null);
+        if (participant == null
+                || participant.getCurrentOperation() != Participant.CurrentOperation.PROVISION_IN_PROGRESS
+                || outboxService.hasEvents(externalId)) {
+            return false;
+        }
+        // the provisioner has not been called, nothing to roll back there
+        failProvisioning(externalId, errorMessage, false);
+        return true;
     }
 
 
@@ -198,7 +481,8 @@ public class ParticipantService {
     }
 
     public ParticipantResponse deleteParticipantByExternalIdAndTenantName(String participantId, String tenantName) {
-        Participant participant = participantRepository.findByExternalIdAndTenantName(participantId, tenantName)
+        Participant participant = tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantId(participantId, tenantId))
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + participantId ));
 
         return deprovisioningParticipant(participant);
@@ -206,62 +490,88 @@ public class ParticipantService {
 
 
     private ParticipantResponse deprovisioningParticipant(Participant participant) {
-        try {
-            // Check if participant is in a state that allows deletion
-            if (participant.getCurrentOperation() != Participant.CurrentOperation.ACTIVE) {
-                log.info("Participant with external ID: {} is not in ACTIVE state, cannot deprovision. Current state: {}",
-                        participant.getExternalId(), participant.getCurrentOperation());
-                return convertToResponse(participant);
-            }
+        // Check if participant is in a state that allows deletion
+        if (participant.getCurrentOperation() != Participant.CurrentOperation.ACTIVE) {
+            log.info("Participant with external ID: {} is not in ACTIVE state, cannot deprovision. Current state: {}",
+                    participant.getExternalId(), participant.getCurrentOperation());
+            return convertToResponse(participant);
+        }
 
-            Map<String, String> externalResponse = externalApiService.deprovisionParticipant(participant.getName());
-            participant.setCurrentOperation(Participant.CurrentOperation.DEPROVISION_COMPLETED);
-            Participant updatedParticipant = participantRepository.save(participant);
-            log.info("External API deprovisioning successful for participant: {}, response: {}", participant.getName(), externalResponse);
+        participant.setCurrentOperation(Participant.CurrentOperation.DEPROVISION_IN_PROGRESS);
+        Participant updatedParticipant = participantRepository.save(participant);
 
-            // Create corresponding operation
-            operationService.createDeprovisionStartedOperation(participant.getExternalId());
+        // Create corresponding operation
+        operationService.createDeprovisionStartedOperation(participant);
 
-            //set user as DELETED (soft delete)
-            deleteParticipatUserAndKeycloakUser(participant, ParticipantUser.Status.DELETED);
+        //set user as DELETE_IN_PROGRESS, Keycloak users are removed together with the external deprovisioning
+        List<String> usernames = updateParticipantUsersStatus(participant, ParticipantUser.Status.DELETE_IN_PROGRESS);
+        outboxService.enqueueParticipantDeprovision(participant, usernames, false);
 
-            log.info("Deprovisioned participant with external_id: {} after successful external deprovisioning", participant.getExternalId());
-            return convertToResponse(updatedParticipant);
+        log.info("Deprovisioning started for participant with external_id: {}", participant.getExternalId());
+        return convertToResponse(updatedParticipant);
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to deprovision participant via external API: {}", e.getMessage(), e);
-            participant.setCurrentOperation(Participant.CurrentOperation.DEPROVISION_FAILED);
-            Participant updatedParticipant = participantRepository.save(participant);
+    /**
+     * Completes an asynchronous deprovisioning: marks the participant DEPROVISION_COMPLETED and its users DELETED.
+     * @param externalId the participant external ID
+     */
+    public void completeDeprovisioning(String externalId) {
+        Participant participant = participantRepository.findByExternalId(externalId)
+                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId));
 
-            // Create corresponding failed operation
-            operationService.createDeprovisionFailedOperation(participant.getExternalId(), e.getMessage());
+        participant.setCurrentOperation(Participant.CurrentOperation.DEPROVISION_COMPLETED);
+        participantRepository.save(participant);
+        operationService.createDeprovisionCompletedOperation(participant);
 
-            //set user as DELETE_IN_ERROR (soft delete)
-            deleteParticipatUserAndKeycloakUser(participant, ParticipantUser.Status.DELETE_WITH_ERROR);
+        //set user as DELETED (soft delete)
+        updateParticipantUsersStatus(participant, ParticipantUser.Status.DELETED);
 
-            return convertToResponse(updatedParticipant);
-        }
+        log.info("Deprovisioned participant with external_id: {} after successful external deprovisioning", externalId);
+    }
+
+    /**
+     * Marks an asynchronous deprovisioning as failed: the participant becomes DEPROVISION_FAILED and its users DELETE_WITH_ERROR.
+     * @param externalId the participant external ID
+     * @param errorMessage the failure reason
+     */
+    public void failDeprovisioning(String externalId, String errorMessage) {
+        Participant participant = participantRepository.findByExternalId(externalId)
+                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId));
 
+        participant.setCurrentOperation(Participant.CurrentOperation.DEPROVISION_FAILED);
+        participantRepository.save(participant);
+
+        // Create corresponding failed operation
+        operationService.createDeprovisionFailedOperation(participant, String.valueOf(errorMessage));
+
+        //set user as DELETE_WITH_ERROR (soft delete)
+        updateParticipantUsersStatus(participant, ParticipantUser.Status.DELETE_WITH_ERROR);
+
+        log.error("Failed to deprovision participant with external_id: {}: {}", externalId, errorMessage);
     }
 
-    private void deleteParticipatUserAndKeycloakUser(Participant participant, ParticipantUser.Status status){
-        List<ParticipantUser> participantUsers = participantUserRepository.findByParticipantId(participant.getId()) ;
-        for(ParticipantUser user : participantUsers){
-            log.debug("Setting participant user {} status to {} for participant {}", user.getUsername(), status, participant.getName());
-            user.setStatus(status);
-            user.setDeletedAt(OffsetDateTime.now());
-            participantUserRepository.save(user);
+    public void updateParticipantUsersStatus(String externalId, ParticipantUser.Status status) {
+        Participant participant = participantRepository.findByExternalId(externalId)
+                .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId));
 
-            //try delete user from kk
-            try {
-                keycloakAdminService.deleteUserByUsername(realmName, user.getUsername());
+        updateParticipantUsersStatus(participant, status);
+    }
 
-            } catch (Exception e) {
-                log.warn("Failed to delete Keycloak user {} for participant {}: {}", user.getUsername(), participant.getName(), e.getMessage(), e);
+    /**
+     * Sets the status of all the participant users (soft delete for DELETED / DELETE_WITH_ERROR).
+     * @return the usernames of the updated users
+     */
+    private List<String> updateParticipantUsersStatus(Participant participant, ParticipantUser.Status status) {
+        List<ParticipantUser> participantUsers = participantUserRepository.findByParticipantId(participant.getId());
+        for (ParticipantUser user : participantUsers) {
+            log.debug("Setting participant user {} status to {} for participant {}", user.getUsername(), status, participant.getName());
+            user.setStatus(status);
+            if (status == ParticipantUser.Status.DELETED || status == ParticipantUser.Status.DELETE_WITH_ERROR) {
+                user.setDeletedAt(OffsetDateTime.now());
             }
-            log.info("Deleted user {} for participant {}", user.getUsername(), participant.getName());
         }
-
+        participantUserRepository.saveAll(participantUsers);
+        return participantUsers.stream().map(ParticipantUser::getUsername).toList();
     }
 
     public ParticipantResponse updateParticipantByExternalId(String externalId, ParticipantUpdateRequest request) {
@@ -272,7 +582,8 @@ public class ParticipantService {
     }
 
     public ParticipantResponse updateParticipantByExternalIdAndTenantName(String externalId, String tenantName, ParticipantUpdateRequest request) {
-        Participant participant = participantRepository.findByExternalIdAndTenantName(externalId, tenantName)
+        Participant participant = tenantResolver.findTenantId(tenantName)
+                .flatMap(tenantId -> participantRepository.findByExternalIdAndTenantId(externalId, tenantId))
                 .orElseThrow(() -> new ParticipantNotFoundException("Participant not found with external ID: " + externalId + " and tenant: " + tenantName));
 
         return updateParticipant(participant, request);
@@ -318,6 +629,20 @@ public class ParticipantService {
         return response;
     }
 
+    private ParticipantResponse convertToResponse(ParticipantDto participant) {
+        ParticipantResponse response = new ParticipantResponse();
+        response.setId(participant.getExternalId());
+        response.setName(participant.getName());
+        response.setCompanyName(participant.getCompanyName());
+        response.setDid(participant.getDid());
+        response.setHost(participant.getHost());
+        response.setMetadata(participant.getMetadata());
+        response.setCurrentOperation(String.valueOf(participant.getCurrentOperation()));
+        response.setCreatedAt(participant.getCreatedAt());
+        response.setUpdatedAt(participant.getUpdatedAt());
+        return response;
+    }
+
     private ParticipantMeResponse convertToMeResponse(ParticipantMeDto participantMeDto) {
         ParticipantMeResponse.ParticipantDto participantDto = ParticipantMeResponse.ParticipantDto.builder()
                 .id(participantMeDto.getParticipantExternalId())
@@ -350,31 +675,31 @@ public class ParticipantService {
 
     /**
      * Creates the corresponding operation for a participant current operation change
-     * @param externalId the participant external ID
+     * @param participant the participant
      * @param currentOperation the new participant current operation
      */
-    private void createOperationForStatus(String externalId, String currentOperation) {
+    private void createOperationForStatus(Participant participant, String currentOperation) {
         try {
             Participant.CurrentOperation operation = Participant.CurrentOperation.fromValue(currentOperation);
             switch (operation) {
                 case PROVISION_IN_PROGRESS:
-                    operationService.createProvisionStartedOperation(externalId);
+                    operationService.createProvisionStartedOperation(participant);
                     break;
                 case ACTIVE:
-                    operationService.createOperation(externalId, Operation.EventType.PROVISION_COMPLETED,
+                    operationService.createOperation(participant, Operation.EventType.PROVISION_COMPLETED,
                         Map.of("message", "Participant activated"));
                     break;
                 case DEPROVISION_IN_PROGRESS:
-                    operationService.createDeprovisionStartedOperation(externalId);
+                    operationService.createDeprovisionStartedOperation(participant);
                     break;
                 case DEPROVISION_COMPLETED:
-                    operationService.createDeprovisionCompletedOperation(externalId);
+                    operationService.createDeprovisionCompletedOperation(participant);
                     break;
                 case PROVISION_FAILED:
-                    operationService.createProvisionFailedOperation(externalId, "Provisioning failed");
+                    operationService.createProvisionFailedOperation(participant, "Provisioning failed");
                     break;
                 case DEPROVISION_FAILED:
-                    operationService.createDeprovisionFailedOperation(externalId, "Deprovisioning failed");
+                    operationService.createDeprovisionFailedOperation(participant, "Deprovisioning failed");
                     break;
                 case UPDATED:
                 case DETAILS_UPDATED:
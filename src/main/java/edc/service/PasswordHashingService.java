@@ -0,0 +1,113 @@
+package edc.service;
+
+import edc.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password hashing on a dedicated, bounded pool of platform threads (one per core by default), so CPU-heavy hashes
+ * never run on servlet or provisioning threads:
+ * - New hashes use the configured encoder id ({bcrypt}, {pbkdf2} or {argon2} prefix)
+ * - Hashes without prefix (stored before the prefix was introduced) are bcrypt, the encoder reads them as such
+ * - A full queue rejects the hash (RejectedExecutionException) instead of blocking the caller
+ * - Exposes executor metrics (queued, active, ...) under name=password.hashing and the password.hashing.duration timer
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final String ARGON2_REQUIRED_CLASS = "org.bouncycastle.crypto.generators.Argon2BytesGenerator";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService hashingExecutor;
+    private final ThreadPoolExecutor threadPool;
+    private final Timer hashTimer;
+
+    public PasswordHashingService(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.passwordEncoder = buildPasswordEncoder(properties);
+
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.threadPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hashingExecutor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "password.hashing");
+
+        this.hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent hashing a password, excluding the time waiting for a hashing thread")
+                .tags(Tags.of("encoder", properties.getEncoder()))
+                .register(meterRegistry);
+
+        log.info("Password hashing with encoder {} on {} threads", properties.getEncoder(), threads);
+    }
+
+    /**
+     * Hashes a password on the hashing pool and waits for the result.
+     * @throws java.util.concurrent.RejectedExecutionException when the hashing queue is full
+     */
+    public String encode(CharSequence rawPassword) {
+        try {
+            return hashingExecutor.submit(() -> hashTimer.record(() -> passwordEncoder.encode(rawPassword))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+
+    private static PasswordEncoder buildPasswordEncoder(PasswordHashingProperties properties) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(properties.getBcrypt().getStrength());
+
+        PasswordHashingProperties.Pbkdf2 pbkdf2 = properties.getPbkdf2();
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder("", pbkdf2.getSaltLength(), pbkdf2.getIterations(),
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.valueOf(pbkdf2.getAlgorithm())));
+
+        if (ClassUtils.isPresent(ARGON2_REQUIRED_CLASS, PasswordHashingService.class.getClassLoader())) {
+            PasswordHashingProperties.Argon2 argon2 = properties.getArgon2();
+            encoders.put("argon2", new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(),
+                    argon2.getParallelism(), argon2.getMemory(), argon2.getIterations()));
+        }
+
+        if (!encoders.containsKey(properties.getEncoder())) {
+            throw new IllegalStateException("Unsupported password encoder: " + properties.getEncoder()
+                    + ("argon2".equals(properties.getEncoder()) ? " (org.bouncycastle:bcprov-jdk18on is not on the classpath)" : ""));
+        }
+
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(properties.getEncoder(), encoders);
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegatingPasswordEncoder;
+    }
+}
@@ -0,0 +1,71 @@
+package edc.service;
+
+import edc.config.TenantCacheProperties;
+import edc.entity.projection.TenantRef;
+import edc.repository.TenantRepository;
+import edc.util.ExpiringCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Resolves the tenantName JWT claim to the tenant id (and status), so tenant-scoped queries filter on tenant_id
+ * instead of joining tenants:
+ * - Cached in process, bounded by app.tenant-cache.maximum-size and ttl
+ * - Evicted by TenantService when a tenant is updated or deleted (again after commit, so a concurrent reader
+ *   cannot put back the state being replaced)
+ * - Unknown names are not cached, a tenant created afterwards is found on the next lookup
+ */
+@Slf4j
+@Service
+public class TenantResolver {
+
+    private final TenantRepository tenantRepository;
+    private final ExpiringCache<String, TenantRef> tenants;
+
+    public TenantResolver(TenantRepository tenantRepository,
+                          TenantCacheProperties tenantCacheProperties,
+                          MeterRegistry meterRegistry) {
+        this.tenantRepository = tenantRepository;
+        this.tenants = new ExpiringCache<String, TenantRef>(tenantCacheProperties.getMaximumSize(), tenantCacheProperties.getTtl())
+                .registerMetrics(meterRegistry, "tenant.cache");
+    }
+
+    public Optional<TenantRef> resolve(String tenantName) {
+        if (tenantName == null || tenantName.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(tenants.get(tenantName, name -> tenantRepository.findRefByName(name).orElse(null)));
+    }
+
+    /**
+     * Id of the tenant with this name, whatever its status.
+     */
+    public Optional<Integer> findTenantId(String tenantName) {
+        return resolve(tenantName).map(TenantRef::getId);
+    }
+
+    /**
+     * Id of the tenant with this name, empty when it does not exist or has been deleted.
+     */
+    public Optional<Integer> findActiveTenantId(String tenantName) {
+        return resolve(tenantName).filter(tenant -> !tenant.isDeleted()).map(TenantRef::getId);
+    }
+
+    public void evict(String tenantName) {
+        tenants.invalidate(tenantName);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    tenants.invalidate(tenantName);
+                }
+            });
+        }
+        log.debug("Evicted tenant {} from the tenant cache", tenantName);
+    }
+}
@@ -2,7 +2,6 @@ package edc.service;
 
 import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -21,6 +20,7 @@ import edc.exception.TenantConflictException;
 import edc.exception.TenantNotFoundException;
 import edc.repository.TenantRepository;
 import edc.util.EdcUtils;
+import edc.util.UuidV7;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,6 +33,7 @@ public class TenantService {
     private final RoleConfig roleConfig;
     private final KeycloakAdminService keycloakAdminService;
     private final KeycloakProperties keycloakProperties;
+    private final TenantResolver tenantResolver;
 
     @Value("${app.security.clientId:edc-provisioning-portal-fe}")
     public String clientId;
@@ -52,7 +53,7 @@ public class TenantService {
         }
 
         Tenant tenant = new Tenant();
-        tenant.setExternalId(UUID.randomUUID().toString());
+        tenant.setExternalId(UuidV7.randomUUID().toString());
         tenant.setName(normalizedTenantName);
         tenant.setDescription(request.getDescription());
         tenant.setMetadata(request.getMetadata());
@@ -141,6 +142,7 @@ public class TenantService {
 
         tenant.setUpdatedAt(OffsetDateTime.now());
         Tenant updatedTenant = tenantRepository.save(tenant);
+        tenantResolver.evict(updatedTenant.getName());
 
         log.info("Updated tenant with external_id: {} - description updated: {}, metadata updated: {}", 
                 externalId, request.getDescription() != null, request.getMetadata() != null);
@@ -164,6 +166,7 @@ public class TenantService {
         tenant.setUpdatedAt(OffsetDateTime.now());
 
         Tenant deletedTenant = tenantRepository.save(tenant);
+        tenantResolver.evict(deletedTenant.getName());
 
         log.info("Soft deleted tenant with external_id: {} and name: {}", 
                 deletedTenant.getExternalId(), deletedTenant.getName());
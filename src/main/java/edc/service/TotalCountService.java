@@ -0,0 +1,138 @@
+package edc.service;
+
+import edc.config.AsyncConfig;
+import edc.config.PaginationProperties;
+import edc.util.ExpiringCache;
+import edc.util.PageResult;
+import edc.util.TotalMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs offset list queries according to the requested {@link TotalMode}:
+ * - EXACT: Page query, i.e. content plus COUNT
+ * - FALSE: Slice query, content only (limit + 1 rows to know whether a next page exists)
+ * - ESTIMATE: Slice query plus a cached total per listing and filter; a total older than refresh-after is still served
+ *   and recounted in the background, a missing or expired one is counted synchronously
+ */
+@Slf4j
+@Service
+public class TotalCountService {
+
+    private final ExpiringCache<CountKey, CachedTotal> totals;
+    private final Set<CountKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final TaskExecutor refreshExecutor;
+    private final Duration refreshAfter;
+
+    public TotalCountService(PaginationProperties paginationProperties,
+                             @Qualifier(AsyncConfig.COUNT_REFRESH_EXECUTOR) TaskExecutor refreshExecutor,
+                             MeterRegistry meterRegistry) {
+        PaginationProperties.Estimate estimate = paginationProperties.getEstimate();
+        this.totals = new ExpiringCache<CountKey, CachedTotal>(estimate.getMaximumSize(), estimate.getExpireAfter())
+                .registerMetrics(meterRegistry, "pagination.total.estimate.cache");
+        this.refreshExecutor = refreshExecutor;
+        this.refreshAfter = estimate.getRefreshAfter();
+    }
+
+    /**
+     * @param pageable    page, size and sort to read
+     * @param key         identifies the listing and its filters, used only for ESTIMATE
+     * @param pageFinder  Page variant of the query (content and count)
+     * @param sliceFinder Slice variant of the same query (content only)
+     */
+    public <T> PageResult<T> findPage(TotalMode totalMode,
+                                      Pageable pageable,
+                                      CountKey key,
+                                      Function<Pageable, Page<T>> pageFinder,
+                                      Function<Pageable, Slice<T>> sliceFinder) {
+        return switch (totalMode) {
+            case EXACT -> PageResult.of(pageFinder.apply(pageable));
+            case FALSE -> PageResult.of(sliceFinder.apply(pageable));
+            case ESTIMATE -> {
+                Slice<T> slice = sliceFinder.apply(pageable);
+                yield PageResult.of(slice).withEstimatedTotal(estimateTotal(key, slice, () -> count(pageFinder)));
+            }
+        };
+    }
+
+    private <T> long estimateTotal(CountKey key, Slice<T> slice, LongSupplier counter) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext() && (slice.hasContent() || slice.isFirst())) {
+            // last page: the total is known exactly, no need to count
+            totals.put(key, new CachedTotal(seen, Instant.now()));
+            return seen;
+        }
+
+        Optional<CachedTotal> cached = totals.get(key);
+        long total;
+        if (cached.isEmpty()) {
+            total = counter.getAsLong();
+            totals.put(key, new CachedTotal(total, Instant.now()));
+        } else {
+            total = cached.get().total();
+            if (cached.get().countedAt().plus(refreshAfter).isBefore(Instant.now())) {
+                refreshInBackground(key, counter);
+            }
+        }
+        // a stale total must not contradict the rows just read
+        return slice.hasNext() ? Math.max(total, seen + 1) : total;
+    }
+
+    private void refreshInBackground(CountKey key, LongSupplier counter) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    totals.put(key, new CachedTotal(counter.getAsLong(), Instant.now()));
+                } catch (RuntimeException e) {
+                    log.warn("Background recount of {} failed: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // pool saturated: keep serving the cached total, a later request will try again
+            refreshing.remove(key);
+            log.debug("Background recount of {} skipped, refresh pool is full", key);
+        }
+    }
+
+    private static <T> long count(Function<Pageable, Page<T>> pageFinder) {
+        // a single-row page makes Spring Data run the count query while reading almost nothing
+        return pageFinder.apply(PageRequest.of(0, 1)).getTotalElements();
+    }
+
+    /**
+     * Listing name plus the filter values the total depends on (tenant, participant, status, ...); null filters allowed.
+     */
+    public record CountKey(String listing, List<Object> filters) {
+
+        public static CountKey of(String listing, Object... filters) {
+            return new CountKey(listing, Collections.unmodifiableList(Arrays.asList(filters)));
+        }
+    }
+
+    private record CachedTotal(long total, Instant countedAt) {
+    }
+}
@@ -0,0 +1,60 @@
+package edc.service.outbox;
+
+import edc.dto.ExternalCredentialRequest;
+import edc.entity.OutboxEvent;
+import edc.service.CredentialService;
+import edc.service.ExternalApiService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends a credential request to the participant identityhub; the requested credentials are set to ERROR
+ * once all attempts failed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CredentialRequestHandler implements OutboxEventHandler {
+
+    static final String PARTICIPANT_NAME = "participantName";
+    static final String DID = "did";
+    static final String REQUEST_ID = "requestId";
+    static final String CREDENTIALS = "credentials";
+
+    private final ExternalApiService externalApiService;
+    private final CredentialService credentialService;
+
+    @Override
+    public OutboxEvent.EventType eventType() {
+        return OutboxEvent.EventType.REQUEST_CREDENTIALS;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(OutboxEvent event) {
+        Map<String, Object> payload = event.getPayload();
+        List<ExternalCredentialRequest.CredentialSpec> credentials = ((List<Map<String, Object>>) payload.get(CREDENTIALS)).stream()
+                .map(item -> ExternalCredentialRequest.CredentialSpec.builder()
+                        .format((String) item.get("format"))
+                        .type((String) item.get("type"))
+                        .id((String) item.get("id"))
+                        .build())
+                .toList();
+
+        Map<String, String> externalResponse = externalApiService.requestCredentials(
+                (String) payload.get(PARTICIPANT_NAME),
+                (String) payload.get(DID),
+                credentials);
+        log.info("External credentials API call successful for participant: {}, request ID: {}, response: {}",
+                event.getAggregateId(), payload.get(REQUEST_ID), externalResponse);
+    }
+
+    @Override
+    public void onFailed(OutboxEvent event, String errorMessage) {
+        credentialService.markCredentialRequestFailed((String) event.getPayload().get(REQUEST_ID));
+    }
+}
@@ -0,0 +1,29 @@
+package edc.service.outbox;
+
+import edc.entity.OutboxEvent;
+
+/**
+ * Performs the external call behind one {@link OutboxEvent.EventType} and applies its outcome.
+ */
+public interface OutboxEventHandler {
+
+    OutboxEvent.EventType eventType();
+
+    /**
+     * Performs the external call. Runs outside any transaction; it may run more than once for the same event
+     * (retries, lease expiry), so the remote side must tolerate repeated calls.
+     */
+    void execute(OutboxEvent event);
+
+    /**
+     * Applies a successful call; runs in the transaction that marks the event COMPLETED.
+     */
+    default void onCompleted(OutboxEvent event) {
+    }
+
+    /**
+     * Applies a call that failed for the last time; runs in the transaction that marks the event FAILED.
+     */
+    default void onFailed(OutboxEvent event, String errorMessage) {
+    }
+}
@@ -0,0 +1,122 @@
+package edc.service.outbox;
+
+import edc.config.AsyncConfig;
+import edc.entity.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the outbox: claims a batch of due events, runs their external calls concurrently and records the outcomes.
+ * Several instances can run side by side, each event is leased to one of them at a time.
+ * The batch runs on the relay executor, never on the scheduler thread shared with the other @Scheduled tasks:
+ * a poll only starts a batch when the previous one has finished, so a slow downstream delays the next claim, not
+ * the key refresh or the idempotency purge.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxService outboxService;
+    private final TaskExecutor outboxExecutor;
+    private final TaskExecutor relayExecutor;
+    private final Map<OutboxEvent.EventType, OutboxEventHandler> handlers = new EnumMap<>(OutboxEvent.EventType.class);
+    private final String instanceId = instanceId();
+    private final AtomicBoolean batchRunning = new AtomicBoolean();
+
+    public OutboxRelay(OutboxService outboxService,
+                       @Qualifier(AsyncConfig.OUTBOX_EXECUTOR) TaskExecutor outboxExecutor,
+                       @Qualifier(AsyncConfig.OUTBOX_RELAY_EXECUTOR) TaskExecutor relayExecutor,
+                       List<OutboxEventHandler> handlers) {
+        this.outboxService = outboxService;
+        this.outboxExecutor = outboxExecutor;
+        this.relayExecutor = relayExecutor;
+        handlers.forEach(handler -> this.handlers.put(handler.eventType(), handler));
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:2s}")
+    public void relay() {
+        if (!batchRunning.compareAndSet(false, true)) {
+            log.debug("Previous outbox batch still running, skipping poll");
+            return;
+        }
+        try {
+            relayExecutor.execute(() -> {
+                try {
+                    relayBatch();
+                } finally {
+                    batchRunning.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            batchRunning.set(false);
+            log.warn("Unable to start outbox batch: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claims the next batch and waits for all its events, on the relay executor.
+     */
+    void relayBatch() {
+        List<OutboxEvent> events;
+        try {
+            events = outboxService.claimNextBatch(instanceId);
+        } catch (Exception e) {
+            log.warn("Unable to claim outbox events: {}", e.getMessage());
+            return;
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        log.debug("Claimed {} outbox events", events.size());
+
+        CompletableFuture.allOf(events.stream()
+                        .map(event -> CompletableFuture.runAsync(() -> process(event), outboxExecutor))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    private void process(OutboxEvent event) {
+        OutboxEventHandler handler = handlers.get(event.getEventType());
+        try {
+            if (handler == null) {
+                outboxService.fail(event, null, "No handler for event type " + event.getEventType());
+                return;
+            }
+            try {
+                handler.execute(event);
+            } catch (Exception e) {
+                outboxService.fail(event, handler, e.getMessage());
+                return;
+            }
+            outboxService.complete(event, handler);
+        } catch (Exception e) {
+            // the lease expires and the event is claimed again
+            log.error("Unable to record outcome of outbox event {}: {}", event.getId(), e.getMessage(), e);
+        }
+    }
+
+    private static String instanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,203 @@
+package edc.service.outbox;
+
+import edc.config.OutboxProperties;
+import edc.dto.ExternalCredentialRequest;
+import edc.entity.OutboxEvent;
+import edc.entity.Participant;
+import edc.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for external calls:
+ * - enqueue* methods write the event in the caller's transaction, together with the state change it belongs to
+ * - claimNextBatch leases due events to one relay instance (SELECT ... FOR UPDATE SKIP LOCKED)
+ * - complete / fail record the outcome, retrying failed calls with exponential backoff up to app.outbox.max-attempts
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class OutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxProperties outboxProperties;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueueParticipantProvision(Participant participant) {
+        return save(provisionEvent(participant));
+    }
+
+    /**
+     * Enqueues the provisioner call of several participants with a single batch save.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<OutboxEvent> enqueueParticipantProvisions(List<Participant> participants) {
+        if (participants.isEmpty()) {
+            return List.of();
+        }
+        List<OutboxEvent> events = outboxEventRepository.saveAll(participants.stream()
+                .map(this::provisionEvent)
+                .toList());
+        log.debug("Enqueued {} outbox events {}", events.size(), OutboxEvent.EventType.PROVISION_PARTICIPANT);
+        return events;
+    }
+
+    private OutboxEvent provisionEvent(Participant participant) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put(ParticipantProvisionHandler.PARTICIPANT_NAME, participant.getName());
+        return newEvent(OutboxEvent.EventType.PROVISION_PARTICIPANT, participant.getExternalId(), payload);
+    }
+
+    /**
+     * @param usernames Keycloak users removed together with the participant
+     * @param rollback true when undoing a failed provisioning, the participant state is then left untouched
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueueParticipantDeprovision(Participant participant, List<String> usernames, boolean rollback) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put(ParticipantDeprovisionHandler.PARTICIPANT_NAME, participant.getName());
+        payload.put(ParticipantDeprovisionHandler.USERNAMES, usernames);
+        payload.put(ParticipantDeprovisionHandler.ROLLBACK, rollback);
+        return save(newEvent(OutboxEvent.EventType.DEPROVISION_PARTICIPANT, participant.getExternalId(), payload));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent enqueueCredentialRequest(Participant participant,
+                                                String requestId,
+                                                List<ExternalCredentialRequest.CredentialSpec> credentials) {
+        List<Map<String, Object>> specs = credentials.stream()
+                .map(spec -> {
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("format", spec.getFormat());
+                    item.put("type", spec.getType());
+                    item.put("id", spec.getId());
+                    return item;
+                })
+                .toList();
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put(CredentialRequestHandler.PARTICIPANT_NAME, participant.getName());
+        payload.put(CredentialRequestHandler.DID, participant.getDid());
+        payload.put(CredentialRequestHandler.REQUEST_ID, requestId);
+        payload.put(CredentialRequestHandler.CREDENTIALS, specs);
+        return save(newEvent(OutboxEvent.EventType.REQUEST_CREDENTIALS, participant.getExternalId(), payload));
+    }
+
+    private OutboxEvent newEvent(OutboxEvent.EventType eventType, String aggregateId, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setPayload(payload);
+        event.setStatus(OutboxEvent.Status.PENDING);
+        event.setNextAttemptAt(now());
+        return event;
+    }
+
+    private OutboxEvent save(OutboxEvent event) {
+        OutboxEvent savedEvent = outboxEventRepository.save(event);
+        log.debug("Enqueued outbox event {} for {}", event.getEventType(), event.getAggregateId());
+        return savedEvent;
+    }
+
+    /**
+     * @return true when an event, whatever its status, was enqueued for the given participant
+     */
+    public boolean hasEvents(String aggregateId) {
+        return outboxEventRepository.existsByAggregateId(aggregateId);
+    }
+
+    /**
+     * Leases the next due events to the given relay instance.
+     */
+    public List<OutboxEvent> claimNextBatch(String owner) {
+        OffsetDateTime now = now();
+        List<OutboxEvent> events = outboxEventRepository.lockNextDue(now, outboxProperties.getBatchSize());
+        for (OutboxEvent event : events) {
+            if (event.getStatus() == OutboxEvent.Status.IN_PROGRESS) {
+                log.warn("Lease of outbox event {} held by {} expired, reclaiming it", event.getId(), event.getLockedBy());
+            }
+            event.setStatus(OutboxEvent.Status.IN_PROGRESS);
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLockedBy(owner);
+            event.setLockedUntil(now.plus(outboxProperties.getLease()));
+        }
+        return outboxEventRepository.saveAll(events);
+    }
+
+    public void complete(OutboxEvent claimed, OutboxEventHandler handler) {
+        OutboxEvent event = findOwned(claimed);
+        if (event == null) {
+            return;
+        }
+        handler.onCompleted(event);
+
+        event.setStatus(OutboxEvent.Status.COMPLETED);
+        event.setCompletedAt(now());
+        event.setLockedBy(null);
+        event.setLockedUntil(null);
+        outboxEventRepository.save(event);
+        log.info("Outbox event {} {} for {} completed", event.getId(), event.getEventType(), event.getAggregateId());
+    }
+
+    public void fail(OutboxEvent claimed, OutboxEventHandler handler, String errorMessage) {
+        OutboxEvent event = findOwned(claimed);
+        if (event == null) {
+            return;
+        }
+        event.setLastError(StringUtils.abbreviate(errorMessage, MAX_ERROR_LENGTH));
+        event.setLockedBy(null);
+        event.setLockedUntil(null);
+
+        if (handler == null || event.getAttempts() >= outboxProperties.getMaxAttempts()) {
+            if (handler != null) {
+                handler.onFailed(event, errorMessage);
+            }
+            event.setStatus(OutboxEvent.Status.FAILED);
+            log.error("Outbox event {} {} for {} failed after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getAggregateId(), event.getAttempts(), errorMessage);
+        } else {
+            Duration backoff = backoff(event.getAttempts());
+            event.setStatus(OutboxEvent.Status.PENDING);
+            event.setNextAttemptAt(now().plus(backoff));
+            log.warn("Outbox event {} {} for {} failed (attempt {}), retrying in {}: {}",
+                    event.getId(), event.getEventType(), event.getAggregateId(), event.getAttempts(), backoff, errorMessage);
+        }
+        outboxEventRepository.save(event);
+    }
+
+    /**
+     * Reloads a claimed event, or returns null if its lease was taken over by another relay instance in the meantime.
+     */
+    private OutboxEvent findOwned(OutboxEvent claimed) {
+        OutboxEvent event = outboxEventRepository.findById(claimed.getId()).orElse(null);
+        if (event == null || event.getStatus() != OutboxEvent.Status.IN_PROGRESS
+                || !claimed.getLockedBy().equals(event.getLockedBy())) {
+            log.warn("Outbox event {} is no longer leased to {}, outcome discarded", claimed.getId(), claimed.getLockedBy());
+            return null;
+        }
+        return event;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = outboxProperties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(outboxProperties.getMaxBackoff()) > 0 ? outboxProperties.getMaxBackoff() : backoff;
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+}
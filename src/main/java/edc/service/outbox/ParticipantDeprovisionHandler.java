@@ -0,0 +1,83 @@
+package edc.service.outbox;
+
+import edc.entity.OutboxEvent;
+import edc.entity.ParticipantUser;
+import edc.service.ExternalApiService;
+import edc.service.KeycloakAdminService;
+import edc.service.ParticipantService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes the participant users from Keycloak and calls the provisioner to deprovision the participant.
+ * Also used to roll back a failed provisioning, in which case only the participant users are updated.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ParticipantDeprovisionHandler implements OutboxEventHandler {
+
+    static final String PARTICIPANT_NAME = "participantName";
+    static final String USERNAMES = "usernames";
+    static final String ROLLBACK = "rollback";
+
+    private final ExternalApiService externalApiService;
+    private final KeycloakAdminService keycloakAdminService;
+    private final ParticipantService participantService;
+
+    @Value("${app.security.realmName:edc}")
+    public String realmName;
+
+    @Override
+    public OutboxEvent.EventType eventType() {
+        return OutboxEvent.EventType.DEPROVISION_PARTICIPANT;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute(OutboxEvent event) {
+        String participantName = (String) event.getPayload().get(PARTICIPANT_NAME);
+        List<String> usernames = (List<String>) event.getPayload().getOrDefault(USERNAMES, List.of());
+
+        for (String username : usernames) {
+            //try delete user from kk
+            try {
+                keycloakAdminService.deleteUserByUsername(realmName, username);
+                log.info("Deleted user {} for participant {}", username, participantName);
+            } catch (Exception e) {
+                log.warn("Failed to delete Keycloak user {} for participant {}: {}", username, participantName, e.getMessage(), e);
+            }
+        }
+
+        Map<String, String> externalResponse = externalApiService.deprovisionParticipant(participantName);
+        log.info("External API deprovisioning successful for participant: {}, response: {}", participantName, externalResponse);
+    }
+
+    @Override
+    public void onCompleted(OutboxEvent event) {
+        if (isRollback(event)) {
+            participantService.updateParticipantUsersStatus(event.getAggregateId(), ParticipantUser.Status.DELETED);
+        } else {
+            participantService.completeDeprovisioning(event.getAggregateId());
+        }
+    }
+
+    @Override
+    public void onFailed(OutboxEvent event, String errorMessage) {
+        if (isRollback(event)) {
+            participantService.updateParticipantUsersStatus(event.getAggregateId(), ParticipantUser.Status.DELETE_WITH_ERROR);
+            log.error("Failed to rollback external provisioning for participant {}: {}", event.getPayload().get(PARTICIPANT_NAME), errorMessage);
+        } else {
+            participantService.failDeprovisioning(event.getAggregateId(), errorMessage);
+        }
+    }
+
+    private static boolean isRollback(OutboxEvent event) {
+        return Boolean.TRUE.equals(event.getPayload().get(ROLLBACK));
+    }
+}
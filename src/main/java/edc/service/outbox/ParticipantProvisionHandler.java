@@ -0,0 +1,47 @@
+package edc.service.outbox;
+
+import edc.entity.OutboxEvent;
+import edc.service.ExternalApiService;
+import edc.service.ParticipantService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Calls the provisioner for a PROVISION_IN_PROGRESS participant; the participant becomes ACTIVE on success,
+ * PROVISION_FAILED (with a rollback deprovisioning enqueued) once all attempts failed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ParticipantProvisionHandler implements OutboxEventHandler {
+
+    static final String PARTICIPANT_NAME = "participantName";
+
+    private final ExternalApiService externalApiService;
+    private final ParticipantService participantService;
+
+    @Override
+    public OutboxEvent.EventType eventType() {
+        return OutboxEvent.EventType.PROVISION_PARTICIPANT;
+    }
+
+    @Override
+    public void execute(OutboxEvent event) {
+        String participantName = (String) event.getPayload().get(PARTICIPANT_NAME);
+        Map<String, String> externalResponse = externalApiService.provisionParticipant(participantName);
+        log.info("External API provisioning successful for participant: {}, response: {}", participantName, externalResponse);
+    }
+
+    @Override
+    public void onCompleted(OutboxEvent event) {
+        participantService.completeProvisioning(event.getAggregateId());
+    }
+
+    @Override
+    public void onFailed(OutboxEvent event, String errorMessage) {
+        participantService.failProvisioning(event.getAggregateId(), errorMessage, true);
+    }
+}
@@ -0,0 +1,54 @@
+package edc.service.provisioning;
+
+import edc.config.ProvisioningProperties;
+import edc.service.ParticipantService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Fails the provisionings whose after-commit step was lost: {@link ParticipantProvisioningWorker} runs in memory, so
+ * when the instance stops between the commit of a participant and the enqueue of its provisioner call, nothing drives
+ * the participant out of PROVISION_IN_PROGRESS. Once older than app.provisioning.stale-after with no outbox event,
+ * the participant is marked PROVISION_FAILED, like any other failed provisioning (its name stays taken).
+ * A Keycloak user created just before the stop is not known here (the request is not persisted) and stays in Keycloak.
+ * A step that was only slow finds the participant failed when it completes and removes the user it created.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ParticipantProvisioningReconciler {
+
+    private final ParticipantService participantService;
+    private final ProvisioningProperties provisioningProperties;
+
+    @Scheduled(initialDelayString = "${app.provisioning.reconcile-interval:5m}",
+               fixedDelayString = "${app.provisioning.reconcile-interval:5m}")
+    public void failStaleProvisionings() {
+        OffsetDateTime createdBefore = OffsetDateTime.now(ZoneOffset.UTC).minus(provisioningProperties.getStaleAfter());
+        List<String> externalIds;
+        try {
+            externalIds = participantService.findStaleProvisionings(createdBefore, provisioningProperties.getReconcileBatchSize());
+        } catch (Exception e) {
+            log.warn("Unable to look up stale provisionings: {}", e.getMessage());
+            return;
+        }
+
+        for (String externalId : externalIds) {
+            try {
+                if (participantService.failStaleProvisioning(externalId,
+                        "Provisioning interrupted before the participant user was created")) {
+                    log.warn("Participant {} was still waiting for its user after {}, marked PROVISION_FAILED",
+                            externalId, provisioningProperties.getStaleAfter());
+                }
+            } catch (Exception e) {
+                log.error("Unable to fail stale provisioning of participant {}: {}", externalId, e.getMessage(), e);
+            }
+        }
+    }
+}
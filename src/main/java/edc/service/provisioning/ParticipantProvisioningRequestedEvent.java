@@ -0,0 +1,24 @@
+package edc.service.provisioning;
+
+import lombok.Builder;
+import lombok.ToString;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Published when a participant with a user has been stored as PROVISION_IN_PROGRESS; handled after commit by
+ * {@link ParticipantProvisioningWorker}. The user password only lives in memory, it is never persisted in clear.
+ */
+@Value
+@Builder
+public class ParticipantProvisioningRequestedEvent {
+
+    String participantExternalId;
+    String participantName;
+    String tenantName;
+    String username;
+    @ToString.Exclude
+    String password;
+    Map<String, Object> userMetadata;
+}
@@ -0,0 +1,119 @@
+package edc.service.provisioning;
+
+import edc.config.AsyncConfig;
+import edc.config.KeycloakProperties;
+import edc.config.security.roles.RoleConfig;
+import edc.service.KeycloakAdminService;
+import edc.service.ParticipantService;
+import edc.service.PasswordHashingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Creates the participant user on Keycloak off the request thread, once the PROVISION_IN_PROGRESS participant is committed:
+ * - Hashes the user password on the hashing pool (the clear password is never persisted), retrying for a while when its
+ *   queue is full, then creates the Keycloak user
+ * - Stores the participant user and enqueues the provisioner call in the outbox, in one transaction
+ * - Marks the participant PROVISION_FAILED if any of this fails
+ * No transaction or DB connection is held while Keycloak is called.
+ * The step lives in memory only: if the instance stops before it completes, {@link ParticipantProvisioningReconciler}
+ * marks the participant PROVISION_FAILED once it is stale.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ParticipantProvisioningWorker {
+
+    // a full hashing queue drains in a few hash durations
+    private static final int HASH_ATTEMPTS = 5;
+    private static final Duration HASH_RETRY_DELAY = Duration.ofMillis(200);
+
+    private final KeycloakAdminService keycloakAdminService;
+    private final KeycloakProperties keycloakProperties;
+    private final RoleConfig roleConfig;
+    private final ParticipantService participantService;
+    private final PasswordHashingService passwordHashingService;
+
+    @Value("${app.security.realmName:edc}")
+    public String realmName;
+
+    @Async(AsyncConfig.PROVISIONING_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProvisioningRequested(ParticipantProvisioningRequestedEvent event) {
+        String participantName = event.getParticipantName();
+        boolean keycloakUserCreated = false;
+
+        try {
+            // hashed first: a hash that cannot be computed leaves nothing to roll back on Keycloak
+            String passwordHash = encodePassword(event);
+
+            //create participant user on kk
+            keycloakAdminService.createUserWithRealmRolesAndClaim(realmName,
+                    event.getUsername(),
+                    event.getPassword(),
+                    keycloakProperties.getTenantKey(),
+                    event.getTenantName(),
+                    List.of(roleConfig.ROLE_USER_PARTICIPANT));
+            keycloakUserCreated = true;
+            log.info("Created Keycloak user {} for participant {}", event.getUsername(), participantName);
+
+            if (!participantService.registerParticipantUser(event.getParticipantExternalId(),
+                    event.getUsername(),
+                    passwordHash,
+                    event.getUserMetadata())) {
+                // failed as stale while this step was running, the participant is not provisioned
+                log.warn("Participant {} is no longer being provisioned, removing Keycloak user {}", participantName, event.getUsername());
+                try {
+                    keycloakAdminService.deleteUserByUsername(realmName, event.getUsername());
+                } catch (Exception ex) {
+                    log.error("Failed to remove Keycloak user {} of participant {}: {}", event.getUsername(), participantName, ex.getMessage(), ex);
+                }
+            }
+
+        } catch (Exception e) {
+            log.error("Failed to create user {} for participant {}: {}", event.getUsername(), participantName, e.getMessage(), e);
+            if (keycloakUserCreated) {
+                try {
+                    keycloakAdminService.deleteUserByUsername(realmName, event.getUsername());
+                } catch (Exception ex) {
+                    log.error("Failed to rollback Keycloak user {} for participant {}: {}", event.getUsername(), participantName, ex.getMessage(), ex);
+                }
+            }
+
+            try {
+                // the provisioner has not been called yet, nothing to roll back there
+                participantService.failProvisioning(event.getParticipantExternalId(), e.getMessage(), false);
+            } catch (Exception ex) {
+                log.error("Failed to record provisioning failure for participant {}: {}", participantName, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Hashes the user password, waiting on this (virtual) thread while the hashing queue is full; the provisioning
+     * fails only if the queue stays full for all the attempts.
+     */
+    private String encodePassword(ParticipantProvisioningRequestedEvent event) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return passwordHashingService.encode(event.getPassword());
+            } catch (RejectedExecutionException e) {
+                if (attempt >= HASH_ATTEMPTS) {
+                    throw new IllegalStateException("Password hashing queue full, user " + event.getUsername() + " not created", e);
+                }
+                log.debug("Password hashing queue full for participant {}, retrying (attempt {}/{})",
+                        event.getParticipantName(), attempt, HASH_ATTEMPTS);
+                Thread.sleep(HASH_RETRY_DELAY.toMillis() * attempt);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package edc.service.resilience;
+
+import edc.config.ExternalApiProperties;
+import edc.exception.CircuitOpenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Count-based circuit breaker of one downstream:
+ * - CLOSED: calls go through; the outcomes of the last sliding-window-size calls are kept and, once
+ *   minimum-calls are recorded, a failure rate at or above failure-rate-threshold opens the circuit
+ * - OPEN: calls fail at once with {@link CircuitOpenException} for open-duration
+ * - HALF_OPEN: half-open-calls trial calls go through, one failure opens the circuit again, all
+ *   successful close it
+ * Only exceptions matching the failure predicate count as failures, the others as successes.
+ * Meters, tagged name and the given tags: resilience.circuitbreaker.state (0 closed, 1 open, 2 half open),
+ * resilience.circuitbreaker.failure.rate, resilience.circuitbreaker.calls{outcome}.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final ExternalApiProperties.CircuitBreaker config;
+    private final Predicate<Throwable> recordFailure;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // ring buffer of the last calls, true = failure
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final Counter successes;
+    private final Counter failed;
+    private final Counter rejected;
+    private final List<Meter> meters;
+
+    public CircuitBreaker(String name, ExternalApiProperties.CircuitBreaker config,
+                          Predicate<Throwable> recordFailure, MeterRegistry meterRegistry) {
+        this(name, Tags.empty(), config, recordFailure, meterRegistry);
+    }
+
+    public CircuitBreaker(String name, Tags tags, ExternalApiProperties.CircuitBreaker config,
+                          Predicate<Throwable> recordFailure, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.config = config;
+        this.recordFailure = recordFailure;
+        this.outcomes = new boolean[config.getSlidingWindowSize()];
+
+        Tags meterTags = tags.and("name", name);
+        Gauge state = Gauge.builder("resilience.circuitbreaker.state", this, cb -> cb.state.ordinal())
+                .description("Circuit state: 0 closed, 1 open, 2 half open")
+                .tags(meterTags)
+                .register(meterRegistry);
+        Gauge failureRate = Gauge.builder("resilience.circuitbreaker.failure.rate", this, CircuitBreaker::failureRate)
+                .description("Failure rate of the calls in the sliding window")
+                .tags(meterTags)
+                .register(meterRegistry);
+        this.successes = callCounter(meterTags, "success").register(meterRegistry);
+        this.failed = callCounter(meterTags, "failure").register(meterRegistry);
+        this.rejected = callCounter(meterTags, "rejected").register(meterRegistry);
+        this.meters = List.of(state, failureRate, successes, failed, rejected);
+    }
+
+    /**
+     * Removes the meters of a breaker that is no longer used.
+     */
+    public void removeMeters(MeterRegistry meterRegistry) {
+        meters.forEach(meterRegistry::remove);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        acquirePermission();
+        // anything else than a result or a RuntimeException (an Error, a sneaky checked exception) is a failure: every
+        // call gives its outcome back, a half open permit is never lost
+        boolean failure = true;
+        try {
+            T result = call.get();
+            failure = false;
+            return result;
+        } catch (RuntimeException e) {
+            failure = recordFailure.test(e);
+            throw e;
+        } finally {
+            onResult(failure);
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAtNanos >= config.getOpenDuration().toNanos()) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+                halfOpenPermits--;
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        rejected.increment();
+        throw new CircuitOpenException("Circuit breaker of " + name + " is open, call not sent");
+    }
+
+    private void onResult(boolean failure) {
+        (failure ? failed : successes).increment();
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED -> {
+                    record(failure);
+                    if (recorded >= config.getMinimumCalls()
+                            && failureRate() >= config.getFailureRateThreshold()) {
+                        transition(State.OPEN);
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (failure) {
+                        transition(State.OPEN);
+                    } else if (++halfOpenSuccesses >= config.getHalfOpenCalls()) {
+                        transition(State.CLOSED);
+                    }
+                }
+                case OPEN -> {
+                    // late outcome of a call started before the circuit opened
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private double failureRate() {
+        int calls = recorded;
+        return calls == 0 ? 0 : failures * 100.0 / calls;
+    }
+
+    private void transition(State target) {
+        log.warn("Circuit breaker {}: {} -> {} (failure rate {}%)", name, state, target, String.format("%.1f", failureRate()));
+        state = target;
+        switch (target) {
+            case OPEN -> openedAtNanos = System.nanoTime();
+            case HALF_OPEN -> {
+                halfOpenPermits = config.getHalfOpenCalls();
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                recorded = 0;
+                next = 0;
+                failures = 0;
+            }
+        }
+    }
+
+    private static Counter.Builder callCounter(Tags tags, String outcome) {
+        return Counter.builder("resilience.circuitbreaker.calls")
+                .description("Calls through the circuit breaker")
+                .tags(tags)
+                .tag("outcome", outcome);
+    }
+}
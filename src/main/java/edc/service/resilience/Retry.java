@@ -0,0 +1,78 @@
+package edc.service.resilience;
+
+import edc.config.ExternalApiProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Retries idempotent calls that failed with a retryable exception, up to max-attempts, waiting an
+ * exponential backoff with full jitter (random between 0 and initial-backoff * 2^(attempt-1), capped
+ * at max-backoff) between attempts.
+ * Meter, tagged name: resilience.retry.calls{outcome=success|success_after_retry|failure}.
+ */
+@Slf4j
+public class Retry {
+
+    private final String name;
+    private final ExternalApiProperties.Retry config;
+    private final Predicate<Throwable> retryable;
+
+    private final Counter success;
+    private final Counter successAfterRetry;
+    private final Counter failure;
+
+    public Retry(String name, ExternalApiProperties.Retry config, Predicate<Throwable> retryable, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.config = config;
+        this.retryable = retryable;
+        this.success = callCounter(name, "success").register(meterRegistry);
+        this.successAfterRetry = callCounter(name, "success_after_retry").register(meterRegistry);
+        this.failure = callCounter(name, "failure").register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = call.get();
+                (attempt == 1 ? success : successAfterRetry).increment();
+                return result;
+            } catch (RuntimeException e) {
+                if (attempt >= config.getMaxAttempts() || !retryable.test(e)) {
+                    failure.increment();
+                    throw e;
+                }
+                long backoffMillis = backoffMillis(attempt);
+                log.info("Call to {} failed (attempt {}/{}): {}, retrying in {} ms",
+                        name, attempt, config.getMaxAttempts(), e.getMessage(), backoffMillis);
+                sleep(backoffMillis, e);
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(config.getMaxBackoff().toMillis(),
+                config.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis, RuntimeException failure) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    private static Counter.Builder callCounter(String name, String outcome) {
+        return Counter.builder("resilience.retry.calls")
+                .description("Calls through the retry")
+                .tag("name", name)
+                .tag("outcome", outcome);
+    }
+}
@@ -0,0 +1,54 @@
+package edc.util;
+
+import edc.exception.InvalidCursorException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Keyset position: (created_at, id) of the last row returned and the direction of the listing it was returned by,
+ * exchanged with clients as an opaque string.
+ */
+public record Cursor(OffsetDateTime createdAt, Integer id, Sort.Direction direction) {
+
+    private static final String SEPARATOR = "|";
+
+    public static Cursor of(KeysetRow row, Sort.Direction direction) {
+        return new Cursor(row.getCreatedAt(), row.getId(), direction);
+    }
+
+    public String encode() {
+        String value = createdAt.toInstant() + SEPARATOR + id + SEPARATOR + direction;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = value.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("expected 3 parts, got " + parts.length);
+            }
+            return new Cursor(Instant.parse(parts[0]).atOffset(ZoneOffset.UTC),
+                    Integer.valueOf(parts[1]),
+                    Sort.Direction.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Decodes a cursor and checks that it continues a listing in the given direction.
+     */
+    public static Cursor decode(String cursor, Sort.Direction direction) {
+        Cursor decoded = decode(cursor);
+        if (decoded.direction() != direction) {
+            throw new InvalidCursorException("Cursor was issued for order " + decoded.direction() + ", not " + direction);
+        }
+        return decoded;
+    }
+}
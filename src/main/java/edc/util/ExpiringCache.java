@@ -0,0 +1,247 @@
+package edc.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process cache with a size bound and per-entry expiry.
+ * Reads are lock-free; when the cache grows past its maximum size, expired entries are dropped first
+ * and then the least recently accessed ones, down to 90% of the bound.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class ExpiringCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final int maximumSize;
+    private final Duration defaultTtl;
+    private final BiConsumer<K, V> evictionListener;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(int maximumSize, Duration defaultTtl) {
+        this(maximumSize, defaultTtl, null);
+    }
+
+    /**
+     * @param maximumSize      maximum number of entries kept
+     * @param defaultTtl       time to live of entries stored without an explicit expiry
+     * @param evictionListener called for entries removed because of size or expiry (not for explicit invalidation),
+     *                         under the lock of the key: a load of the same key by {@link #computeIfAbsent} waits for
+     *                         it; it must not use the cache
+     */
+    public ExpiringCache(int maximumSize, Duration defaultTtl, BiConsumer<K, V> evictionListener) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache maximum size must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.defaultTtl = defaultTtl;
+        this.evictionListener = evictionListener;
+    }
+
+    public Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (entry.isExpired(now)) {
+            misses.increment();
+            removeEvicted(key, entry);
+            return Optional.empty();
+        }
+        entry.lastAccess = now;
+        hits.increment();
+        return Optional.of(entry.value);
+    }
+
+    /**
+     * Returns the cached value or loads, stores and returns a new one. Concurrent misses for the same key
+     * may load more than once; the last loaded value wins.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Optional<V> cached = get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value or loads, stores and returns a new one; concurrent misses for the same key wait for a
+     * single load. The loader runs under the lock of the key: it must be short, without I/O, and must not use the cache.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        Optional<V> cached = get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long now = System.nanoTime();
+        Entry<V> entry = entries.compute(key, (k, existing) -> {
+            if (existing != null) {
+                if (!existing.isExpired(now)) {
+                    // loaded by a concurrent miss
+                    return existing;
+                }
+                evicted(k, existing);
+            }
+            V value = loader.apply(k);
+            return value != null ? new Entry<>(value, now + defaultTtl.toNanos(), now) : null;
+        });
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+        return entry != null ? entry.value : null;
+    }
+
+    public void put(K key, V value) {
+        store(key, value, System.nanoTime() + defaultTtl.toNanos());
+    }
+
+    /**
+     * Stores a value that expires at the given instant instead of after the default time to live.
+     */
+    public void put(K key, V value, Instant expiresAt) {
+        long remainingNanos = Duration.between(Instant.now(), expiresAt).toNanos();
+        if (remainingNanos <= 0) {
+            return;
+        }
+        store(key, value, System.nanoTime() + remainingNanos);
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<? super K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Registers size, hit, miss and eviction meters under the given name.
+     */
+    public ExpiringCache<K, V> registerMetrics(MeterRegistry registry, String name) {
+        Gauge.builder(name + ".size", entries, Map::size)
+                .description("Number of entries in the cache")
+                .register(registry);
+        FunctionCounter.builder(name + ".requests", hits, LongAdder::sum)
+                .description("Cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(name + ".requests", misses, LongAdder::sum)
+                .description("Cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(name + ".evictions", evictions, LongAdder::sum)
+                .description("Entries evicted because of size or expiry")
+                .register(registry);
+        return this;
+    }
+
+    private void store(K key, V value, long expiresAtNanos) {
+        entries.put(key, new Entry<>(value, expiresAtNanos, System.nanoTime()));
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            // another thread is already shrinking the cache
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            entries.forEach((key, entry) -> {
+                if (entry.isExpired(now)) {
+                    removeEvicted(key, entry);
+                }
+            });
+
+            int target = Math.max(1, (int) (maximumSize * 0.9));
+            int excess = entries.size() - target;
+            if (excess > 0) {
+                // snapshot access times first, they keep changing while the cache is read
+                entries.entrySet().stream()
+                        .map(e -> new EvictionCandidate<>(e.getKey(), e.getValue(), e.getValue().lastAccess))
+                        .sorted(Comparator.comparingLong(EvictionCandidate::lastAccess))
+                        .limit(excess)
+                        .toList()
+                        .forEach(candidate -> removeEvicted(candidate.key(), candidate.entry()));
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry if still mapped and notifies the listener under the lock of the key, so that a replacement
+     * loaded by {@link #computeIfAbsent} comes after the listener.
+     */
+    private void removeEvicted(K key, Entry<V> entry) {
+        entries.computeIfPresent(key, (k, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            evicted(k, current);
+            return null;
+        });
+    }
+
+    private void evicted(K key, Entry<V> entry) {
+        evictions.increment();
+        if (evictionListener != null) {
+            evictionListener.accept(key, entry.value);
+        }
+    }
+
+    private record EvictionCandidate<K, V>(K key, Entry<V> entry, long lastAccess) {
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+        private volatile long lastAccess;
+
+        private Entry(V value, long expiresAtNanos, long lastAccess) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+            this.lastAccess = lastAccess;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
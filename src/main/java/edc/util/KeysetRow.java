@@ -0,0 +1,13 @@
+package edc.util;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Row of a keyset page, entity or projection: its (created_at, id) is the position of the next page.
+ */
+public interface KeysetRow {
+
+    OffsetDateTime getCreatedAt();
+
+    Integer getId();
+}
@@ -0,0 +1,45 @@
+package edc.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Requested page of a list endpoint:
+ * - offset mode (no cursor parameter): page number and limit, with the total computed as requested by withTotal
+ * - keyset mode (cursor parameter, empty for the first page): rows after the cursor, ordered by (created_at, id) in the
+ *   requested direction, never a total; the cursor must have been issued for the same direction
+ * @param page zero-based page number, offset mode only
+ * @param limit maximum number of rows
+ * @param keyset true in keyset mode
+ * @param after position to continue from, null for the first keyset page
+ * @param totalMode how the total is computed, offset mode only
+ * @param direction order of (created_at, id)
+ */
+public record PageQuery(int page, int limit, boolean keyset, Cursor after, TotalMode totalMode, Sort.Direction direction) {
+
+    public static PageQuery of(int page, int limit, String cursor) {
+        return of(page, limit, cursor, TotalMode.EXACT, Sort.Direction.ASC);
+    }
+
+    public static PageQuery of(int page, int limit, String cursor, TotalMode totalMode, Sort.Direction direction) {
+        if (cursor == null) {
+            return new PageQuery(page, limit, false, null, totalMode, direction);
+        }
+        return new PageQuery(0, limit, true, cursor.isBlank() ? null : Cursor.decode(cursor, direction), TotalMode.FALSE, direction);
+    }
+
+    /**
+     * Offset page ordered by (created_at, id) in the requested direction.
+     */
+    public Pageable pageable() {
+        return PageRequest.of(page, limit, Sort.by(direction, "createdAt", "id"));
+    }
+
+    /**
+     * One row more than the limit, to know whether a next page exists without counting.
+     */
+    public Pageable keysetPageable() {
+        return PageRequest.of(0, limit + 1);
+    }
+}
@@ -0,0 +1,57 @@
+package edc.util;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a list endpoint, either from an offset query or from a keyset query (with next cursor).
+ * @param total total number of rows, null when not computed
+ * @param totalEstimated true when total comes from the estimate cache and may be slightly off
+ * @param nextCursor cursor of the next keyset page, null when there is none (or in offset mode)
+ */
+public record PageResult<T>(List<T> content, int page, int limit, boolean keyset, Long total, boolean totalEstimated,
+                            boolean hasNext, String nextCursor) {
+
+    public static <T> PageResult<T> of(Page<T> page) {
+        return new PageResult<>(page.getContent(), page.getNumber(), page.getSize(), false,
+                page.getTotalElements(), false, page.hasNext(), null);
+    }
+
+    public static <T> PageResult<T> of(Slice<T> slice) {
+        return new PageResult<>(slice.getContent(), slice.getNumber(), slice.getSize(), false,
+                null, false, slice.hasNext(), null);
+    }
+
+    /**
+     * Builds a keyset page from rows fetched with {@link PageQuery#keysetPageable()} (limit + 1 rows) in the query direction.
+     */
+    public static <T extends KeysetRow> PageResult<T> keyset(List<T> rows, PageQuery query) {
+        int limit = query.limit();
+        boolean hasNext = rows.size() > limit;
+        List<T> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? Cursor.of(content.get(content.size() - 1), query.direction()).encode() : null;
+        return new PageResult<>(content, 0, limit, true, null, false, hasNext, nextCursor);
+    }
+
+    public static <T> PageResult<T> empty(PageQuery query) {
+        Long total = query.keyset() || query.totalMode() == TotalMode.FALSE ? null : 0L;
+        return new PageResult<>(List.of(), query.page(), query.limit(), query.keyset(), total,
+                false, false, null);
+    }
+
+    public PageResult<T> withEstimatedTotal(long estimatedTotal) {
+        return new PageResult<>(content, page, limit, keyset, estimatedTotal, true, hasNext, nextCursor);
+    }
+
+    public <R> PageResult<R> map(Function<? super T, ? extends R> converter) {
+        List<R> mapped = content.stream().<R>map(converter).toList();
+        return new PageResult<>(mapped, page, limit, keyset, total, totalEstimated, hasNext, nextCursor);
+    }
+
+    public int count() {
+        return content.size();
+    }
+}
@@ -29,8 +29,9 @@ public class PageUtils {
   private static Sort checkOrder(List<String> orderBy, Sort.Direction order) {
     if (!orderBy.isEmpty()) {
       final List<Sort.Order> orders = new ArrayList<>();
-      orderBy.forEach(
-          s -> orders.add(order.isAscending() ? Sort.Order.asc(s) : Sort.Order.desc(s)));
+      orderBy.stream()
+          .map(PageUtils::toPropertyName)
+          .forEach(s -> orders.add(order.isAscending() ? Sort.Order.asc(s) : Sort.Order.desc(s)));
       if (!orders.isEmpty()) {
         //return Sort.by(orders).and(Sort.by(CREATED_AT_COLUMN).descending());
         return Sort.by(orders);
@@ -39,6 +40,24 @@ public class PageUtils {
     return Sort.unsorted();
   }
 
+  /**
+   * List queries are JPQL projections sorted by entity attribute: a column name (created_at) is accepted as well as the
+   * attribute name (createdAt).
+   */
+  private static String toPropertyName(String orderBy) {
+    StringBuilder property = new StringBuilder(orderBy.length());
+    boolean upper = false;
+    for (char c : orderBy.toCharArray()) {
+      if (c == '_') {
+        upper = property.length() > 0;
+      } else {
+        property.append(upper ? Character.toUpperCase(c) : c);
+        upper = false;
+      }
+    }
+    return property.toString();
+  }
+
   public static HttpHeaders setPaginationHeaders(Page<?> page) {
     final HttpHeaders headers = new HttpHeaders();
     headers.add("x-page", String.valueOf(page.getPageable().getPageNumber()));
@@ -48,6 +67,34 @@ public class PageUtils {
     return headers;
   }
 
+  /**
+   * Headers of a list page:
+   * - offset pages: x-page, x-limit, x-count, x-total when a total was computed (plus x-total-estimated when it comes
+   *   from the estimate cache) and x-has-next when the total is absent or estimated
+   * - keyset pages: x-limit, x-count, x-has-next and, when there is a next page, x-next-cursor
+   */
+  public static HttpHeaders setPaginationHeaders(PageResult<?> page) {
+    final HttpHeaders headers = new HttpHeaders();
+    if (!page.keyset()) {
+      headers.add("x-page", String.valueOf(page.page()));
+    }
+    if (page.total() != null) {
+      headers.add("x-total", String.valueOf(page.total()));
+    }
+    if (page.totalEstimated()) {
+      headers.add("x-total-estimated", "true");
+    }
+    headers.add("x-count", String.valueOf(page.count()));
+    headers.add("x-limit", String.valueOf(page.limit()));
+    if (page.total() == null || page.totalEstimated()) {
+      headers.add("x-has-next", String.valueOf(page.hasNext()));
+    }
+    if (page.nextCursor() != null) {
+      headers.add("x-next-cursor", page.nextCursor());
+    }
+    return headers;
+  }
+
   public static <T> Specification<T> getSpecification(
       Map<String, String> filters, String q, String... searchFields) {
     return (root, query, cb) -> {
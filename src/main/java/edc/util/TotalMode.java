@@ -0,0 +1,32 @@
+package edc.util;
+
+/**
+ * How the total of an offset page is computed (withTotal query parameter):
+ * - EXACT: COUNT query on every page (default, previous behaviour)
+ * - FALSE: no total, the page is read as a slice and only x-has-next is returned
+ * - ESTIMATE: cached total per listing and filter, recounted in the background once it gets old
+ */
+public enum TotalMode {
+    FALSE("false"),
+    EXACT("exact"),
+    ESTIMATE("estimate");
+
+    private final String value;
+
+    TotalMode(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static TotalMode fromValue(String value) {
+        for (TotalMode mode : TotalMode.values()) {
+            if (mode.value.equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown withTotal value: " + value + " (expected false, exact or estimate)");
+    }
+}
@@ -0,0 +1,35 @@
+package edc.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562): 48 bits of Unix epoch milliseconds followed by 74 random bits.
+ * Ids generated later sort after earlier ones (to the millisecond), so new rows are appended to the end of the
+ * external_id indexes instead of being spread over the whole B-tree as with random (version 4) UUIDs.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private UuidV7() {
+    }
+
+    public static UUID randomUUID() {
+        return at(System.currentTimeMillis());
+    }
+
+    static UUID at(long epochMillis) {
+        byte[] random = new byte[10];
+        RANDOM.nextBytes(random);
+        long msb = (epochMillis & 0xFFFF_FFFF_FFFFL) << 16
+                | 0x7000L
+                | (random[0] & 0x0FL) << 8
+                | (random[1] & 0xFFL);
+        long lsb = 0x8000_0000_0000_0000L | (random[2] & 0x3FL) << 56;
+        for (int i = 3; i < 10; i++) {
+            lsb |= (random[i] & 0xFFL) << (8 * (9 - i));
+        }
+        return new UUID(msb, lsb);
+    }
+}
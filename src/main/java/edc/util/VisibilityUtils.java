@@ -30,7 +30,7 @@ public class VisibilityUtils {
         String claimValue = jwt.getClaim(claimName);
         log.debug("Getting claim : {}", claimName);
         if (claimValue == null || claimValue.isEmpty()) {
-            log.info("Access denied: {} claim is missing in JWT", claimName);
+            log.debug("Claim {} is missing in JWT", claimName);
             return Optional.empty();
         }
         return Optional.of(claimValue);
@@ -0,0 +1,16 @@
+-- external_id of credentials and provisioning_operations stored as BINARY(16) (see edc.entity.UuidBinaryConverter),
+-- the API keeps the canonical string form. Existing (version 4) ids are converted as they are, new ones are
+-- time-ordered version 7 UUIDs. Run once, while the application is stopped; each ALTER rebuilds its table.
+ALTER TABLE credentials ADD COLUMN external_id_bin BINARY(16) NULL AFTER external_id;
+UPDATE credentials SET external_id_bin = UUID_TO_BIN(external_id);
+ALTER TABLE credentials DROP COLUMN external_id;
+ALTER TABLE credentials
+    CHANGE COLUMN external_id_bin external_id BINARY(16) NOT NULL,
+    ADD UNIQUE INDEX uk_credentials_external_id (external_id);
+
+ALTER TABLE provisioning_operations ADD COLUMN external_id_bin BINARY(16) NULL AFTER external_id;
+UPDATE provisioning_operations SET external_id_bin = UUID_TO_BIN(external_id);
+ALTER TABLE provisioning_operations DROP COLUMN external_id;
+ALTER TABLE provisioning_operations
+    CHANGE COLUMN external_id_bin external_id BINARY(16) NOT NULL,
+    ADD UNIQUE INDEX uk_operations_external_id (external_id);
@@ -0,0 +1,19 @@
+-- Responses of requests sent with an Idempotency-Key header (see edc.entity.IdempotencyRecord).
+-- Expired rows are removed by IdempotencyService.purgeExpired.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id              INT           NOT NULL AUTO_INCREMENT,
+    scope           VARCHAR(255)  NOT NULL,
+    idempotency_key VARCHAR(255)  NOT NULL,
+    request_hash    VARCHAR(64)   NOT NULL,
+    status          VARCHAR(32)   NOT NULL,
+    response_status INT           NULL,
+    response_body   JSON          NULL,
+    location        VARCHAR(1000) NULL,
+    locked_until    DATETIME(6)   NULL,
+    expires_at      DATETIME(6)   NOT NULL,
+    created_at      DATETIME(6)   NOT NULL,
+    updated_at      DATETIME(6)   NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_idempotency_scope_key (scope, idempotency_key),
+    INDEX idx_idempotency_expires_at (expires_at)
+);
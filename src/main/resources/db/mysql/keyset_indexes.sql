@@ -0,0 +1,5 @@
+-- Indexes for keyset (cursor) pagination: each list seeks on (created_at, id) within its filter column.
+CREATE INDEX idx_participants_created_at_id ON participants (created_at, id);
+CREATE INDEX idx_participants_tenant_created_at_id ON participants (tenant_id, created_at, id);
+CREATE INDEX idx_credentials_participant_created_at_id ON credentials (participant_id, created_at, id);
+CREATE INDEX idx_operations_participant_created_at_id ON provisioning_operations (participant_id, created_at, id);
@@ -0,0 +1,20 @@
+-- Transactional outbox drained by OutboxRelay (see edc.entity.OutboxEvent).
+-- FOR UPDATE SKIP LOCKED requires MySQL 8.0+.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id              INT           NOT NULL AUTO_INCREMENT,
+    event_type      VARCHAR(64)   NOT NULL,
+    aggregate_id    VARCHAR(255)  NOT NULL,
+    payload         JSON          NULL,
+    status          VARCHAR(32)   NOT NULL,
+    attempts        INT           NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6)   NOT NULL,
+    locked_by       VARCHAR(255)  NULL,
+    locked_until    DATETIME(6)   NULL,
+    last_error      VARCHAR(1000) NULL,
+    completed_at    DATETIME(6)   NULL,
+    created_at      DATETIME(6)   NOT NULL,
+    updated_at      DATETIME(6)   NULL,
+    PRIMARY KEY (id),
+    INDEX idx_outbox_status_next_attempt (status, next_attempt_at),
+    INDEX idx_outbox_aggregate_id (aggregate_id)
+);
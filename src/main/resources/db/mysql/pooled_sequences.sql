@@ -0,0 +1,19 @@
+-- Pooled id sequences of participants, participant_users and credentials (see edc.entity.BaseEntity).
+-- MySQL has no sequences: Hibernate emulates each one with a one-row table and takes 50 ids per round trip
+-- (allocationSize), which lets it batch the inserts; the AUTO_INCREMENT of the id columns is left in place but unused.
+-- With the pooled optimizer the stored value is the upper bound of the next block of 50 ids, so it starts 50 above
+-- the highest existing id. Run once, while the application is stopped.
+CREATE TABLE IF NOT EXISTS participants_seq (next_val BIGINT);
+INSERT INTO participants_seq (next_val)
+    SELECT next_val FROM (SELECT COALESCE(MAX(id), 0) + 51 AS next_val FROM participants) m
+    WHERE NOT EXISTS (SELECT 1 FROM participants_seq);
+
+CREATE TABLE IF NOT EXISTS participant_users_seq (next_val BIGINT);
+INSERT INTO participant_users_seq (next_val)
+    SELECT next_val FROM (SELECT COALESCE(MAX(id), 0) + 51 AS next_val FROM participant_users) m
+    WHERE NOT EXISTS (SELECT 1 FROM participant_users_seq);
+
+CREATE TABLE IF NOT EXISTS credentials_seq (next_val BIGINT);
+INSERT INTO credentials_seq (next_val)
+    SELECT next_val FROM (SELECT COALESCE(MAX(id), 0) + 51 AS next_val FROM credentials) m
+    WHERE NOT EXISTS (SELECT 1 FROM credentials_seq);
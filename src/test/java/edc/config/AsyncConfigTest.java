@@ -0,0 +1,50 @@
+package edc.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncConfigTest {
+
+    @Test
+    void provisioningBeyondMaxConcurrencyWaitsWithoutBlockingTheSubmitter() throws InterruptedException {
+        ProvisioningProperties provisioningProperties = new ProvisioningProperties();
+        provisioningProperties.setMaxConcurrency(2);
+        AsyncConfig asyncConfig = new AsyncConfig(provisioningProperties, new OutboxProperties(), new PaginationProperties(),
+                new MockEnvironment());
+        SimpleAsyncTaskExecutor executor = asyncConfig.provisioningExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(10);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Thread.sleep(100);
+
+        assertThat(submitMillis).isLessThan(1_000);
+        assertThat(maxRunning).hasValue(2);
+        release.countDown();
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning).hasValue(2);
+    }
+}
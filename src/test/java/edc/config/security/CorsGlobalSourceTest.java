@@ -0,0 +1,75 @@
+package edc.config.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.cors.CorsConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorsGlobalSourceTest {
+
+    private static final String[] ORIGINS = {"http://localhost:4200", "https://*.organization.io"};
+    private static final String[] HEADERS = {"Access-Control-Allow-Origin", "Content-Type", "Authorization", "x-total"};
+    private static final String[] METHODS = {"GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"};
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/v1/participants");
+
+    @Test
+    void sameConfigurationIsReturnedForEveryRequest() {
+        CorsGlobalSource source = corsGlobalSource(false);
+
+        assertThat(source.getCorsConfiguration(request))
+                .isSameAs(source.getCorsConfiguration(new MockHttpServletRequest("GET", "/v1/tenants")));
+    }
+
+    @Test
+    void configuredOriginIsAllowed() {
+        CorsConfiguration configuration = corsGlobalSource(false).getCorsConfiguration(request);
+
+        assertThat(configuration.checkOrigin("http://localhost:4200")).isEqualTo("http://localhost:4200");
+        assertThat(configuration.getAllowCredentials()).isTrue();
+        assertThat(configuration.getAllowedMethods()).containsExactly(METHODS);
+        assertThat(configuration.getExposedHeaders()).containsExactly(HEADERS);
+        assertThat(configuration.getMaxAge()).isEqualTo(3600L);
+    }
+
+    @Test
+    void originMatchingAPatternIsAllowed() {
+        CorsConfiguration configuration = corsGlobalSource(false).getCorsConfiguration(request);
+
+        assertThat(configuration.checkOrigin("https://portal.organization.io")).isEqualTo("https://portal.organization.io");
+        // second check answered from the origin cache
+        assertThat(configuration.checkOrigin("https://portal.organization.io")).isEqualTo("https://portal.organization.io");
+    }
+
+    @Test
+    void foreignOriginIsRejected() {
+        CorsConfiguration configuration = corsGlobalSource(false).getCorsConfiguration(request);
+
+        assertThat(configuration.checkOrigin("https://evil.example")).isNull();
+        assertThat(configuration.checkOrigin("https://evil.example")).isNull();
+        assertThat(configuration.checkOrigin("http://portal.organization.io")).isNull();
+        assertThat(configuration.checkOrigin(null)).isNull();
+    }
+
+    @Test
+    void globalCorsAllowsAnyOriginWithoutCredentials() {
+        CorsConfiguration configuration = corsGlobalSource(true).getCorsConfiguration(request);
+
+        assertThat(configuration.checkOrigin("https://evil.example")).isEqualTo("https://evil.example");
+        assertThat(configuration.getAllowCredentials()).isFalse();
+    }
+
+    private static CorsGlobalSource corsGlobalSource(boolean enableGlobalCors) {
+        CorsGlobalSource source = new CorsGlobalSource();
+        ReflectionTestUtils.setField(source, "enableGlobalCors", enableGlobalCors);
+        ReflectionTestUtils.setField(source, "origins", ORIGINS);
+        ReflectionTestUtils.setField(source, "exposeHeaders", HEADERS);
+        ReflectionTestUtils.setField(source, "methods", METHODS);
+        ReflectionTestUtils.setField(source, "maxAge", 3600L);
+        ReflectionTestUtils.setField(source, "originCacheSize", 1000);
+        source.init();
+        return source;
+    }
+}
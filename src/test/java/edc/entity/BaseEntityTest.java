@@ -0,0 +1,100 @@
+package edc.entity;
+
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class BaseEntityTest {
+
+    @Test
+    void entitiesOfTheSameClassAndIdAreEqual() {
+        Participant participant = participant(1, "acme");
+        Participant sameRow = participant(1, "acme renamed");
+
+        assertThat(participant).isEqualTo(sameRow);
+        assertThat(participant).hasSameHashCodeAs(sameRow);
+    }
+
+    @Test
+    void entitiesWithDifferentIdsAreNotEqual() {
+        assertThat(participant(1, "acme")).isNotEqualTo(participant(2, "acme"));
+    }
+
+    @Test
+    void entityNotSavedYetIsOnlyEqualToItself() {
+        Participant participant = participant(null, "acme");
+
+        assertThat(participant).isEqualTo(participant);
+        assertThat(participant).isNotEqualTo(participant(null, "acme"));
+        assertThat(participant).isNotEqualTo(participant(1, "acme"));
+        assertThat(participant(1, "acme")).isNotEqualTo(participant);
+    }
+
+    @Test
+    void entitiesOfDifferentClassesAreNotEqual() {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(1);
+
+        assertThat(participant(1, "acme")).isNotEqualTo(event);
+        assertThat(event).isNotEqualTo(participant(1, "acme"));
+    }
+
+    @Test
+    void hashCodeDoesNotChangeWhenTheIdIsAssigned() {
+        Participant participant = participant(null, "acme");
+        Set<Participant> participants = new HashSet<>();
+        participants.add(participant);
+        int hashCode = participant.hashCode();
+
+        participant.setId(1);
+
+        assertThat(participant.hashCode()).isEqualTo(hashCode);
+        assertThat(participants).contains(participant);
+    }
+
+    @Test
+    void jsonColumnsAreNotCompared() {
+        Map<String, Object> metadata = mock(Map.class);
+        Participant participant = participant(1, "acme");
+        participant.setMetadata(metadata);
+        Participant sameRow = participant(1, "acme");
+        sameRow.setMetadata(Map.of("region", "it"));
+
+        assertThat(participant).isEqualTo(sameRow);
+        assertThat(participant.hashCode()).isEqualTo(sameRow.hashCode());
+        verifyNoInteractions(metadata);
+    }
+
+    @Test
+    void lazyProxyIsEqualToItsEntityWithoutBeingInitialized() {
+        LazyInitializer lazyInitializer = mock(LazyInitializer.class);
+        doReturn(Participant.class).when(lazyInitializer).getPersistentClass();
+        Participant proxy = mock(Participant.class, withSettings().extraInterfaces(HibernateProxy.class));
+        when(((HibernateProxy) proxy).getHibernateLazyInitializer()).thenReturn(lazyInitializer);
+        when(proxy.getId()).thenReturn(1);
+
+        assertThat(participant(1, "acme")).isEqualTo(proxy);
+        assertThat(participant(2, "acme")).isNotEqualTo(proxy);
+        verify(lazyInitializer, never()).initialize();
+    }
+
+    private static Participant participant(Integer id, String name) {
+        Participant participant = new Participant();
+        participant.setId(id);
+        participant.setName(name);
+        return participant;
+    }
+}
@@ -0,0 +1,49 @@
+package edc.entity;
+
+import edc.util.UuidV7;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UuidBinaryConverterTest {
+
+    private final UuidBinaryConverter converter = new UuidBinaryConverter();
+
+    @Test
+    void roundTrip() {
+        String externalId = UuidV7.randomUUID().toString();
+
+        byte[] column = converter.convertToDatabaseColumn(externalId);
+
+        assertThat(column).hasSize(16);
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(externalId);
+    }
+
+    @Test
+    void bytesAreInCanonicalOrder() {
+        // same bytes as MySQL UUID_TO_BIN('00112233-4455-6677-8899-aabbccddeeff')
+        byte[] column = converter.convertToDatabaseColumn("00112233-4455-6677-8899-aabbccddeeff");
+
+        assertThat(column).containsExactly(0x00, 0x11, 0x22, 0x33, 0x44, 0x55, 0x66, 0x77,
+                0x88, 0x99, 0xaa, 0xbb, 0xcc, 0xdd, 0xee, 0xff);
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void idThatIsNotAUuidMatchesNoRow() {
+        assertThat(converter.convertToDatabaseColumn("not-a-uuid")).isEmpty();
+    }
+
+    @Test
+    void columnOfTheWrongLengthIsRejected() {
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(new byte[15]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("16 bytes");
+    }
+}
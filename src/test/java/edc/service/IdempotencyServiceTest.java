@@ -0,0 +1,217 @@
+package edc.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edc.config.IdempotencyProperties;
+import edc.dto.ParticipantRequest;
+import edc.entity.IdempotencyRecord;
+import edc.exception.IdempotencyKeyInUseException;
+import edc.exception.IdempotencyKeyMismatchException;
+import edc.exception.InvalidIdempotencyKeyException;
+import edc.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final String KEY = "key-1";
+    private static final String OPERATION = "POST /v1/participants";
+    private static final TypeReference<Map<String, String>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
+    private IdempotencyRecordRepository repository;
+    private IdempotencyService idempotencyService;
+    private AtomicInteger executions;
+    // last record written by the service, what a retry finds in the table
+    private IdempotencyRecord stored;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        idempotencyService = new IdempotencyService(repository, new IdempotencyProperties(), new ObjectMapper());
+        executions = new AtomicInteger();
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            IdempotencyRecord record = invocation.getArgument(0);
+            record.setId(1);
+            stored = record;
+            return record;
+        });
+        when(repository.save(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void requestWithoutKeyIsSimplyExecuted() {
+        ResponseEntity<Map<String, String>> response = execute(null, Map.of("name", "acme"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(executions).hasValue(1);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void blankOrTooLongKeyIsRejected() {
+        assertThatThrownBy(() -> execute(" ", Map.of("name", "acme")))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+        assertThatThrownBy(() -> execute("k".repeat(256), Map.of("name", "acme")))
+                .isInstanceOf(InvalidIdempotencyKeyException.class);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void firstRequestIsExecutedAndItsResponseStored() {
+        ResponseEntity<Map<String, String>> response = execute(KEY, Map.of("name", "acme"));
+
+        assertThat(response.getBody()).containsEntry("participantId", "p-1");
+        assertThat(response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(executions).hasValue(1);
+        assertThat(stored.getScope()).isEqualTo("anonymous");
+        assertThat(stored.getStatus()).isEqualTo(IdempotencyRecord.Status.COMPLETED);
+        assertThat(stored.getResponseStatus()).isEqualTo(201);
+        assertThat(stored.getResponseBody()).contains("p-1");
+        assertThat(stored.getLocation()).isEqualTo("/v1/participants/p-1");
+        assertThat(stored.getLockedUntil()).isNull();
+    }
+
+    @Test
+    void retryWithTheSameRequestReplaysTheStoredResponse() {
+        execute(KEY, Map.of("name", "acme"));
+        retryFinds(stored, 0);
+
+        ResponseEntity<Map<String, String>> replayed = execute(KEY, Map.of("name", "acme"));
+
+        assertThat(executions).hasValue(1);
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replayed.getBody()).containsEntry("participantId", "p-1");
+        assertThat(replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(replayed.getHeaders().getLocation()).isEqualTo(URI.create("/v1/participants/p-1"));
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        execute(KEY, Map.of("name", "acme"));
+        retryFinds(stored, 0);
+
+        assertThatThrownBy(() -> execute(KEY, Map.of("name", "other")))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThatThrownBy(() -> idempotencyService.execute(KEY, "POST /v1/participants/batch", Map.of("name", "acme"),
+                RESPONSE_TYPE, this::created))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void userPasswordIsNotPartOfTheRequestHash() {
+        idempotencyService.execute(KEY, OPERATION, participantRequest("first-secret"), RESPONSE_TYPE, this::created);
+        String requestHash = stored.getRequestHash();
+        retryFinds(stored, 0);
+
+        ResponseEntity<Map<String, String>> replayed = idempotencyService.execute(KEY, OPERATION,
+                participantRequest("second-secret"), RESPONSE_TYPE, this::created);
+
+        assertThat(executions).hasValue(1);
+        assertThat(replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(stored.getRequestHash()).isEqualTo(requestHash);
+    }
+
+    @Test
+    void retryWhileTheFirstRequestIsRunningIsRejected() {
+        IdempotencyRecord running = new IdempotencyRecord();
+        idempotencyService.execute(KEY, OPERATION, Map.of("name", "acme"), RESPONSE_TYPE, () -> {
+            // snapshot of the reservation as seen by a concurrent retry
+            running.setId(stored.getId());
+            running.setIdempotencyKey(stored.getIdempotencyKey());
+            running.setRequestHash(stored.getRequestHash());
+            running.setStatus(stored.getStatus());
+            return created();
+        });
+        retryFinds(running, 0);
+
+        assertThatThrownBy(() -> execute(KEY, Map.of("name", "acme")))
+                .isInstanceOf(IdempotencyKeyInUseException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void expiredReservationIsTakenOverAndExecutedAgain() {
+        execute(KEY, Map.of("name", "acme"));
+        retryFinds(stored, 1);
+        when(repository.findById(1)).thenReturn(Optional.of(stored));
+
+        ResponseEntity<Map<String, String>> response = execute(KEY, Map.of("name", "acme"));
+
+        assertThat(executions).hasValue(2);
+        assertThat(response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() {
+        assertThatThrownBy(() -> idempotencyService.execute(KEY, OPERATION, Map.of("name", "acme"), RESPONSE_TYPE, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(repository).delete(stored);
+        verify(repository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void serverErrorIsNotStoredForReplay() {
+        idempotencyService.execute(KEY, OPERATION, Map.of("name", "acme"), RESPONSE_TYPE,
+                () -> ResponseEntity.status(HttpStatus.BAD_GATEWAY).build());
+
+        verify(repository).delete(stored);
+        verify(repository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    private ResponseEntity<Map<String, String>> execute(String key, Map<String, String> request) {
+        return idempotencyService.execute(key, OPERATION, request, RESPONSE_TYPE, this::created);
+    }
+
+    private static ParticipantRequest participantRequest(String password) {
+        ParticipantRequest.ParticipantDto participant = new ParticipantRequest.ParticipantDto();
+        participant.setName("acme");
+        ParticipantRequest.UserDto user = new ParticipantRequest.UserDto();
+        user.setUsername("acme-admin");
+        user.setPassword(password);
+        ParticipantRequest request = new ParticipantRequest();
+        request.setParticipant(participant);
+        request.setUser(user);
+        return request;
+    }
+
+    private ResponseEntity<Map<String, String>> created() {
+        executions.incrementAndGet();
+        return ResponseEntity.created(URI.create("/v1/participants/p-1")).body(Map.of("participantId", "p-1"));
+    }
+
+    /**
+     * The reservation of the retry hits the unique key; the existing record is found and takeOver updates the given rows.
+     */
+    private void retryFinds(IdempotencyRecord existing, int takenOver) {
+        doThrow(new DataIntegrityViolationException("uk_idempotency_scope_key"))
+                .when(repository).saveAndFlush(any(IdempotencyRecord.class));
+        when(repository.findByScopeAndIdempotencyKey("anonymous", KEY)).thenReturn(Optional.of(existing));
+        when(repository.takeOver(eq(1), anyString(), any(OffsetDateTime.class), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+                .thenReturn(takenOver);
+    }
+}
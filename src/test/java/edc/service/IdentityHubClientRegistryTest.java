@@ -0,0 +1,61 @@
+package edc.service;
+
+import edc.config.ExternalApiProperties;
+import edc.config.HttpClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentityHubClientRegistryTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdentityHubClientRegistry registry = new IdentityHubClientRegistry(RestClient.create(),
+            new ExternalApiProperties(), new HttpClientProperties(), meterRegistry);
+
+    @Test
+    void concurrentFirstCallsShareOneClientAndCircuitBreaker() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<IdentityHubClientRegistry.IdentityHubClient>> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    return registry.forParticipant("acme");
+                }));
+            }
+            start.countDown();
+            IdentityHubClientRegistry.IdentityHubClient first = clients.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<IdentityHubClientRegistry.IdentityHubClient> client : clients) {
+                assertThat(client.get(5, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(meterRegistry.find("resilience.circuitbreaker.state").tag("host", "identityhub.acme.svc.cluster.local:7081")
+                .gauges()).hasSize(1);
+    }
+
+    @Test
+    void eachParticipantHasItsOwnClient() {
+        IdentityHubClientRegistry.IdentityHubClient acme = registry.forParticipant("acme");
+        IdentityHubClientRegistry.IdentityHubClient globex = registry.forParticipant("globex");
+
+        assertThat(acme).isNotSameAs(globex);
+        assertThat(acme.circuitBreaker()).isNotSameAs(globex.circuitBreaker());
+        assertThat(acme.baseUrl()).isEqualTo("http://identityhub.acme.svc.cluster.local:7081");
+        assertThat(registry.forParticipant("acme")).isSameAs(acme);
+    }
+}
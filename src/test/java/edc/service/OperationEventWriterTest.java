@@ -0,0 +1,198 @@
+package edc.service;
+
+import edc.config.OperationEventsProperties;
+import edc.entity.Operation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OperationEventWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private EntityManager entityManager;
+    private MeterRegistry meterRegistry;
+    private OperationEventsProperties properties;
+    // operations of each insert that went through
+    private List<List<OperationEventWriter.OperationEvent>> inserted;
+    // an insert containing the operation of this participant fails
+    private volatile Integer failingParticipantId;
+    private OperationEventWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        entityManager = mock(EntityManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new OperationEventsProperties();
+        properties.setFlushInterval(Duration.ofMillis(20));
+        properties.setShutdownTimeout(Duration.ofSeconds(5));
+        inserted = Collections.synchronizedList(new ArrayList<>());
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            Collection<OperationEventWriter.OperationEvent> events = invocation.getArgument(1);
+            if (events.stream().anyMatch(event -> event.participantId().equals(failingParticipantId))) {
+                throw new DataIntegrityViolationException("fk_operation_participant");
+            }
+            inserted.add(List.copyOf(events));
+            return new int[0][];
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void synchronousModeInsertsRightAway() {
+        writer = newWriter();
+        List<OperationEventWriter.OperationEvent> events = List.of(event(1), event(2));
+
+        writer.write(events);
+
+        assertThat(inserted).containsExactly(events);
+        assertThat(counter("operations.events.written")).isEqualTo(2);
+        verify(entityManager, never()).flush();
+    }
+
+    @Test
+    void synchronousModeFlushesThePendingParticipantsFirst() {
+        writer = newWriter();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        writer.write(List.of(event(1)));
+
+        InOrder order = inOrder(entityManager, jdbcTemplate);
+        order.verify(entityManager).flush();
+        order.verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void nothingIsWrittenForNoOperations() {
+        writer = newWriter();
+
+        writer.write(List.of());
+
+        verifyNoInteractions(jdbcTemplate, entityManager);
+    }
+
+    @Test
+    void writeBehindInsertsQueuedOperationsInBatches() {
+        properties.setWriteBehind(true);
+        properties.setBatchSize(2);
+        writer = newWriter();
+        writer.start();
+
+        writer.write(List.of(event(1), event(2), event(3)));
+        writer.stop();
+
+        assertThat(insertedParticipantIds()).containsExactly(1, 2, 3);
+        assertThat(inserted).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+        assertThat(counter("operations.events.written")).isEqualTo(3);
+        verify(entityManager, never()).flush();
+    }
+
+    @Test
+    void writeBehindQueuesOnlyOnceTheTransactionCommits() {
+        properties.setWriteBehind(true);
+        writer = newWriter();
+        writer.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        writer.write(List.of(event(1)));
+        writer.write(List.of(event(2)));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(synchronizations).hasSize(2);
+        // the second state change is rolled back
+        synchronizations.get(0).afterCommit();
+        writer.stop();
+
+        assertThat(insertedParticipantIds()).containsExactly(1);
+    }
+
+    @Test
+    void writeBehindInsertsItselfWhenTheWriterIsStopped() {
+        properties.setWriteBehind(true);
+        writer = newWriter();
+        List<OperationEventWriter.OperationEvent> events = List.of(event(1));
+
+        writer.write(events);
+
+        assertThat(inserted).containsExactly(events);
+    }
+
+    @Test
+    void failedBatchIsInsertedOneByOneAndOnlyTheBadOperationIsLost() {
+        properties.setWriteBehind(true);
+        failingParticipantId = 2;
+        writer = newWriter();
+        writer.start();
+
+        writer.write(List.of(event(1), event(2), event(3)));
+        writer.stop();
+
+        assertThat(insertedParticipantIds()).containsExactlyInAnyOrder(1, 3);
+        assertThat(counter("operations.events.written")).isEqualTo(2);
+        assertThat(counter("operations.events.failed")).isEqualTo(1);
+    }
+
+    private OperationEventWriter newWriter() {
+        return new OperationEventWriter(properties, jdbcTemplate, entityManager, mock(PlatformTransactionManager.class),
+                meterRegistry);
+    }
+
+    private List<Integer> insertedParticipantIds() {
+        return inserted.stream()
+                .flatMap(List::stream)
+                .map(OperationEventWriter.OperationEvent::participantId)
+                .toList();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static OperationEventWriter.OperationEvent event(int participantId) {
+        return new OperationEventWriter.OperationEvent("0190a5d2-7c4e-7000-8000-00000000000" + participantId, participantId,
+                Operation.EventType.PROVISION_STARTED, Map.of("message", "event " + participantId),
+                OffsetDateTime.now(ZoneOffset.UTC));
+    }
+}
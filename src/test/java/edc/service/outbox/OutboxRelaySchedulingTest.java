@@ -0,0 +1,121 @@
+package edc.service.outbox;
+
+import edc.config.JwksProperties;
+import edc.config.security.keycloak.KeycloakJwksKeySource;
+import edc.entity.OutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The relay and the signing key refresh share Spring's single scheduler thread (no TaskScheduler is defined):
+ * a relay batch stuck on a downstream call must not stop the key refresh.
+ */
+@SpringJUnitConfig
+@TestPropertySource(properties = {
+        "app.outbox.poll-interval=20ms",
+        "app.security.jwks.refresh-interval=50ms"
+})
+class OutboxRelaySchedulingTest {
+
+    private static final CountDownLatch HANDLER_STARTED = new CountDownLatch(1);
+    private static final CountDownLatch RELEASE_HANDLER = new CountDownLatch(1);
+    private static final AtomicInteger REFRESHES = new AtomicInteger();
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @AfterEach
+    void releaseHandler() {
+        RELEASE_HANDLER.countDown();
+    }
+
+    @Test
+    void keyRefreshKeepsRunningWhileRelayBatchIsStuck() throws InterruptedException {
+        assertThat(HANDLER_STARTED.await(5, TimeUnit.SECONDS)).isTrue();
+
+        int refreshesWhenStuck = REFRESHES.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (REFRESHES.get() < refreshesWhenStuck + 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(REFRESHES.get()).isGreaterThanOrEqualTo(refreshesWhenStuck + 3);
+
+        RELEASE_HANDLER.countDown();
+        verify(outboxService, timeout(5000)).complete(any(OutboxEvent.class), any(OutboxEventHandler.class));
+    }
+
+    @Configuration
+    @EnableScheduling
+    static class Config {
+
+        @Bean
+        OutboxService outboxService() {
+            OutboxEvent event = new OutboxEvent();
+            event.setId(1);
+            event.setEventType(OutboxEvent.EventType.PROVISION_PARTICIPANT);
+            event.setAggregateId("participant");
+
+            OutboxService outboxService = mock(OutboxService.class);
+            when(outboxService.claimNextBatch(anyString())).thenReturn(List.of(event), List.of());
+            return outboxService;
+        }
+
+        @Bean
+        OutboxRelay outboxRelay(OutboxService outboxService) {
+            OutboxEventHandler stuckHandler = new OutboxEventHandler() {
+                @Override
+                public OutboxEvent.EventType eventType() {
+                    return OutboxEvent.EventType.PROVISION_PARTICIPANT;
+                }
+
+                @Override
+                public void execute(OutboxEvent event) {
+                    HANDLER_STARTED.countDown();
+                    try {
+                        RELEASE_HANDLER.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            return new OutboxRelay(outboxService,
+                    new SimpleAsyncTaskExecutor("outbox-"),
+                    new SimpleAsyncTaskExecutor("outbox-relay-"),
+                    List.of(stuckHandler));
+        }
+
+        @Bean
+        KeycloakJwksKeySource keycloakJwksKeySource() {
+            return new KeycloakJwksKeySource(RestClient.create(), "http://keycloak.invalid/realms/edc",
+                    "http://keycloak.invalid/certs", new JwksProperties(), new SimpleMeterRegistry()) {
+                @Override
+                public boolean refresh() {
+                    REFRESHES.incrementAndGet();
+                    return false;
+                }
+            };
+        }
+    }
+}
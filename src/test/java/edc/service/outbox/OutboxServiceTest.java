@@ -0,0 +1,176 @@
+package edc.service.outbox;
+
+import edc.config.OutboxProperties;
+import edc.entity.OutboxEvent;
+import edc.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxServiceTest {
+
+    private static final String OWNER = "relay-a";
+
+    private OutboxEventRepository repository;
+    private OutboxEventHandler handler;
+    private OutboxProperties properties;
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        handler = mock(OutboxEventHandler.class);
+        properties = new OutboxProperties();
+        properties.setBatchSize(10);
+        properties.setLease(Duration.ofMinutes(5));
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofSeconds(10));
+        properties.setMaxBackoff(Duration.ofSeconds(15));
+        outboxService = new OutboxService(repository, properties);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void claimLeasesDueEventsToTheOwner() {
+        OutboxEvent pending = event(1, OutboxEvent.Status.PENDING, 0, null);
+        OutboxEvent expired = event(2, OutboxEvent.Status.IN_PROGRESS, 1, "relay-b");
+        when(repository.lockNextDue(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(pending, expired));
+
+        List<OutboxEvent> claimed = outboxService.claimNextBatch(OWNER);
+
+        OffsetDateTime leaseEnd = OffsetDateTime.now(ZoneOffset.UTC).plusMinutes(5);
+        assertThat(claimed).containsExactly(pending, expired);
+        assertThat(claimed).allSatisfy(event -> {
+            assertThat(event.getStatus()).isEqualTo(OutboxEvent.Status.IN_PROGRESS);
+            assertThat(event.getLockedBy()).isEqualTo(OWNER);
+            assertThat(event.getLockedUntil()).isCloseTo(leaseEnd, within(5, ChronoUnit.SECONDS));
+        });
+        assertThat(pending.getAttempts()).isEqualTo(1);
+        assertThat(expired.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void failedAttemptIsRetriedWithExponentialBackoff() {
+        OutboxEvent event = event(1, OutboxEvent.Status.IN_PROGRESS, 1, OWNER);
+        when(repository.findById(1)).thenReturn(Optional.of(event));
+
+        outboxService.fail(copy(event), handler, "timeout");
+
+        assertThat(event.getStatus()).isEqualTo(OutboxEvent.Status.PENDING);
+        assertThat(event.getLockedBy()).isNull();
+        assertThat(event.getLockedUntil()).isNull();
+        assertThat(event.getLastError()).isEqualTo("timeout");
+        assertThat(event.getNextAttemptAt())
+                .isCloseTo(OffsetDateTime.now(ZoneOffset.UTC).plusSeconds(10), within(2, ChronoUnit.SECONDS));
+        verify(handler, never()).onFailed(any(), any());
+        verify(repository).save(event);
+    }
+
+    @Test
+    void backoffIsCappedAtMaxBackoff() {
+        OutboxEvent event = event(1, OutboxEvent.Status.IN_PROGRESS, 2, OWNER);
+        when(repository.findById(1)).thenReturn(Optional.of(event));
+
+        outboxService.fail(copy(event), handler, "timeout");
+
+        // 10s doubled is 20s, capped at 15s
+        assertThat(event.getNextAttemptAt())
+                .isCloseTo(OffsetDateTime.now(ZoneOffset.UTC).plusSeconds(15), within(2, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    void lastFailedAttemptMarksTheEventFailed() {
+        OutboxEvent event = event(1, OutboxEvent.Status.IN_PROGRESS, 3, OWNER);
+        when(repository.findById(1)).thenReturn(Optional.of(event));
+
+        outboxService.fail(copy(event), handler, "timeout");
+
+        assertThat(event.getStatus()).isEqualTo(OutboxEvent.Status.FAILED);
+        verify(handler).onFailed(event, "timeout");
+        verify(repository).save(event);
+    }
+
+    @Test
+    void completeAppliesTheOutcomeOfAnOwnedEvent() {
+        OutboxEvent event = event(1, OutboxEvent.Status.IN_PROGRESS, 1, OWNER);
+        when(repository.findById(1)).thenReturn(Optional.of(event));
+
+        outboxService.complete(copy(event), handler);
+
+        assertThat(event.getStatus()).isEqualTo(OutboxEvent.Status.COMPLETED);
+        assertThat(event.getCompletedAt()).isNotNull();
+        assertThat(event.getLockedBy()).isNull();
+        verify(handler).onCompleted(event);
+        verify(repository).save(event);
+    }
+
+    @Test
+    void outcomeIsDiscardedWhenTheLeaseWasTakenOver() {
+        OutboxEvent claimed = event(1, OutboxEvent.Status.IN_PROGRESS, 1, OWNER);
+        OutboxEvent reclaimed = event(1, OutboxEvent.Status.IN_PROGRESS, 2, "relay-b");
+        when(repository.findById(1)).thenReturn(Optional.of(reclaimed));
+
+        outboxService.complete(claimed, handler);
+        outboxService.fail(claimed, handler, "timeout");
+
+        verify(handler, never()).onCompleted(any());
+        verify(handler, never()).onFailed(any(), any());
+        verify(repository, never()).save(any());
+        assertThat(reclaimed.getLockedBy()).isEqualTo("relay-b");
+    }
+
+    @Test
+    void outcomeIsDiscardedWhenTheEventIsNoLongerInProgress() {
+        OutboxEvent claimed = event(1, OutboxEvent.Status.IN_PROGRESS, 1, OWNER);
+        OutboxEvent completed = event(1, OutboxEvent.Status.COMPLETED, 1, OWNER);
+        when(repository.findById(1)).thenReturn(Optional.of(completed));
+
+        outboxService.complete(claimed, handler);
+
+        verify(handler, never()).onCompleted(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void claimReturnsNothingWhenNoEventIsDue() {
+        when(repository.lockNextDue(any(OffsetDateTime.class), anyInt())).thenReturn(List.of());
+
+        assertThat(outboxService.claimNextBatch(OWNER)).isEmpty();
+    }
+
+    private static OutboxEvent event(int id, OutboxEvent.Status status, int attempts, String lockedBy) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType(OutboxEvent.EventType.PROVISION_PARTICIPANT);
+        event.setAggregateId("participant-" + id);
+        event.setStatus(status);
+        event.setAttempts(attempts);
+        event.setLockedBy(lockedBy);
+        event.setNextAttemptAt(OffsetDateTime.now(ZoneOffset.UTC));
+        return event;
+    }
+
+    /** The instance held by the relay, distinct from the one reloaded from the repository. */
+    private static OutboxEvent copy(OutboxEvent event) {
+        OutboxEvent claimed = event(event.getId(), event.getStatus(), event.getAttempts(), event.getLockedBy());
+        claimed.setLockedUntil(event.getLockedUntil());
+        return claimed;
+    }
+}
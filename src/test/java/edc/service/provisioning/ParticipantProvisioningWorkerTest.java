@@ -0,0 +1,116 @@
+package edc.service.provisioning;
+
+import edc.config.KeycloakProperties;
+import edc.config.security.roles.RoleConfig;
+import edc.service.KeycloakAdminService;
+import edc.service.ParticipantService;
+import edc.service.PasswordHashingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ParticipantProvisioningWorkerTest {
+
+    private static final String REALM = "edc";
+    private static final String EXTERNAL_ID = "0190a5d2-7c4e-7000-8000-000000000001";
+
+    private KeycloakAdminService keycloakAdminService;
+    private ParticipantService participantService;
+    private PasswordHashingService passwordHashingService;
+    private ParticipantProvisioningWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        keycloakAdminService = mock(KeycloakAdminService.class);
+        participantService = mock(ParticipantService.class);
+        passwordHashingService = mock(PasswordHashingService.class);
+        when(passwordHashingService.encode("secret")).thenReturn("{hash}");
+        RoleConfig roleConfig = new RoleConfig();
+        roleConfig.ROLE_USER_PARTICIPANT = "ROLE_USER_PARTICIPANT";
+        worker = new ParticipantProvisioningWorker(keycloakAdminService, mock(KeycloakProperties.class), roleConfig,
+                participantService, passwordHashingService);
+        worker.realmName = REALM;
+    }
+
+    @Test
+    void registersTheUserOfAParticipantStillInProgress() {
+        when(participantService.registerParticipantUser(EXTERNAL_ID, "acme-admin", "{hash}", Map.of())).thenReturn(true);
+
+        worker.onProvisioningRequested(event());
+
+        verify(keycloakAdminService).createUserWithRealmRolesAndClaim(eq(REALM), eq("acme-admin"), eq("secret"), any(), eq("tenant"), any());
+        verify(keycloakAdminService, never()).deleteUserByUsername(anyString(), anyString());
+        verify(participantService, never()).failProvisioning(anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void removesTheKeycloakUserOfAParticipantFailedAsStaleMeanwhile() {
+        when(participantService.registerParticipantUser(EXTERNAL_ID, "acme-admin", "{hash}", Map.of())).thenReturn(false);
+
+        worker.onProvisioningRequested(event());
+
+        verify(keycloakAdminService).deleteUserByUsername(REALM, "acme-admin");
+        verify(participantService, never()).failProvisioning(anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void failsTheProvisioningAndRemovesTheKeycloakUserWhenRegistrationFails() {
+        when(participantService.registerParticipantUser(EXTERNAL_ID, "acme-admin", "{hash}", Map.of()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        worker.onProvisioningRequested(event());
+
+        verify(keycloakAdminService).deleteUserByUsername(REALM, "acme-admin");
+        verify(participantService).failProvisioning(EXTERNAL_ID, "db down", false);
+    }
+
+    @Test
+    void hashRejectedByAFullQueueIsRetried() {
+        when(passwordHashingService.encode("secret"))
+                .thenThrow(new RejectedExecutionException("queue full"))
+                .thenReturn("{hash}");
+        when(participantService.registerParticipantUser(EXTERNAL_ID, "acme-admin", "{hash}", Map.of())).thenReturn(true);
+
+        worker.onProvisioningRequested(event());
+
+        verify(passwordHashingService, times(2)).encode("secret");
+        verify(participantService).registerParticipantUser(EXTERNAL_ID, "acme-admin", "{hash}", Map.of());
+        verify(participantService, never()).failProvisioning(anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void failsTheProvisioningBeforeCreatingTheKeycloakUserWhenTheHashingQueueStaysFull() {
+        doThrow(new RejectedExecutionException("queue full")).when(passwordHashingService).encode("secret");
+
+        worker.onProvisioningRequested(event());
+
+        verify(passwordHashingService, times(5)).encode("secret");
+        verify(keycloakAdminService, never()).createUserWithRealmRolesAndClaim(anyString(), anyString(), anyString(), any(), anyString(), any());
+        verify(keycloakAdminService, never()).deleteUserByUsername(anyString(), anyString());
+        verify(participantService).failProvisioning(eq(EXTERNAL_ID), anyString(), eq(false));
+    }
+
+    private static ParticipantProvisioningRequestedEvent event() {
+        return ParticipantProvisioningRequestedEvent.builder()
+                .participantExternalId(EXTERNAL_ID)
+                .participantName("acme")
+                .tenantName("tenant")
+                .username("acme-admin")
+                .password("secret")
+                .userMetadata(Map.of())
+                .build();
+    }
+}
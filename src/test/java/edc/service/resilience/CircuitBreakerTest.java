@@ -0,0 +1,168 @@
+package edc.service.resilience;
+
+import edc.config.ExternalApiProperties;
+import edc.exception.CircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        ExternalApiProperties.CircuitBreaker config = new ExternalApiProperties.CircuitBreaker();
+        config.setFailureRateThreshold(50);
+        config.setSlidingWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setOpenDuration(OPEN_DURATION);
+        config.setHalfOpenCalls(2);
+        meterRegistry = new SimpleMeterRegistry();
+        // IllegalStateException stands for a network error or a 5xx answer
+        circuitBreaker = new CircuitBreaker("provisioner", config, IllegalStateException.class::isInstance, meterRegistry);
+    }
+
+    @Test
+    void staysClosedUntilMinimumCallsAreRecorded() {
+        fail(3);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensWhenTheFailureRateReachesTheThreshold() {
+        succeed(2);
+        fail(2);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void staysClosedBelowTheThreshold() {
+        succeed(3);
+        fail(1);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void onlyMatchingExceptionsCountAsFailures() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+                throw new IllegalArgumentException("4xx");
+            })).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failureRateIsComputedOnTheLastCallsOnly() {
+        fail(1);
+        succeed(4);
+        fail(2);
+
+        // 3 failures out of 7 calls, but 2 out of the last 4
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void openCircuitRefusesCallsWithoutSendingThem() {
+        fail(4);
+        AtomicInteger sent = new AtomicInteger();
+
+        assertThatThrownBy(() -> circuitBreaker.execute(sent::incrementAndGet)).isInstanceOf(CircuitOpenException.class);
+
+        assertThat(sent).hasValue(0);
+        assertThat(meterRegistry.get("resilience.circuitbreaker.calls").tag("outcome", "rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void halfOpenTrialCallsCloseTheCircuit() throws InterruptedException {
+        fail(4);
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        succeed(1);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed(1);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        // the window starts empty again
+        fail(3);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedTrialCallOpensTheCircuitAgain() throws InterruptedException {
+        fail(4);
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        fail(1);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> "sent")).isInstanceOf(CircuitOpenException.class);
+    }
+
+    @Test
+    void trialCallEndingWithAnErrorGivesItsPermitBack() throws InterruptedException {
+        fail(4);
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+        succeed(2);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void errorCountsAsFailure() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+                throw new NoClassDefFoundError("edc/Missing");
+            })).isInstanceOf(NoClassDefFoundError.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenLetsOnlyTheTrialCallsThrough() throws InterruptedException {
+        fail(4);
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        // both trial permits are taken by calls still running, a third call is refused
+        assertThatThrownBy(() -> circuitBreaker.execute(() ->
+                circuitBreaker.execute(() ->
+                        circuitBreaker.execute(() -> "third"))))
+                .isInstanceOf(CircuitOpenException.class);
+    }
+
+    private void succeed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(circuitBreaker.execute(() -> "ok")).isEqualTo("ok");
+        }
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+                throw new IllegalStateException("503");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package edc.service.resilience;
+
+import edc.config.ExternalApiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Retry retry;
+
+    @BeforeEach
+    void setUp() {
+        ExternalApiProperties.Retry config = new ExternalApiProperties.Retry();
+        config.setMaxAttempts(3);
+        config.setInitialBackoff(Duration.ofMillis(1));
+        config.setMaxBackoff(Duration.ofMillis(2));
+        meterRegistry = new SimpleMeterRegistry();
+        retry = new Retry("provisioner", config, IllegalStateException.class::isInstance, meterRegistry);
+    }
+
+    @Test
+    void stopsAfterMaxAttemptsAndRethrowsTheLastFailure() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute(() -> {
+            throw new IllegalStateException("503 #" + attempts.incrementAndGet());
+        })).isInstanceOf(IllegalStateException.class).hasMessage("503 #3");
+
+        assertThat(attempts).hasValue(3);
+        assertThat(count("failure")).isEqualTo(1);
+    }
+
+    @Test
+    void nonRetryableFailureIsNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("400");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(count("failure")).isEqualTo(1);
+    }
+
+    @Test
+    void succeedsOnALaterAttempt() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute(() -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new IllegalStateException("503");
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(2);
+        assertThat(count("success_after_retry")).isEqualTo(1);
+        assertThat(count("failure")).isZero();
+    }
+
+    @Test
+    void firstAttemptSuccessIsNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThat(retry.execute(attempts::incrementAndGet)).isEqualTo(1);
+        assertThat(count("success")).isEqualTo(1);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("resilience.retry.calls").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,84 @@
+package edc.util;
+
+import edc.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorTest {
+
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000, ZoneOffset.UTC);
+
+    @Test
+    void encodedCursorDecodesToTheSamePosition() {
+        Cursor cursor = new Cursor(CREATED_AT, 42, Sort.Direction.DESC);
+
+        Cursor decoded = Cursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(cursor.encode()).doesNotContain("=", "+", "/");
+    }
+
+    @Test
+    void positionIsKeptInUtc() {
+        Cursor cursor = new Cursor(CREATED_AT.withOffsetSameInstant(ZoneOffset.ofHours(2)), 7, Sort.Direction.ASC);
+
+        Cursor decoded = Cursor.decode(cursor.encode());
+
+        assertThat(decoded.createdAt()).isEqualTo(CREATED_AT);
+        assertThat(decoded.id()).isEqualTo(7);
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThatThrownBy(() -> Cursor.decode("not a cursor!")).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> Cursor.decode(encoded("2025-03-01T10:15:30Z|abc|ASC"))).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> Cursor.decode(encoded("yesterday|1|ASC"))).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> Cursor.decode(encoded("2025-03-01T10:15:30Z|1|SIDEWAYS"))).isInstanceOf(InvalidCursorException.class);
+        // cursor issued before the direction was recorded
+        assertThatThrownBy(() -> Cursor.decode(encoded("2025-03-01T10:15:30Z|1"))).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void cursorIssuedForAnotherDirectionIsRejected() {
+        String ascending = new Cursor(CREATED_AT, 42, Sort.Direction.ASC).encode();
+
+        assertThat(Cursor.decode(ascending, Sort.Direction.ASC).id()).isEqualTo(42);
+        assertThatThrownBy(() -> Cursor.decode(ascending, Sort.Direction.DESC))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageContaining("ASC");
+    }
+
+    @Test
+    void pageQueryChecksTheCursorDirection() {
+        String descending = new Cursor(CREATED_AT, 42, Sort.Direction.DESC).encode();
+
+        PageQuery query = PageQuery.of(0, 20, descending, TotalMode.EXACT, Sort.Direction.DESC);
+
+        assertThat(query.keyset()).isTrue();
+        assertThat(query.after().id()).isEqualTo(42);
+        assertThat(query.totalMode()).isEqualTo(TotalMode.FALSE);
+        assertThatThrownBy(() -> PageQuery.of(0, 20, descending, TotalMode.EXACT, Sort.Direction.ASC))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void emptyCursorStartsTheFirstKeysetPage() {
+        PageQuery query = PageQuery.of(3, 20, "", TotalMode.EXACT, Sort.Direction.ASC);
+
+        assertThat(query.keyset()).isTrue();
+        assertThat(query.after()).isNull();
+        assertThat(query.page()).isZero();
+    }
+
+    private static String encoded(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package edc.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringCacheTest {
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        ExpiringCache<String, Object> cache = new ExpiringCache<>(100, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.computeIfAbsent("acme", key -> {
+                        loads.incrementAndGet();
+                        sleep(50);
+                        return new Object();
+                    });
+                }));
+            }
+            start.countDown();
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void expiredEntryIsEvictedBeforeItsReplacementIsLoaded() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, Duration.ofMillis(20),
+                (key, value) -> events.add("evicted " + value));
+        cache.computeIfAbsent("acme", key -> "v1");
+        sleep(40);
+
+        String reloaded = cache.computeIfAbsent("acme", key -> {
+            events.add("loaded v2");
+            return "v2";
+        });
+
+        assertThat(reloaded).isEqualTo("v2");
+        assertThat(events).containsExactly("evicted v1", "loaded v2");
+    }
+
+    @Test
+    void nullIsNotCached() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, Duration.ofMinutes(1));
+
+        assertThat(cache.computeIfAbsent("acme", key -> null)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.computeIfAbsent("acme", key -> "v1")).isEqualTo("v1");
+    }
+
+    @Test
+    void sizeBoundIsKept() {
+        List<String> evicted = Collections.synchronizedList(new ArrayList<>());
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1), (key, value) -> evicted.add(key));
+
+        for (int i = 0; i < 11; i++) {
+            cache.computeIfAbsent("key-" + i, key -> key);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(evicted).isNotEmpty().doesNotContain("key-10");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
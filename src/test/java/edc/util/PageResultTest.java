@@ -0,0 +1,95 @@
+package edc.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageResultTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2025, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void extraRowMeansANextPageStartingAfterTheLastReturnedRow() {
+        List<Row> rows = rows(4);
+
+        PageResult<Row> page = PageResult.keyset(rows, query(3, Sort.Direction.ASC));
+
+        assertThat(page.content()).containsExactlyElementsOf(rows.subList(0, 3));
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.keyset()).isTrue();
+        assertThat(page.total()).isNull();
+        Cursor next = Cursor.decode(page.nextCursor());
+        assertThat(next.id()).isEqualTo(3);
+        assertThat(next.createdAt()).isEqualTo(rows.get(2).getCreatedAt());
+        assertThat(next.direction()).isEqualTo(Sort.Direction.ASC);
+    }
+
+    @Test
+    void exactlyLimitRowsIsTheLastPage() {
+        PageResult<Row> page = PageResult.keyset(rows(3), query(3, Sort.Direction.ASC));
+
+        assertThat(page.content()).hasSize(3);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void noRowsIsAnEmptyLastPage() {
+        PageResult<Row> page = PageResult.keyset(List.of(), query(3, Sort.Direction.ASC));
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void nextCursorCarriesTheQueryDirection() {
+        List<Row> descending = rows(3).reversed();
+
+        PageResult<Row> page = PageResult.keyset(descending, query(2, Sort.Direction.DESC));
+
+        Cursor next = Cursor.decode(page.nextCursor(), Sort.Direction.DESC);
+        assertThat(next.id()).isEqualTo(2);
+    }
+
+    @Test
+    void mappingKeepsTheCursor() {
+        PageResult<Row> page = PageResult.keyset(rows(2), query(1, Sort.Direction.ASC));
+
+        PageResult<Integer> mapped = page.map(Row::getId);
+
+        assertThat(mapped.content()).containsExactly(1);
+        assertThat(mapped.nextCursor()).isEqualTo(page.nextCursor());
+        assertThat(mapped.hasNext()).isTrue();
+    }
+
+    private static PageQuery query(int limit, Sort.Direction direction) {
+        return PageQuery.of(0, limit, "", TotalMode.FALSE, direction);
+    }
+
+    /** Rows 1..count, one second apart. */
+    private static List<Row> rows(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> new Row(id, START.plusSeconds(id)))
+                .toList();
+    }
+
+    private record Row(Integer id, OffsetDateTime createdAt) implements KeysetRow {
+
+        @Override
+        public OffsetDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+    }
+}
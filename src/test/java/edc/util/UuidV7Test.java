@@ -0,0 +1,56 @@
+package edc.util;
+
+import edc.entity.UuidBinaryConverter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    private static final long NOW = 1_726_000_000_000L;
+
+    @Test
+    void isAVersion7Uuid() {
+        UUID uuid = UuidV7.randomUUID();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void startsWithTheEpochMillis() {
+        UUID uuid = UuidV7.at(NOW);
+
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(NOW);
+    }
+
+    @Test
+    void laterIdsSortAfterEarlierOnes() {
+        UuidBinaryConverter converter = new UuidBinaryConverter();
+        for (long millis = NOW; millis < NOW + 1_000; millis++) {
+            UUID earlier = UuidV7.at(millis);
+            UUID later = UuidV7.at(millis + 1);
+
+            assertThat(later.toString()).isGreaterThan(earlier.toString());
+            // order of the BINARY(16) index
+            assertThat(Arrays.compareUnsigned(converter.convertToDatabaseColumn(later.toString()),
+                    converter.convertToDatabaseColumn(earlier.toString()))).isPositive();
+        }
+    }
+
+    @Test
+    void idsOfTheSameMillisecondAreDistinct() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidV7.at(NOW));
+        }
+
+        assertThat(ids).hasSize(10_000);
+        assertThat(ids).allSatisfy(uuid -> assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(NOW));
+    }
+}